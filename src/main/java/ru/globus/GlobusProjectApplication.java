@@ -1,16 +1,47 @@
 package ru.globus;
 
-import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
 import org.springframework.cloud.openfeign.EnableFeignClients;
-import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.core.env.MapPropertySource;
+import ru.globus.service.impl.BalanceSnapshotRebuilder;
+import ru.globus.service.impl.CurrencyRateBackfill;
+
+import java.util.Arrays;
+import java.util.Map;
 
 @SpringBootApplication
+@ConfigurationPropertiesScan
 @EnableFeignClients
-@EnableScheduling
 public class GlobusProjectApplication {
 
+    /**
+     * Настройки разовой команды; перекрывают переменные окружения, с которыми запущены экземпляры сервиса.
+     */
+    static final Map<String, Object> MAINTENANCE_PROPERTIES = Map.of(
+        "transfer.lanes.enabled", false,
+        "transfer.group-commit.enabled", false,
+        "transfer.async.enabled", false,
+        "management.endpoint.health.group.readiness.include", "readinessState"
+    );
+
     public static void main(String[] args) {
-        SpringApplication.run(GlobusProjectApplication.class, args);
+        var application = new SpringApplicationBuilder(GlobusProjectApplication.class);
+        if (isMaintenanceCommand(args)) {
+            // Разовая команда: без веб-сервера, расписания и фоновых обработчиков
+            application.web(WebApplicationType.NONE)
+                .profiles("maintenance")
+                .initializers(context -> context.getEnvironment().getPropertySources()
+                    .addFirst(new MapPropertySource("maintenance", MAINTENANCE_PROPERTIES)));
+        }
+        application.run(args);
+    }
+
+    static boolean isMaintenanceCommand(String[] args) {
+        return Arrays.stream(args).anyMatch(arg ->
+            arg.startsWith("--" + CurrencyRateBackfill.FROM_OPTION)
+                || arg.startsWith("--" + BalanceSnapshotRebuilder.REBUILD_OPTION));
     }
 }
@@ -0,0 +1,48 @@
+package ru.globus.config;
+
+import feign.Response;
+import feign.ResponseInterceptor;
+import feign.RetryableException;
+import feign.Retryer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.http.HttpStatus;
+
+/**
+ * Конфигурация Feign-клиента ЦБР.
+ * Подключается только к {@link ru.globus.feign.BankClient} через {@code @FeignClient(configuration = ...)},
+ * поэтому намеренно не помечена {@code @Configuration}.
+ */
+public class BankClientConfig {
+
+    /**
+     * Повторяет запрос с экспоненциально растущей паузой.
+     *
+     * @param properties настройки клиента ЦБР
+     * @return стратегия повторов
+     */
+    @Bean
+    public Retryer bankClientRetryer(BankClientProperties properties) {
+        var retry = properties.getRetry();
+        return new Retryer.Default(retry.getInitialBackoff().toMillis(), retry.getMaxBackoff().toMillis(), retry.getMaxAttempts());
+    }
+
+    /**
+     * Превращает ответы 5xx и 429 в {@link RetryableException}, чтобы их повторял {@link Retryer}.
+     * Методы клиента возвращают {@link Response}, поэтому без этого Feign отдал бы такой ответ как есть.
+     *
+     * @return перехватчик ответов
+     */
+    @Bean
+    public ResponseInterceptor bankClientRetryOnServerError() {
+        return (context, chain) -> {
+            Response response = context.response();
+            int status = response.status();
+            if (status >= 500 || status == HttpStatus.TOO_MANY_REQUESTS.value()) {
+                response.close();
+                throw new RetryableException(status, "ЦБР ответил статусом " + status,
+                    response.request().httpMethod(), (Long) null, response.request());
+            }
+            return chain.next(context);
+        };
+    }
+}
@@ -0,0 +1,34 @@
+package ru.globus.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Настройки клиента ЦБР (префикс {@code bank.api}).
+ * Пул соединений и таймауты задаются свойствами {@code spring.cloud.openfeign.*}.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "bank.api")
+public class BankClientProperties {
+
+    /** Повтор запросов при сетевых ошибках и ответах 5xx/429. */
+    private Retry retry = new Retry();
+
+    @Getter
+    @Setter
+    public static class Retry {
+
+        /** Максимальное число попыток, включая первую. */
+        private int maxAttempts = 4;
+
+        /** Пауза перед первым повтором; каждая следующая в полтора раза длиннее. */
+        private Duration initialBackoff = Duration.ofMillis(500);
+
+        /** Максимальная пауза между попытками. */
+        private Duration maxBackoff = Duration.ofSeconds(5);
+    }
+}
@@ -0,0 +1,81 @@
+package ru.globus.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.time.Period;
+
+/**
+ * Настройки работы с курсами валют (префикс {@code currency-rates}).
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "currency-rates")
+public class CurrencyRateProperties {
+
+    /** Число последних дат, курсы за которые хранятся в памяти. */
+    private int tableDays = 7;
+
+    /**
+     * Насколько старым может быть курс: если за дату курса нет (выходные, праздники),
+     * берётся последний опубликованный не раньше этого срока.
+     */
+    private Period maxStaleness = Period.ofDays(10);
+
+    /** Пауза между попытками загрузить курсы из базы при прогреве после запуска. */
+    private Duration warmupRetryInterval = Duration.ofSeconds(5);
+
+    /** Число курсов, записываемых одним запросом. */
+    private int writeBatchSize = 5_000;
+
+    /** Настройки загрузки истории курсов. */
+    private Backfill backfill = new Backfill();
+
+    /** Блокировка, по которой курсы у ЦБР запрашивает только один экземпляр приложения. */
+    private RefreshLock refreshLock = new RefreshLock();
+
+    /** Уведомления об изменении курсов от других экземпляров приложения. */
+    private Listener listener = new Listener();
+
+    @Getter
+    @Setter
+    public static class Backfill {
+
+        /** Число дней, запрашиваемых у ЦБР одновременно. */
+        private int threads = 4;
+
+        /** Число дней, курсы за которые сохраняются одной транзакцией вместе с контрольной точкой. */
+        private int batchDays = 30;
+    }
+
+    @Getter
+    @Setter
+    public static class RefreshLock {
+
+        /** Срок аренды блокировки; если экземпляр упал, другой сможет обновить курсы по его истечении. */
+        private Duration ttl = Duration.ofMinutes(5);
+
+        /**
+         * Сколько блокировка остаётся занятой после успешного обновления, считая с захвата.
+         * Экземпляры, запустившие обновление в это время (другой узел по расписанию, прогрев
+         * после перезапуска), не обращаются к ЦБР, а получают курсы по уведомлению.
+         */
+        private Duration minHold = Duration.ofMinutes(10);
+    }
+
+    @Getter
+    @Setter
+    public static class Listener {
+
+        /** Слушать ли уведомления об изменении курсов. */
+        private boolean enabled = true;
+
+        /** Сколько ждать уведомлений, прежде чем проверить, живо ли соединение. */
+        private Duration checkInterval = Duration.ofSeconds(30);
+
+        /** Пауза перед повторным подключением после обрыва соединения. */
+        private Duration reconnectInterval = Duration.ofSeconds(5);
+    }
+}
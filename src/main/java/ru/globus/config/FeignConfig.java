@@ -0,0 +1,24 @@
+package ru.globus.config;
+
+import org.apache.hc.client5.http.impl.classic.HttpClientBuilder;
+import org.springframework.cloud.openfeign.clientconfig.HttpClient5FeignConfiguration.HttpClientBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Общая настройка пула HTTP-соединений Feign-клиентов (Apache HttpClient 5).
+ */
+@Configuration
+public class FeignConfig {
+
+    /**
+     * Отключает собственные повторы HttpClient (по умолчанию он повторяет 429/503 и сетевые ошибки),
+     * чтобы повторами управлял только {@link feign.Retryer} клиента и число попыток не умножалось.
+     *
+     * @return настройка построителя HttpClient
+     */
+    @Bean
+    public HttpClientBuilderCustomizer disableHttpClientRetries() {
+        return HttpClientBuilder::disableAutomaticRetries;
+    }
+}
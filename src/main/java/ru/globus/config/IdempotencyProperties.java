@@ -0,0 +1,32 @@
+package ru.globus.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Настройки хранения ключей идемпотентности (префикс {@code idempotency}).
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "idempotency")
+public class IdempotencyProperties {
+
+    /** Время хранения ключа и сохранённого ответа. */
+    private Duration ttl = Duration.ofHours(24);
+
+    /**
+     * Срок резервирования ключа выполняющимся запросом. Если ответ не сохранён за это время
+     * (узел упал, не смог записать ответ или результат операции неизвестен), ключ может занять повторный запрос.
+     * Должен быть больше времени выполнения самой долгой операции.
+     */
+    private Duration reservationTimeout = Duration.ofMinutes(5);
+
+    /** Максимальное число ответов в локальном LRU-кэше. */
+    private int cacheSize = 10_000;
+
+    /** Число ключей, удаляемых одним запросом при очистке. */
+    private int cleanupBatchSize = 1_000;
+}
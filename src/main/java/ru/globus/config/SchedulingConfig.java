@@ -0,0 +1,17 @@
+package ru.globus.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Включает задачи по расписанию. В профиле {@code maintenance} (разовые команды
+ * {@code --backfill-rates-from} и {@code --rebuild-balance-snapshots}) расписание не запускается.
+ *
+ * @author Vladlen Korablev
+ */
+@Configuration
+@EnableScheduling
+@Profile("!maintenance")
+public class SchedulingConfig {
+}
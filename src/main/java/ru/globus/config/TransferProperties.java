@@ -0,0 +1,169 @@
+package ru.globus.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import ru.globus.model.enums.TransferMode;
+
+import java.time.Duration;
+
+/**
+ * Настройки переводов между счетами (префикс {@code transfer}).
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "transfer")
+public class TransferProperties {
+
+    /** Режим управления конкурентным доступом к счетам. */
+    private TransferMode mode = TransferMode.PESSIMISTIC;
+
+    /** Максимальное время ожидания блокировки строки счёта. */
+    private Duration lockTimeout = Duration.ofSeconds(3);
+
+    /** Настройки режима {@link TransferMode#OPTIMISTIC}. */
+    private Optimistic optimistic = new Optimistic();
+
+    /** Настройки пакетных переводов. */
+    private Batch batch = new Batch();
+
+    /** Настройки выполнения переводов в однопоточных очередях. */
+    private Lanes lanes = new Lanes();
+
+    /** Настройки журнала операций. */
+    private Ledger ledger = new Ledger();
+
+    /** Настройки режима {@link TransferMode#EVENT_SOURCED}. */
+    private EventSourcing eventSourcing = new EventSourcing();
+
+    /** Настройки асинхронного приёма переводов. */
+    private Async async = new Async();
+
+    /** Настройки группового коммита переводов. */
+    private GroupCommit groupCommit = new GroupCommit();
+
+    @Getter
+    @Setter
+    public static class Optimistic {
+
+        /** Максимальное число попыток перевода, включая первую. */
+        private int maxAttempts = 5;
+
+        /** Базовая задержка перед повтором, удваивается с каждой попыткой. */
+        private Duration initialBackoff = Duration.ofMillis(10);
+
+        /** Верхняя граница задержки перед повтором. */
+        private Duration maxBackoff = Duration.ofMillis(200);
+    }
+
+    @Getter
+    @Setter
+    public static class Batch {
+
+        /** Максимальное число переводов в одном запросе. */
+        private int maxSize = 10_000;
+
+        /** Число переводов в одной транзакции (режим BEST_EFFORT) и в одном JDBC-пакете. */
+        private int chunkSize = 500;
+    }
+
+    @Getter
+    @Setter
+    public static class Lanes {
+
+        /**
+         * Выполнять переводы в однопоточных очередях, закреплённых за счетами.
+         * Работает в любом {@code transfer.mode}: переводы выполняет тот же {@code TransferBatchProcessor}, что и пакетные и асинхронные.
+         */
+        private boolean enabled = false;
+
+        /** Число очередей. */
+        private int count = 8;
+
+        /** Ёмкость каждой очереди; при переполнении перевод отклоняется с кодом 429. */
+        private int queueCapacity = 1_000;
+
+        /** Максимальное число переводов, фиксируемых одной транзакцией. */
+        private int maxBatchSize = 50;
+
+        /** Сколько запрос ждёт результата перевода из очереди; дольше отвечает 503. */
+        private Duration awaitTimeout = Duration.ofSeconds(10);
+    }
+
+    @Getter
+    @Setter
+    public static class Ledger {
+
+        /** Число месяцев вперёд, для которых заранее создаются секции журнала. */
+        private int partitionsAhead = 3;
+    }
+
+    @Getter
+    @Setter
+    public static class EventSourcing {
+
+        /** Снимок счёта записывается, когда после предыдущего накопилось столько событий. */
+        private int snapshotEvery = 100;
+
+        /** Снимок счёта с новыми событиями записывается не реже этого интервала. */
+        private Duration snapshotInterval = Duration.ofSeconds(30);
+
+        /** Период проверки, не пора ли записать снимки. */
+        private Duration snapshotPollInterval = Duration.ofSeconds(1);
+
+        /** Число потоков при пересборке снимков. */
+        private int rebuildThreads = 4;
+    }
+
+    @Getter
+    @Setter
+    public static class Async {
+
+        /** Принимать переводы в очередь и отвечать 202 вместо выполнения в потоке запроса. */
+        private boolean enabled = false;
+
+        /** Число фоновых обработчиков очереди. */
+        private int workers = 2;
+
+        /** Максимальное число переводов, выбираемых из очереди одной транзакцией. */
+        private int batchSize = 100;
+
+        /** Пауза обработчика, когда очередь пуста. */
+        private Duration pollInterval = Duration.ofMillis(200);
+
+        /**
+         * Верхняя граница паузы после ошибки обработчика. Пауза начинается с {@code poll-interval}
+         * и удваивается с каждой ошибкой подряд.
+         */
+        private Duration maxBackoff = Duration.ofSeconds(30);
+
+        /** Число попыток, после которого перевод получает статус FAILED. */
+        private int maxAttempts = 5;
+    }
+
+    @Getter
+    @Setter
+    public static class GroupCommit {
+
+        /**
+         * Собирать одновременные переводы в общие транзакции.
+         * Работает в любом {@code transfer.mode}: переводы выполняет тот же {@code TransferBatchProcessor}, что и пакетные и асинхронные.
+         */
+        private boolean enabled = false;
+
+        /** Сколько ждать следующих переводов после первого, прежде чем фиксировать группу. */
+        private Duration maxWait = Duration.ofMillis(5);
+
+        /** Максимальное число переводов, фиксируемых одной транзакцией. */
+        private int maxBatchSize = 50;
+
+        /** Число потоков, одновременно фиксирующих группы. */
+        private int workers = 2;
+
+        /** Ёмкость общей очереди; при переполнении перевод отклоняется с кодом 429. */
+        private int queueCapacity = 10_000;
+
+        /** Сколько запрос ждёт результата перевода из очереди; дольше отвечает 503. */
+        private Duration awaitTimeout = Duration.ofSeconds(10);
+    }
+}
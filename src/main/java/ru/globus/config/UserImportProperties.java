@@ -0,0 +1,20 @@
+package ru.globus.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Настройки массового импорта пользователей (префикс {@code users.import}).
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "users.import")
+public class UserImportProperties {
+
+    /** Сколько ошибок по строкам возвращать в отчёте; остальные только считаются. */
+    private int maxReportedErrors = 1_000;
+
+    /** Размер буфера, которым строки передаются в COPY, в байтах. */
+    private int copyBufferSize = 64 * 1024;
+}
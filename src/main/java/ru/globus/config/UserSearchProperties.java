@@ -0,0 +1,25 @@
+package ru.globus.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Настройки поиска пользователей (префикс {@code users.search}).
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "users.search")
+public class UserSearchProperties {
+
+    /** Максимальное время выполнения одного запроса поиска; дольше запрос прерывается. */
+    private Duration timeout = Duration.ofMillis(500);
+
+    /** Сколько подходящих пользователей отбирается для ранжирования из каждого индекса поиска. */
+    private int candidates = 1_000;
+
+    /** Максимальное число пользователей в ответе. */
+    private int maxResults = 50;
+}
@@ -1,6 +1,8 @@
 package ru.globus.controller;
 
+import com.fasterxml.jackson.core.type.TypeReference;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -10,12 +12,20 @@ import org.springdoc.core.annotations.ParameterObject;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import ru.globus.dto.BankAccountRequestDto;
 import ru.globus.dto.BankAccountResponseDto;
+import ru.globus.dto.BatchTransferRequestDto;
+import ru.globus.dto.CursorPageDto;
+import ru.globus.dto.PendingTransferResponseDto;
 import ru.globus.dto.TransferRequestDto;
+import ru.globus.dto.TransferResultDto;
 import ru.globus.service.BankAccountService;
+import ru.globus.service.IdempotencyService;
+import ru.globus.util.Cursor;
 
+import java.util.List;
 import java.util.UUID;
 
 /**
@@ -29,7 +39,10 @@ import java.util.UUID;
 @RequiredArgsConstructor
 public class BankAccountController {
 
+    private static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
     private final BankAccountService bankAccountService;
+    private final IdempotencyService idempotencyService;
 
     /**
      * Получить список всех счетов (с пагинацией).
@@ -41,6 +54,22 @@ public class BankAccountController {
         return bankAccountService.getAll(pageable);
     }
 
+    /**
+     * Получить счета постранично по курсору (без подсчёта общего числа).
+     */
+    @GetMapping("/cursor")
+    @Operation(summary = "Получить счета в порядке открытия постранично по курсору")
+    @ApiResponse(responseCode = "200", description = "Страница успешно получена")
+    @ApiResponse(responseCode = "400", description = "Некорректный курсор или размер страницы", content = @Content)
+    public CursorPageDto<BankAccountResponseDto> scroll(
+        @Parameter(description = "Курсор next из предыдущей страницы; без него возвращается первая страница")
+        @RequestParam(required = false) String after,
+        @Parameter(description = "Размер страницы, от 1 до " + Cursor.MAX_PAGE_SIZE)
+        @RequestParam(defaultValue = "20") int size
+    ) {
+        return bankAccountService.scroll(after, size);
+    }
+
     /**
      * Создать новый банковский счёт.
      */
@@ -94,14 +123,51 @@ public class BankAccountController {
 
     /**
      * Перевести средства между счетами.
+     * В асинхронном режиме перевод только принимается в очередь.
      */
     @PostMapping("/transfer")
     @Operation(summary = "Перевести средства между банковскими счетами")
     @ApiResponse(responseCode = "200", description = "Перевод успешно выполнен")
+    @ApiResponse(responseCode = "202", description = "Перевод принят в очередь (асинхронный режим)")
     @ApiResponse(responseCode = "400", description = "Ошибка валидации или недостаточно средств", content = @Content)
     @ApiResponse(responseCode = "404", description = "Один из счетов не найден", content = @Content)
+    @ApiResponse(responseCode = "409", description = "Ключ идемпотентности уже использован", content = @Content)
+    public ResponseEntity<PendingTransferResponseDto> transferFunds(
+        @Parameter(description = "Ключ идемпотентности; повтор с тем же ключом не выполняет перевод повторно")
+        @RequestHeader(name = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
+        @Valid @RequestBody TransferRequestDto dto
+    ) {
+        var pending = idempotencyService.execute(idempotencyKey, "transfer", dto,
+            new TypeReference<PendingTransferResponseDto>() {}, () -> bankAccountService.acceptTransfer(dto));
+        return pending == null ? ResponseEntity.ok().build() : ResponseEntity.accepted().body(pending);
+    }
+
+    /**
+     * Получить статус асинхронного перевода.
+     */
+    @GetMapping("/transfer/{id}")
+    @Operation(summary = "Получить статус асинхронного перевода")
+    @ApiResponse(responseCode = "200", description = "Перевод найден")
+    @ApiResponse(responseCode = "404", description = "Перевод не найден", content = @Content)
+    public PendingTransferResponseDto getTransfer(@PathVariable UUID id) {
+        return bankAccountService.getTransfer(id);
+    }
+
+    /**
+     * Выполнить пакет переводов.
+     */
+    @PostMapping("/transfer/batch")
+    @Operation(summary = "Выполнить пакет переводов между банковскими счетами")
+    @ApiResponse(responseCode = "200", description = "Пакет обработан, результат возвращён по каждому переводу")
+    @ApiResponse(responseCode = "400", description = "Ошибка валидации или слишком большой пакет", content = @Content)
+    @ApiResponse(responseCode = "409", description = "Ключ идемпотентности уже использован", content = @Content)
     @ResponseStatus(HttpStatus.OK)
-    public void transferFunds(@Valid @RequestBody TransferRequestDto dto) {
-        bankAccountService.transfer(dto);
+    public List<TransferResultDto> transferBatch(
+        @Parameter(description = "Ключ идемпотентности; повтор с тем же ключом возвращает сохранённый результат")
+        @RequestHeader(name = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
+        @Valid @RequestBody BatchTransferRequestDto dto
+    ) {
+        return idempotencyService.execute(idempotencyKey, "transfer-batch", dto,
+            new TypeReference<List<TransferResultDto>>() {}, () -> bankAccountService.transferBatch(dto));
     }
 }
@@ -1,6 +1,9 @@
 package ru.globus.controller;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.dao.QueryTimeoutException;
 import org.springframework.http.HttpStatus;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -37,7 +40,7 @@ public class GlobalExceptionHandler {
      * Ошибки, связанные с отсутствием сущностей.
      * Возвращаем статус 404, а не 400 (так логичнее и RESTful).
      */
-    @ExceptionHandler({UserNotFoundException.class, BankAccountNotFoundException.class})
+    @ExceptionHandler({UserNotFoundException.class, BankAccountNotFoundException.class, TransferNotFoundException.class})
     @ResponseStatus(HttpStatus.NOT_FOUND)
     public ExceptionBody handleNotFound(final RuntimeException ex) {
         log.warn("Entity not found: {}", ex.getMessage());
@@ -59,6 +62,70 @@ public class GlobalExceptionHandler {
             .build();
     }
 
+    /**
+     * Ключ идемпотентности занят выполняющимся запросом или использован для другого запроса.
+     */
+    @ExceptionHandler(IdempotencyKeyConflictException.class)
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public ExceptionBody handleIdempotencyConflict(final IdempotencyKeyConflictException e) {
+        log.warn("Idempotency conflict: {}", e.getMessage());
+        return ExceptionBody.builder()
+            .message(e.getMessage())
+            .build();
+    }
+
+    /**
+     * Не удалось дождаться блокировки счёта или исчерпаны повторы при конфликте версий.
+     * Возвращаем 409 Conflict — запрос можно безопасно повторить.
+     */
+    @ExceptionHandler({PessimisticLockingFailureException.class, OptimisticLockingFailureException.class})
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public ExceptionBody handleLockFailure(final RuntimeException e) {
+        log.warn("Lock not acquired: {}", e.getMessage());
+        return ExceptionBody.builder()
+            .message("Счёт занят другой операцией, повторите запрос позже")
+            .build();
+    }
+
+    /**
+     * Результат перевода из очереди не получен вовремя. Возвращаем 503: перевод, который
+     * уже выполнялся, мог быть зафиксирован, поэтому ключ идемпотентности не освобождается
+     * и повтор с ним получает 409, а не выполняет перевод второй раз.
+     */
+    @ExceptionHandler(TransferTimeoutException.class)
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    public ExceptionBody handleTransferTimeout(final TransferTimeoutException e) {
+        log.warn("Transfer timed out: {}", e.getMessage());
+        return ExceptionBody.builder()
+            .message(e.getMessage())
+            .build();
+    }
+
+    /**
+     * Очередь переводов переполнена — клиенту следует повторить запрос позже.
+     */
+    @ExceptionHandler(TransferQueueFullException.class)
+    @ResponseStatus(HttpStatus.TOO_MANY_REQUESTS)
+    public ExceptionBody handleQueueFull(final TransferQueueFullException e) {
+        log.warn("Transfer rejected: {}", e.getMessage());
+        return ExceptionBody.builder()
+            .message(e.getMessage())
+            .build();
+    }
+
+    /**
+     * Запрос прерван по statement_timeout — например, поиск пользователей не уложился в отведённое время.
+     * Возвращаем 503: запрос можно повторить или уточнить.
+     */
+    @ExceptionHandler(QueryTimeoutException.class)
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    public ExceptionBody handleQueryTimeout(final QueryTimeoutException e) {
+        log.warn("Query timed out: {}", e.getMessage());
+        return ExceptionBody.builder()
+            .message("Запрос не уложился в отведённое время, уточните условия поиска")
+            .build();
+    }
+
     /**
      * Ошибки валидации тела запроса (аннотации @Valid).
      */
@@ -1,6 +1,7 @@
 package ru.globus.controller;
 
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -9,12 +10,19 @@ import lombok.RequiredArgsConstructor;
 import org.springdoc.core.annotations.ParameterObject;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.*;
+import ru.globus.dto.CursorPageDto;
+import ru.globus.dto.UserImportReportDto;
 import ru.globus.dto.UserRequestDto;
 import ru.globus.dto.UserResponseDto;
+import ru.globus.model.enums.UserImportFormat;
 import ru.globus.service.UserService;
+import ru.globus.util.Cursor;
 
+import java.io.InputStream;
+import java.util.List;
 import java.util.UUID;
 
 /**
@@ -40,6 +48,39 @@ public class UserController {
         return userService.getAll(pageable);
     }
 
+    /**
+     * Получить пользователей постранично по курсору (без подсчёта общего числа).
+     */
+    @GetMapping("/cursor")
+    @Operation(summary = "Получить пользователей в порядке регистрации постранично по курсору")
+    @ApiResponse(responseCode = "200", description = "Страница успешно получена")
+    @ApiResponse(responseCode = "400", description = "Некорректный курсор или размер страницы", content = @Content)
+    public CursorPageDto<UserResponseDto> scroll(
+        @Parameter(description = "Курсор next из предыдущей страницы; без него возвращается первая страница")
+        @RequestParam(required = false) String after,
+        @Parameter(description = "Размер страницы, от 1 до " + Cursor.MAX_PAGE_SIZE)
+        @RequestParam(defaultValue = "20") int size
+    ) {
+        return userService.scroll(after, size);
+    }
+
+    /**
+     * Найти пользователей по части email, фамилии или имени.
+     */
+    @GetMapping("/search")
+    @Operation(summary = "Найти пользователей по части email, фамилии или имени")
+    @ApiResponse(responseCode = "200", description = "Пользователи найдены, лучшие совпадения первыми")
+    @ApiResponse(responseCode = "400", description = "Пустая строка поиска или некорректное число результатов", content = @Content)
+    @ApiResponse(responseCode = "503", description = "Поиск не уложился в отведённое время", content = @Content)
+    public List<UserResponseDto> search(
+        @Parameter(description = "Часть email, фамилии или имени; строки короче трёх символов ищутся по началу email и фамилии")
+        @RequestParam String q,
+        @Parameter(description = "Максимальное число пользователей в ответе")
+        @RequestParam(defaultValue = "20") int limit
+    ) {
+        return userService.search(q, limit);
+    }
+
     /**
      * Создать нового пользователя.
      */
@@ -52,6 +93,26 @@ public class UserController {
         return userService.create(dto);
     }
 
+    /**
+     * Массово создать пользователей из файла CSV или NDJSON.
+     */
+    @PostMapping("/import")
+    @Operation(
+        summary = "Массовый импорт пользователей из CSV или NDJSON",
+        requestBody = @io.swagger.v3.oas.annotations.parameters.RequestBody(content = {
+            @Content(mediaType = "text/csv"),
+            @Content(mediaType = "application/x-ndjson")
+        })
+    )
+    @ApiResponse(responseCode = "200", description = "Файл обработан, ошибки возвращены по строкам")
+    @ApiResponse(responseCode = "400", description = "Неподдерживаемый формат или заголовок CSV", content = @Content)
+    public UserImportReportDto importUsers(
+        @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+        InputStream body
+    ) {
+        return userService.importUsers(body, UserImportFormat.fromContentType(contentType));
+    }
+
     /**
      * Найти пользователя по ID.
      */
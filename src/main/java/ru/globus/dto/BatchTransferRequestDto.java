@@ -0,0 +1,30 @@
+package ru.globus.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import ru.globus.model.enums.BatchTransferMode;
+
+import java.util.List;
+
+/**
+ * DTO для пакетного перевода средств между счетами.
+ */
+@Schema(description = "Запрос на пакетный перевод средств")
+public record BatchTransferRequestDto(
+
+    @NotEmpty(message = "Список переводов не может быть пустым")
+    @Schema(
+        description = "Переводы в порядке выполнения",
+        requiredMode = Schema.RequiredMode.REQUIRED
+    )
+    List<@Valid @NotNull TransferRequestDto> transfers,
+
+    @Schema(
+        description = "Режим обработки ошибок (по умолчанию BEST_EFFORT)",
+        example = "BEST_EFFORT",
+        requiredMode = Schema.RequiredMode.NOT_REQUIRED
+    )
+    BatchTransferMode mode
+) {}
@@ -1,36 +0,0 @@
-package ru.globus.dto;
-
-import com.fasterxml.jackson.dataformat.xml.annotation.JacksonXmlProperty;
-import lombok.Getter;
-import lombok.NoArgsConstructor;
-import lombok.Setter;
-
-/**
- * Представление отдельной валюты в XML ответе от CBR
- */
-@Getter
-@Setter
-@NoArgsConstructor
-public class CbrCurrency {
-
-    @JacksonXmlProperty(isAttribute = true, localName = "ID")
-    private String id;
-
-    @JacksonXmlProperty(localName = "NumCode")
-    private String numCode;
-
-    @JacksonXmlProperty(localName = "CharCode")
-    private String code;
-
-    @JacksonXmlProperty(localName = "Nominal")
-    private int nominal;
-
-    @JacksonXmlProperty(localName = "Name")
-    private String name;
-
-    @JacksonXmlProperty(localName = "Value")
-    private String value;
-
-    @JacksonXmlProperty(localName = "VunitRate")
-    private String vunitRate;
-}
@@ -0,0 +1,14 @@
+package ru.globus.dto;
+
+import ru.globus.model.enums.CurrencyCode;
+
+import java.math.BigDecimal;
+
+/**
+ * Курс валюты из XML ответа от ЦБР.
+ *
+ * @param code    код валюты
+ * @param value   курс в рублях за {@code nominal} единиц валюты
+ * @param nominal число единиц валюты, за которое указан курс
+ */
+public record CbrRate(CurrencyCode code, BigDecimal value, int nominal) {}
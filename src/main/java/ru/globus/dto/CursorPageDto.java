@@ -0,0 +1,24 @@
+package ru.globus.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+/**
+ * Страница списка при постраничном чтении по курсору.
+ *
+ * @param content элементы страницы
+ * @param next    курсор следующей страницы или {@code null}, если страница последняя
+ */
+@Schema(description = "Страница списка при чтении по курсору")
+public record CursorPageDto<T>(
+
+    @Schema(description = "Элементы страницы")
+    List<T> content,
+
+    @Schema(
+        description = "Курсор следующей страницы (параметр after); отсутствует на последней странице",
+        example = "MjAyNS0xMS0wN1QxNDoyMzo1NXxiMWIyYTljMC0zYjJmLTRiNzItYTliMS1jY2YxN2QzNDU2Nzg"
+    )
+    String next
+) {}
@@ -0,0 +1,57 @@
+package ru.globus.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import ru.globus.model.enums.TransferStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * DTO со статусом асинхронного перевода.
+ */
+@Schema(description = "Статус асинхронного перевода")
+public record PendingTransferResponseDto(
+
+    @Schema(
+        description = "Идентификатор перевода",
+        example = "9b1deb4d-3b7d-4bad-9bdd-2b0d7b3dcb6d"
+    )
+    UUID id,
+
+    @Schema(
+        description = "ID счёта отправителя",
+        example = "4a2e0b3c-b41d-4d6e-b5d9-b7f3cd0c33a4"
+    )
+    UUID fromAccountId,
+
+    @Schema(
+        description = "ID счёта получателя",
+        example = "3fa85f64-5717-4562-b3fc-2c963f66afa6"
+    )
+    UUID toAccountId,
+
+    @Schema(
+        description = "Сумма перевода в валюте счёта отправителя",
+        example = "100.00"
+    )
+    BigDecimal amount,
+
+    @Schema(
+        description = "Статус перевода; PENDING — ещё не выполнен",
+        example = "PENDING"
+    )
+    TransferStatus status,
+
+    @Schema(
+        description = "Дата и время приёма перевода",
+        example = "2025-11-07T14:23:55"
+    )
+    LocalDateTime createdAt,
+
+    @Schema(
+        description = "Дата и время выполнения перевода",
+        example = "2025-11-07T14:23:56"
+    )
+    LocalDateTime processedAt
+) {}
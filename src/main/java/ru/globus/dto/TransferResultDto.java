@@ -0,0 +1,23 @@
+package ru.globus.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import ru.globus.model.enums.TransferStatus;
+
+/**
+ * DTO с результатом отдельного перевода из пакета.
+ */
+@Schema(description = "Результат перевода из пакета")
+public record TransferResultDto(
+
+    @Schema(
+        description = "Порядковый номер перевода в запросе (с нуля)",
+        example = "0"
+    )
+    int index,
+
+    @Schema(
+        description = "Статус выполнения перевода",
+        example = "OK"
+    )
+    TransferStatus status
+) {}
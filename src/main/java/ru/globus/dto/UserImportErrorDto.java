@@ -0,0 +1,23 @@
+package ru.globus.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * Строка файла импорта, которая не была загружена.
+ *
+ * @param line    номер строки в файле, начиная с 1
+ * @param email   email из строки, если его удалось прочитать
+ * @param message причина
+ */
+@Schema(description = "Ошибка импорта строки")
+public record UserImportErrorDto(
+
+    @Schema(description = "Номер строки в файле, начиная с 1", example = "42")
+    long line,
+
+    @Schema(description = "Email из строки, если его удалось прочитать", example = "user@example.com")
+    String email,
+
+    @Schema(description = "Причина", example = "Пользователь с таким email уже существует")
+    String message
+) {}
@@ -0,0 +1,29 @@
+package ru.globus.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+/**
+ * Итог массового импорта пользователей.
+ *
+ * @param rows     число строк с данными в файле
+ * @param imported число созданных пользователей
+ * @param failed   число незагруженных строк
+ * @param errors   первые ошибки по строкам (не больше {@code users.import.max-reported-errors})
+ */
+@Schema(description = "Итог массового импорта пользователей")
+public record UserImportReportDto(
+
+    @Schema(description = "Число строк с данными в файле", example = "100000")
+    long rows,
+
+    @Schema(description = "Число созданных пользователей", example = "99998")
+    long imported,
+
+    @Schema(description = "Число незагруженных строк", example = "2")
+    long failed,
+
+    @Schema(description = "Ошибки по строкам в порядке номеров строк; список ограничен, полное число ошибок — в failed")
+    List<UserImportErrorDto> errors
+) {}
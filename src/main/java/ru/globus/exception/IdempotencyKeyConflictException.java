@@ -0,0 +1,17 @@
+package ru.globus.exception;
+
+/**
+ * Исключение для повторного использования ключа идемпотентности:
+ * запрос с этим ключом ещё выполняется или был отправлен с другим телом.
+ */
+public class IdempotencyKeyConflictException extends RuntimeException {
+
+    /**
+     * Создает исключение с сообщением.
+     *
+     * @param message сообщение об ошибке
+     */
+    public IdempotencyKeyConflictException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,16 @@
+package ru.globus.exception;
+
+/**
+ * Исключение для случая, когда срок аренды блокировки истёк или её перехватил другой экземпляр.
+ */
+public class LockLostException extends RuntimeException {
+
+    /**
+     * Создает исключение с сообщением.
+     *
+     * @param message сообщение об ошибке
+     */
+    public LockLostException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,16 @@
+package ru.globus.exception;
+
+/**
+ * Исключение для случая, когда асинхронный перевод не найден.
+ */
+public class TransferNotFoundException extends RuntimeException {
+
+    /**
+     * Создает исключение с сообщением.
+     *
+     * @param message сообщение об ошибке
+     */
+    public TransferNotFoundException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,16 @@
+package ru.globus.exception;
+
+/**
+ * Исключение для случая, когда очередь переводов переполнена.
+ */
+public class TransferQueueFullException extends RuntimeException {
+
+    /**
+     * Создает исключение с сообщением.
+     *
+     * @param message сообщение об ошибке
+     */
+    public TransferQueueFullException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,16 @@
+package ru.globus.exception;
+
+/**
+ * Исключение для случая, когда результат перевода из очереди не получен вовремя.
+ */
+public class TransferTimeoutException extends RuntimeException {
+
+    /**
+     * Создает исключение с сообщением.
+     *
+     * @param message сообщение об ошибке
+     */
+    public TransferTimeoutException(String message) {
+        super(message);
+    }
+}
@@ -1,8 +1,13 @@
 package ru.globus.feign;
 
+import feign.Response;
 import org.springframework.cloud.openfeign.FeignClient;
+import org.springframework.http.HttpHeaders;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
+import ru.globus.config.BankClientConfig;
 
 /**
  * Клиент для получения информации о курсах валют
@@ -12,15 +17,31 @@ import org.springframework.http.MediaType;
  */
 @FeignClient(
     name = "bankClient",
-    url = "${bank.api.url}"
+    url = "${bank.api.url}",
+    configuration = BankClientConfig.class
 )
 public interface BankClient {
 
     /**
      * Запрашивает XML с курсами валют на текущий день.
+     * Тело ответа не буферизуется; его разбирает и закрывает {@link ru.globus.util.XmlParser}.
+     * Если переданы значения ETag и Last-Modified прошлого ответа, запрос условный:
+     * при неизменившихся курсах ЦБР отвечает 304 без тела.
      *
-     * @return XML-строка с данными о курсах валют
+     * @param etag         ETag прошлого ответа или {@code null}
+     * @param lastModified Last-Modified прошлого ответа или {@code null}
+     * @return ответ с XML данными о курсах валют
      */
     @GetMapping(produces = MediaType.APPLICATION_XML_VALUE)
-    String getDailyRates();
+    Response getDailyRates(@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String etag,
+                           @RequestHeader(value = HttpHeaders.IF_MODIFIED_SINCE, required = false) String lastModified);
+
+    /**
+     * Запрашивает XML с курсами валют на указанную дату.
+     *
+     * @param date дата в формате {@code dd/MM/yyyy}
+     * @return ответ с XML данными о курсах валют
+     */
+    @GetMapping(produces = MediaType.APPLICATION_XML_VALUE)
+    Response getRates(@RequestParam("date_req") String date);
 }
@@ -23,7 +23,8 @@ public interface BankAccountMapper {
      * При создании сущности:
      * - поле id игнорируется (генерируется базой данных);
      * - поле active устанавливается в true;
-     * - поле createdAt заполняется текущим временем.
+     * - поле createdAt заполняется текущим временем;
+     * - поле version заполняется Hibernate при сохранении.
      *
      * @param dto DTO с данными для создания банковского счёта
      * @param user сущность пользователя (владелец счёта)
@@ -32,6 +33,7 @@ public interface BankAccountMapper {
     @Mapping(target = "id", ignore = true)
     @Mapping(target = "active", constant = "true")
     @Mapping(target = "createdAt", expression = "java(java.time.LocalDateTime.now())")
+    @Mapping(target = "version", ignore = true)
     BankAccount toEntity(BankAccountRequestDto dto, User user);
 
     /**
@@ -0,0 +1,20 @@
+package ru.globus.mapper;
+
+import org.mapstruct.Mapper;
+import ru.globus.dto.PendingTransferResponseDto;
+import ru.globus.model.entity.PendingTransfer;
+
+/**
+ * Маппер асинхронных переводов в DTO-ответы.
+ */
+@Mapper(componentModel = "spring")
+public interface PendingTransferMapper {
+
+    /**
+     * Преобразует асинхронный перевод в DTO-ответ.
+     *
+     * @param entity асинхронный перевод
+     * @return DTO со статусом перевода
+     */
+    PendingTransferResponseDto toResponseDto(PendingTransfer entity);
+}
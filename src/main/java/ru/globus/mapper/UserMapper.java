@@ -45,6 +45,17 @@ public interface UserMapper {
     @Mapping(target = "accountIds", expression = "java(accountsToAccountIds(user.getAccounts()))")
     UserResponseDto toResponseDto(User user);
 
+    /**
+     * Преобразует сущность User в DTO-ответ UserResponseDto с заранее загруженными
+     * идентификаторами счетов, не обращаясь к ленивой коллекции accounts.
+     *
+     * @param user       сущность пользователя
+     * @param accountIds идентификаторы счетов пользователя
+     * @return DTO с основной информацией о пользователе
+     */
+    @Mapping(target = "accountIds", source = "accountIds")
+    UserResponseDto toResponseDto(User user, List<UUID> accountIds);
+
     /**
      * Обновляет существующую сущность User на основе данных из DTO.
      *
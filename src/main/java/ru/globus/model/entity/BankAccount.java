@@ -55,6 +55,10 @@ public class BankAccount {
     @Column(name = "created_at", nullable = false)
     private LocalDateTime createdAt = LocalDateTime.now();
 
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
     public void deposit(BigDecimal amount) {
         if (amount.signum() <= 0)
             throw new IllegalArgumentException("Сумма пополнения должна быть положительной");
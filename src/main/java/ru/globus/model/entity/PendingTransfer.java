@@ -0,0 +1,50 @@
+package ru.globus.model.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import ru.globus.model.enums.TransferStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Перевод, принятый в асинхронном режиме.
+ * Хранится в очереди со статусом {@link TransferStatus#PENDING}, пока его не выполнит фоновый обработчик.
+ */
+@Getter
+@Setter
+@Entity
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "pending_transfers")
+public class PendingTransfer {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    @Column(name = "id", nullable = false, updatable = false)
+    private UUID id;
+
+    @Column(name = "from_account_id", nullable = false, updatable = false)
+    private UUID fromAccountId;
+
+    @Column(name = "to_account_id", nullable = false, updatable = false)
+    private UUID toAccountId;
+
+    @Column(name = "amount", precision = 19, scale = 2, nullable = false, updatable = false)
+    private BigDecimal amount;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    private TransferStatus status;
+
+    @Column(name = "attempts", nullable = false)
+    private int attempts;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "processed_at")
+    private LocalDateTime processedAt;
+}
@@ -0,0 +1,50 @@
+package ru.globus.model.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import ru.globus.model.enums.CurrencyCode;
+import ru.globus.model.enums.TransactionType;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Запись журнала операций по счёту.
+ * Журнал только дополняется: каждый перевод порождает пару записей
+ * (списание и зачисление) с общим идентификатором перевода.
+ * Таблица секционирована по месяцам по полю {@code created_at}.
+ */
+@Getter
+@Setter
+@Entity
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "transactions")
+public class Transaction {
+
+    @Id
+    @Column(name = "id", nullable = false, updatable = false)
+    private UUID id;
+
+    @Column(name = "transfer_id", nullable = false, updatable = false)
+    private UUID transferId;
+
+    @Column(name = "account_id", nullable = false, updatable = false)
+    private UUID accountId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "type", nullable = false, updatable = false, length = 10)
+    private TransactionType type;
+
+    @Column(name = "amount", precision = 19, scale = 2, nullable = false, updatable = false)
+    private BigDecimal amount;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "currency_code", nullable = false, updatable = false, length = 3)
+    private CurrencyCode currencyCode;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,13 @@
+package ru.globus.model.enums;
+
+/**
+ * Режим обработки ошибок при пакетном переводе.
+ */
+public enum BatchTransferMode {
+
+    /** Пакет выполняется в одной транзакции и отменяется целиком при первой же ошибке. */
+    ALL_OR_NOTHING,
+
+    /** Успешные переводы фиксируются частями, ошибочные пропускаются. */
+    BEST_EFFORT
+}
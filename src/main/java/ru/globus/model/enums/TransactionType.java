@@ -0,0 +1,13 @@
+package ru.globus.model.enums;
+
+/**
+ * Направление движения средств по счёту в журнале операций.
+ */
+public enum TransactionType {
+
+    /** Списание со счёта. */
+    DEBIT,
+
+    /** Зачисление на счёт. */
+    CREDIT
+}
@@ -0,0 +1,23 @@
+package ru.globus.model.enums;
+
+/**
+ * Режим управления конкурентным доступом при переводе средств между счетами.
+ */
+public enum TransferMode {
+
+    /** Блокировка обеих строк счетов (SELECT ... FOR UPDATE) в порядке возрастания ID. */
+    PESSIMISTIC,
+
+    /** Проверка версии строки при сохранении и повтор перевода при конфликте. */
+    OPTIMISTIC,
+
+    /** Условные UPDATE баланса без чтения-изменения-записи в Java. */
+    ATOMIC,
+
+    /**
+     * Баланс — последний снимок плюс события после него; переводы только добавляют события.
+     * Колонка {@code balance} счёта в этом режиме хранит начальный баланс и не меняется,
+     * поэтому переход из этого режима в другие требует перенести текущие балансы в счета.
+     */
+    EVENT_SOURCED
+}
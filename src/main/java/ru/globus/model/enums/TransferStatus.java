@@ -0,0 +1,40 @@
+package ru.globus.model.enums;
+
+/**
+ * Результат выполнения отдельного перевода в пакете или асинхронного перевода.
+ */
+public enum TransferStatus {
+
+    /** Перевод выполнен. */
+    OK,
+
+    /** Один из счетов не найден. */
+    NOT_FOUND,
+
+    /** Счёт отправителя совпадает со счётом получателя. */
+    SAME_ACCOUNT,
+
+    /** Счета принадлежат разным пользователям. */
+    DIFFERENT_USERS,
+
+    /** Один из счетов неактивен. */
+    INACTIVE,
+
+    /** Недостаточно средств на счёте отправителя. */
+    INSUFFICIENT_FUNDS,
+
+    /** Не найден курс для конвертации между валютами счетов. */
+    RATE_NOT_FOUND,
+
+    /** Перевод был бы выполнен, но пакет отменён из-за ошибки в другом переводе. */
+    ROLLED_BACK,
+
+    /** Асинхронный перевод принят и ожидает выполнения. */
+    PENDING,
+
+    /**
+     * Перевод не выполнен из-за ошибки базы данных: асинхронный — за допустимое число попыток,
+     * перевод пакета BEST_EFFORT — в транзакции своей части пакета.
+     */
+    FAILED
+}
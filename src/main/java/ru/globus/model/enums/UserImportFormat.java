@@ -0,0 +1,41 @@
+package ru.globus.model.enums;
+
+import org.springframework.http.MediaType;
+import ru.globus.exception.ValidationException;
+
+/**
+ * Формат файла массового импорта пользователей.
+ */
+public enum UserImportFormat {
+
+    /** CSV с заголовком: email, firstname, surname и необязательный middlename. */
+    CSV("text/csv"),
+
+    /** По одному JSON-объекту пользователя на строку. */
+    NDJSON("application/x-ndjson");
+
+    private final MediaType mediaType;
+
+    UserImportFormat(String mediaType) {
+        this.mediaType = MediaType.parseMediaType(mediaType);
+    }
+
+    /**
+     * Определяет формат по заголовку Content-Type запроса.
+     *
+     * @param contentType значение заголовка
+     * @return формат файла
+     * @throws ValidationException если формат не поддерживается
+     */
+    public static UserImportFormat fromContentType(String contentType) {
+        if (contentType != null) {
+            var type = MediaType.parseMediaType(contentType);
+            for (UserImportFormat format : values()) {
+                if (format.mediaType.includes(type)) {
+                    return format;
+                }
+            }
+        }
+        throw new ValidationException("Неподдерживаемый формат импорта: " + contentType + ", ожидается text/csv или application/x-ndjson");
+    }
+}
@@ -0,0 +1,236 @@
+package ru.globus.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import ru.globus.model.enums.CurrencyCode;
+import ru.globus.repository.BankAccountJdbcRepository.LockedAccount;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Хранилище событий изменения баланса и снимков балансов (режим {@code EVENT_SOURCED}).
+ * Текущий баланс счёта — последний снимок (или начальный баланс счёта, если снимка нет)
+ * плюс сумма событий с номером больше номера снимка.
+ * Счета с событиями, ещё не вошедшими в снимок, отмечаются в {@code balance_dirty_accounts},
+ * поэтому запись снимков просматривает только их, а не все счета.
+ */
+@Repository
+@RequiredArgsConstructor
+public class BalanceEventRepository {
+
+    private static final String LOCK_SQL = """
+        select pg_advisory_xact_lock(u.key)
+        from unnest(?::bigint[]) with ordinality as u(key, ord)
+        order by u.ord
+        """;
+
+    private static final String LOAD_SQL = """
+        select b.id, b.user_id, b.currency_code, b.is_active,
+               coalesce(s.balance, b.balance) + coalesce(p.delta, 0) as balance,
+               coalesce(p.seq, s.seq, 0) as seq
+        from bank_accounts b
+        left join balance_snapshots s on s.account_id = b.id
+        left join lateral (
+            select sum(e.amount) as delta, max(e.seq) as seq
+            from balance_events e
+            where e.account_id = b.id and e.seq > coalesce(s.seq, 0)
+        ) p on true
+        where b.id = any(?::uuid[])
+        """;
+
+    private static final String APPEND_SQL = """
+        insert into balance_events (account_id, seq, amount, transfer_id, created_at)
+        values (?, ?, ?, ?, ?)
+        """;
+
+    private static final String MARK_DIRTY_SQL = """
+        insert into balance_dirty_accounts (account_id, seq, created_at)
+        values (?, ?, ?)
+        on conflict (account_id) do update
+        set seq = greatest(balance_dirty_accounts.seq, excluded.seq)
+        """;
+
+    private static final String SNAPSHOT_DUE_SQL = """
+        insert into balance_snapshots (account_id, seq, balance, created_at)
+        select b.id, p.seq, coalesce(s.balance, b.balance) + p.delta, now()
+        from balance_dirty_accounts d
+        join bank_accounts b on b.id = d.account_id
+        left join balance_snapshots s on s.account_id = d.account_id
+        cross join lateral (
+            select sum(e.amount) as delta, max(e.seq) as seq
+            from balance_events e
+            where e.account_id = d.account_id and e.seq > coalesce(s.seq, 0)
+        ) p
+        where p.seq is not null and (d.seq - coalesce(s.seq, 0) >= ? or d.created_at < ?)
+        on conflict (account_id) do update
+        set seq = excluded.seq, balance = excluded.balance, created_at = excluded.created_at
+        where balance_snapshots.seq < excluded.seq
+        """;
+
+    private static final String CLEAN_DIRTY_SQL = """
+        delete from balance_dirty_accounts
+        where account_id in (
+            select d.account_id
+            from balance_dirty_accounts d
+            join balance_snapshots s on s.account_id = d.account_id
+            where s.seq >= d.seq
+            for update of d skip locked
+        )
+        """;
+
+    private static final String SAVE_SNAPSHOT_SQL = """
+        insert into balance_snapshots (account_id, seq, balance, created_at)
+        values (?, ?, ?, now())
+        on conflict (account_id) do update
+        set seq = excluded.seq, balance = excluded.balance, created_at = excluded.created_at
+        where balance_snapshots.seq <= excluded.seq
+        """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Захватывает транзакционные advisory-блокировки счетов.
+     * Ключи блокировок берутся в порядке возрастания, поэтому встречные переводы не взаимоблокируются.
+     * Строки {@code bank_accounts} при этом не блокируются и не изменяются.
+     *
+     * @param accountIds идентификаторы счетов
+     */
+    public void lock(Collection<UUID> accountIds) {
+        Long[] keys = accountIds.stream()
+            .map(BalanceEventRepository::lockKey)
+            .distinct()
+            .sorted()
+            .toArray(Long[]::new);
+        jdbcTemplate.query(
+            LOCK_SQL,
+            ps -> ps.setArray(1, ps.getConnection().createArrayOf("bigint", keys)),
+            rs -> {}
+        );
+    }
+
+    /**
+     * Загружает счета с текущими балансами и номером последнего события.
+     *
+     * @param accountIds идентификаторы счетов
+     * @return найденные счета; отсутствующие в базе идентификаторы пропускаются
+     */
+    public List<AccountBalance> load(Collection<UUID> accountIds) {
+        return jdbcTemplate.query(
+            LOAD_SQL,
+            ps -> ps.setArray(1, ps.getConnection().createArrayOf("uuid", accountIds.toArray())),
+            (rs, rowNum) -> new AccountBalance(
+                new LockedAccount(
+                    rs.getObject("id", UUID.class),
+                    rs.getObject("user_id", UUID.class),
+                    CurrencyCode.valueOf(rs.getString("currency_code")),
+                    rs.getBigDecimal("balance"),
+                    rs.getBoolean("is_active")
+                ),
+                rs.getLong("seq")
+            )
+        );
+    }
+
+    /**
+     * Добавляет события пакетными INSERT в текущей транзакции и отмечает их счета
+     * как требующие снимка.
+     *
+     * @param events    события
+     * @param batchSize размер одного JDBC-пакета
+     */
+    public void append(List<BalanceEvent> events, int batchSize) {
+        jdbcTemplate.batchUpdate(APPEND_SQL, events, batchSize, (ps, event) -> {
+            ps.setObject(1, event.accountId());
+            ps.setLong(2, event.seq());
+            ps.setBigDecimal(3, event.amount());
+            ps.setObject(4, event.transferId());
+            ps.setTimestamp(5, Timestamp.valueOf(event.createdAt()));
+        });
+
+        Map<UUID, BalanceEvent> latest = new LinkedHashMap<>();
+        for (BalanceEvent event : events) {
+            latest.merge(event.accountId(), event, (a, b) -> a.seq() >= b.seq() ? a : b);
+        }
+        jdbcTemplate.batchUpdate(MARK_DIRTY_SQL, latest.values(), batchSize, (ps, event) -> {
+            ps.setObject(1, event.accountId());
+            ps.setLong(2, event.seq());
+            ps.setTimestamp(3, Timestamp.valueOf(event.createdAt()));
+        });
+    }
+
+    /**
+     * Записывает снимки отмеченных счетов, у которых накопилось не менее {@code minEvents} событий
+     * или первое событие после снимка старше {@code olderThan}, и снимает отметку со счетов,
+     * снимок которых содержит все их события.
+     *
+     * @return число записанных снимков
+     */
+    @Transactional
+    public int snapshotDue(int minEvents, LocalDateTime olderThan) {
+        int written = jdbcTemplate.update(SNAPSHOT_DUE_SQL, minEvents, Timestamp.valueOf(olderThan));
+        jdbcTemplate.update(CLEAN_DIRTY_SQL);
+        return written;
+    }
+
+    /**
+     * Возвращает идентификаторы всех счетов.
+     */
+    public List<UUID> findAccountIds() {
+        return jdbcTemplate.queryForList("select id from bank_accounts", UUID.class);
+    }
+
+    /**
+     * Возвращает начальный баланс счёта, от которого отсчитываются события.
+     */
+    public BigDecimal findInitialBalance(UUID accountId) {
+        return jdbcTemplate.queryForObject("select balance from bank_accounts where id = ?", BigDecimal.class, accountId);
+    }
+
+    /**
+     * Возвращает события счёта в порядке номеров.
+     */
+    public List<BalanceEvent> findEvents(UUID accountId) {
+        return jdbcTemplate.query(
+            "select account_id, seq, amount, transfer_id, created_at from balance_events where account_id = ? order by seq",
+            (rs, rowNum) -> new BalanceEvent(
+                rs.getObject("account_id", UUID.class),
+                rs.getLong("seq"),
+                rs.getBigDecimal("amount"),
+                rs.getObject("transfer_id", UUID.class),
+                rs.getTimestamp("created_at").toLocalDateTime()
+            ),
+            accountId
+        );
+    }
+
+    /**
+     * Перезаписывает снимок счёта, если он не новее переданного.
+     */
+    public void saveSnapshot(UUID accountId, long seq, BigDecimal balance) {
+        jdbcTemplate.update(SAVE_SNAPSHOT_SQL, accountId, seq, balance);
+    }
+
+    static long lockKey(UUID accountId) {
+        return accountId.getMostSignificantBits() ^ accountId.getLeastSignificantBits();
+    }
+
+    /**
+     * Счёт с текущим балансом и номером последнего события.
+     */
+    public record AccountBalance(LockedAccount account, long seq) {}
+
+    /**
+     * Событие изменения баланса: положительная сумма — зачисление, отрицательная — списание.
+     * Номера событий счёта идут подряд, начиная с 1.
+     */
+    public record BalanceEvent(UUID accountId, long seq, BigDecimal amount, UUID transferId, LocalDateTime createdAt) {}
+}
@@ -0,0 +1,72 @@
+package ru.globus.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import ru.globus.model.enums.CurrencyCode;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Репозиторий для пакетных операций над банковскими счетами через JDBC.
+ * Используется там, где пакетная обработка важнее удобства JPA.
+ */
+@Repository
+@RequiredArgsConstructor
+public class BankAccountJdbcRepository {
+
+    private static final String LOCK_SQL = """
+        select b.id, b.user_id, b.currency_code, b.balance, b.is_active
+        from bank_accounts b
+        join unnest(?::uuid[]) with ordinality as u(id, ord) on b.id = u.id
+        order by u.ord
+        for update of b
+        """;
+
+    private static final String UPDATE_BALANCE_SQL =
+        "update bank_accounts set balance = ?, version = version + 1 where id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Блокирует строки счетов одним запросом строго в переданном порядке.
+     *
+     * @param orderedIds идентификаторы счетов в порядке захвата блокировок
+     * @return найденные счета; отсутствующие в базе идентификаторы пропускаются
+     */
+    public List<LockedAccount> lockAll(List<UUID> orderedIds) {
+        return jdbcTemplate.query(
+            LOCK_SQL,
+            ps -> ps.setArray(1, ps.getConnection().createArrayOf("uuid", orderedIds.toArray())),
+            (rs, rowNum) -> new LockedAccount(
+                rs.getObject("id", UUID.class),
+                rs.getObject("user_id", UUID.class),
+                CurrencyCode.valueOf(rs.getString("currency_code")),
+                rs.getBigDecimal("balance"),
+                rs.getBoolean("is_active")
+            )
+        );
+    }
+
+    /**
+     * Записывает новые балансы счетов пакетными UPDATE.
+     *
+     * @param balances  новый баланс по идентификатору счёта
+     * @param batchSize размер одного JDBC-пакета
+     */
+    public void updateBalances(Map<UUID, BigDecimal> balances, int batchSize) {
+        jdbcTemplate.batchUpdate(UPDATE_BALANCE_SQL, new ArrayList<>(balances.entrySet()), batchSize, (ps, entry) -> {
+            ps.setBigDecimal(1, entry.getValue());
+            ps.setObject(2, entry.getKey());
+        });
+    }
+
+    /**
+     * Состояние счёта, прочитанное под блокировкой.
+     */
+    public record LockedAccount(UUID id, UUID userId, CurrencyCode currencyCode, BigDecimal balance, boolean active) {}
+}
@@ -1,8 +1,18 @@
 package ru.globus.repository;
 
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import ru.globus.model.entity.BankAccount;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 /**
@@ -11,5 +21,104 @@ import java.util.UUID;
  * @author Vladlen Korablev
  */
 public interface BankAccountRepository extends JpaRepository<BankAccount, UUID> {
-    boolean existsByAccountNumber(String number);
+    /**
+     * Возвращает идентификаторы счетов сразу нескольких пользователей одним запросом.
+     *
+     * @param userIds идентификаторы пользователей
+     * @return пары «пользователь — счёт» в порядке открытия счетов
+     */
+    @Query("""
+        select a.user.id as userId, a.id as accountId
+        from BankAccount a
+        where a.user.id in :userIds
+        order by a.createdAt, a.id
+        """)
+    List<OwnedAccountId> findAccountIdsByUserIds(@Param("userIds") Collection<UUID> userIds);
+
+    /**
+     * Возвращает первые счета в порядке открытия.
+     *
+     * @param limit число строк
+     * @return счета, отсортированные по времени открытия и идентификатору
+     */
+    @Query(value = """
+        select * from bank_accounts
+        order by created_at, id
+        limit :limit
+        """, nativeQuery = true)
+    List<BankAccount> findFirstPage(@Param("limit") int limit);
+
+    /**
+     * Возвращает счета, открытые после указанной позиции, по индексу idx_bank_accounts_created_at_id.
+     *
+     * @param createdAt время открытия последнего счёта предыдущей страницы
+     * @param id        идентификатор последнего счёта предыдущей страницы
+     * @param limit     число строк
+     * @return счета, отсортированные по времени открытия и идентификатору
+     */
+    @Query(value = """
+        select * from bank_accounts
+        where (created_at, id) > (:createdAt, :id)
+        order by created_at, id
+        limit :limit
+        """, nativeQuery = true)
+    List<BankAccount> findPageAfter(@Param("createdAt") LocalDateTime createdAt, @Param("id") UUID id, @Param("limit") int limit);
+
+    /**
+     * Загружает счёт с блокировкой строки до конца транзакции (SELECT ... FOR UPDATE).
+     *
+     * @param id идентификатор счёта
+     * @return заблокированный счёт, если он существует
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select a from BankAccount a where a.id = :id")
+    Optional<BankAccount> findByIdForUpdate(@Param("id") UUID id);
+
+    /**
+     * Устанавливает lock_timeout для текущей транзакции.
+     *
+     * @param timeout значение в формате PostgreSQL, например "3000ms"
+     * @return установленное значение
+     */
+    @Query(value = "select set_config('lock_timeout', :timeout, true)", nativeQuery = true)
+    String setLockTimeout(@Param("timeout") String timeout);
+
+    /**
+     * Списывает сумму с активного счёта одним UPDATE, если на нём достаточно средств.
+     *
+     * @param id     идентификатор счёта
+     * @param amount сумма списания
+     * @return 1, если списание выполнено, иначе 0
+     */
+    @Modifying
+    @Query("""
+        update BankAccount a
+        set a.balance = a.balance - :amount, a.version = a.version + 1
+        where a.id = :id and a.balance >= :amount and a.active = true
+        """)
+    int debit(@Param("id") UUID id, @Param("amount") BigDecimal amount);
+
+    /**
+     * Зачисляет сумму на активный счёт одним UPDATE.
+     *
+     * @param id     идентификатор счёта
+     * @param amount сумма зачисления
+     * @return 1, если зачисление выполнено, иначе 0
+     */
+    @Modifying
+    @Query("""
+        update BankAccount a
+        set a.balance = a.balance + :amount, a.version = a.version + 1
+        where a.id = :id and a.active = true
+        """)
+    int credit(@Param("id") UUID id, @Param("amount") BigDecimal amount);
+
+    /**
+     * Идентификатор счёта вместе с идентификатором его владельца.
+     */
+    interface OwnedAccountId {
+        UUID getUserId();
+
+        UUID getAccountId();
+    }
 }
@@ -0,0 +1,123 @@
+package ru.globus.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import ru.globus.model.entity.CurrencyRate;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Массовая запись курсов валют и контрольные точки загрузки их истории через JDBC.
+ */
+@Repository
+@RequiredArgsConstructor
+public class CurrencyRateJdbcRepository {
+
+    /*
+     * Строки передаются тремя массивами, поэтому пакет любого размера — один запрос.
+     * Условие в DO UPDATE пропускает неизменившиеся курсы: такие строки не перезаписываются
+     * и не попадают в RETURNING. xmax = 0 только у строк, вставленных этим запросом.
+     */
+    private static final String UPSERT_SQL = """
+        insert into currency_rates (currency_code, rate, rate_date)
+        select * from unnest(?::varchar[], ?::numeric[], ?::date[])
+        on conflict (currency_code, rate_date) do update
+            set rate = excluded.rate
+            where currency_rates.rate <> excluded.rate
+        returning (xmax = 0) as inserted
+        """;
+
+    private static final String SAVE_CHECKPOINT_SQL = """
+        insert into rate_backfill_checkpoints (range_from, range_to, last_date, updated_at)
+        values (?, ?, ?, now())
+        on conflict (range_from, range_to) do update
+            set last_date = excluded.last_date, updated_at = excluded.updated_at
+        """;
+
+    /** Канал уведомлений PostgreSQL об изменении курсов; полезная нагрузка — {@code from,to}. */
+    public static final String RATES_CHANGED_CHANNEL = "currency_rates_changed";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Добавляет новые курсы и обновляет изменившиеся; совпадающие с сохранёнными пропускаются.
+     *
+     * @param rates     курсы валют
+     * @param batchSize число строк в одном запросе
+     * @return число добавленных и обновлённых строк
+     */
+    public UpsertResult upsert(List<CurrencyRate> rates, int batchSize) {
+        int inserted = 0;
+        int updated = 0;
+        for (int from = 0; from < rates.size(); from += batchSize) {
+            var chunk = rates.subList(from, Math.min(from + batchSize, rates.size()));
+            List<Boolean> results = jdbcTemplate.query(
+                UPSERT_SQL,
+                ps -> {
+                    var connection = ps.getConnection();
+                    ps.setArray(1, connection.createArrayOf("varchar",
+                        chunk.stream().map(rate -> rate.getCurrencyCode().name()).toArray()));
+                    ps.setArray(2, connection.createArrayOf("numeric",
+                        chunk.stream().map(CurrencyRate::getRate).toArray()));
+                    ps.setArray(3, connection.createArrayOf("varchar",
+                        chunk.stream().map(rate -> rate.getRateDate().toString()).toArray()));
+                },
+                (rs, rowNum) -> rs.getBoolean("inserted")
+            );
+            for (boolean row : results) {
+                if (row) {
+                    inserted++;
+                } else {
+                    updated++;
+                }
+            }
+        }
+        return new UpsertResult(inserted, updated);
+    }
+
+    /**
+     * Уведомляет все экземпляры приложения об изменении курсов за диапазон дат.
+     * Уведомление доставляется только после фиксации текущей транзакции.
+     *
+     * @param from первая дата
+     * @param to   последняя дата
+     */
+    public void notifyRatesChanged(LocalDate from, LocalDate to) {
+        jdbcTemplate.query("select pg_notify(?, ?)", rs -> null, RATES_CHANGED_CHANNEL, from + "," + to);
+    }
+
+    /**
+     * Возвращает последнюю загруженную дату для диапазона загрузки истории курсов.
+     *
+     * @param from начало диапазона
+     * @param to   конец диапазона
+     * @return последняя дата, курсы за которую уже сохранены
+     */
+    public Optional<LocalDate> findBackfillCheckpoint(LocalDate from, LocalDate to) {
+        return jdbcTemplate.query(
+            "select last_date from rate_backfill_checkpoints where range_from = ? and range_to = ?",
+            (rs, rowNum) -> rs.getDate("last_date").toLocalDate(),
+            Date.valueOf(from), Date.valueOf(to)
+        ).stream().findFirst();
+    }
+
+    /**
+     * Запоминает последнюю загруженную дату для диапазона загрузки истории курсов.
+     *
+     * @param from     начало диапазона
+     * @param to       конец диапазона
+     * @param lastDate последняя дата, курсы за которую сохранены
+     */
+    public void saveBackfillCheckpoint(LocalDate from, LocalDate to, LocalDate lastDate) {
+        jdbcTemplate.update(SAVE_CHECKPOINT_SQL, Date.valueOf(from), Date.valueOf(to), Date.valueOf(lastDate));
+    }
+
+    /**
+     * Итог массовой записи курсов.
+     */
+    public record UpsertResult(int inserted, int updated) {}
+}
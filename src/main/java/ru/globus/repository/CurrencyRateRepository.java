@@ -1,10 +1,13 @@
 package ru.globus.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import ru.globus.model.entity.CurrencyRate;
 import ru.globus.model.enums.CurrencyCode;
 
 import java.time.LocalDate;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -23,4 +26,27 @@ public interface CurrencyRateRepository extends JpaRepository<CurrencyRate, Long
      * Возвращает последний (самый свежий) курс валюты.
      */
     Optional<CurrencyRate> findTopByCurrencyCodeOrderByRateDateDesc(CurrencyCode code);
+
+    /**
+     * Возвращает для каждой из валют последний курс, действующий на дату:
+     * самый поздний с {@code since <= rate_date <= date}. Одним запросом;
+     * для каждой валюты читается одна строка индекса (currency_code, rate_date) в обратном порядке.
+     *
+     * @param codes коды валют
+     * @param date  дата, на которую нужен курс
+     * @param since самая ранняя допустимая дата курса
+     * @return найденные курсы; валюты без курса в окне отсутствуют
+     */
+    @Query(value = """
+        select r.* from unnest(cast(:codes as varchar[])) as c(code)
+        cross join lateral (
+            select * from currency_rates
+            where currency_code = c.code and rate_date <= :date and rate_date >= :since
+            order by rate_date desc
+            limit 1
+        ) r
+        """, nativeQuery = true)
+    List<CurrencyRate> findLatestAsOf(@Param("codes") String[] codes,
+                                      @Param("date") LocalDate date,
+                                      @Param("since") LocalDate since);
 }
@@ -0,0 +1,84 @@
+package ru.globus.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+import ru.globus.model.entity.IdempotencyKey;
+
+import java.time.LocalDateTime;
+
+/**
+ * Репозиторий ключей идемпотентности.
+ * Каждый метод выполняется в собственной короткой транзакции.
+ */
+public interface IdempotencyKeyRepository extends JpaRepository<IdempotencyKey, String> {
+
+    /**
+     * Резервирует ключ, если он свободен. Ключ считается свободным, если его нет,
+     * его срок хранения истёк (но очистка ещё не удалила строку) или предыдущая
+     * резервация не получила ответа до {@code reserved_until}.
+     * Время {@code createdAt} служит меткой резервации для {@link #complete} и {@link #release}.
+     *
+     * @return 1, если ключ зарезервирован; 0, если он занят
+     */
+    @Transactional
+    @Modifying
+    @Query(value = """
+        insert into idempotency_keys (idempotency_key, request_hash, created_at, expires_at, reserved_until)
+        values (:key, :requestHash, :createdAt, :expiresAt, :reservedUntil)
+        on conflict (idempotency_key) do update
+        set request_hash = excluded.request_hash,
+            response = null,
+            created_at = excluded.created_at,
+            expires_at = excluded.expires_at,
+            reserved_until = excluded.reserved_until
+        where idempotency_keys.expires_at < excluded.created_at
+           or (idempotency_keys.response is null and idempotency_keys.reserved_until < excluded.created_at)
+        """, nativeQuery = true)
+    int tryReserve(@Param("key") String key,
+                   @Param("requestHash") String requestHash,
+                   @Param("createdAt") LocalDateTime createdAt,
+                   @Param("expiresAt") LocalDateTime expiresAt,
+                   @Param("reservedUntil") LocalDateTime reservedUntil);
+
+    /**
+     * Сохраняет ответ на выполненный запрос, если ключ всё ещё зарезервирован им.
+     *
+     * @return 1, если ответ сохранён; 0, если резервацию занял другой запрос
+     */
+    @Transactional
+    @Modifying
+    @Query("""
+        update IdempotencyKey k set k.response = :response, k.reservedUntil = null
+        where k.key = :key and k.createdAt = :createdAt
+        """)
+    int complete(@Param("key") String key, @Param("createdAt") LocalDateTime createdAt, @Param("response") String response);
+
+    /**
+     * Освобождает ключ запроса, завершившегося ошибкой, если ключ всё ещё зарезервирован им.
+     */
+    @Transactional
+    @Modifying
+    @Query("delete from IdempotencyKey k where k.key = :key and k.createdAt = :createdAt and k.response is null")
+    int release(@Param("key") String key, @Param("createdAt") LocalDateTime createdAt);
+
+    /**
+     * Удаляет не более {@code limit} просроченных ключей.
+     *
+     * @return число удалённых ключей
+     */
+    @Transactional
+    @Modifying
+    @Query(value = """
+        delete from idempotency_keys
+        where idempotency_key in (
+            select idempotency_key from idempotency_keys
+            where expires_at < :now
+            limit :limit
+            for update skip locked
+        )
+        """, nativeQuery = true)
+    int deleteExpired(@Param("now") LocalDateTime now, @Param("limit") int limit);
+}
@@ -0,0 +1,129 @@
+package ru.globus.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+import ru.globus.dto.TransferRequestDto;
+import ru.globus.model.enums.TransferStatus;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Выборка и завершение асинхронных переводов фоновыми обработчиками через JDBC.
+ */
+@Repository
+@RequiredArgsConstructor
+public class PendingTransferJdbcRepository {
+
+    private static final String CLAIM_SQL = """
+        select id, from_account_id, to_account_id, amount
+        from pending_transfers
+        where status = 'PENDING'
+        order by created_at
+        limit ?
+        for update skip locked
+        """;
+
+    private static final String CLAIM_ONE_SQL = """
+        select id, from_account_id, to_account_id, amount
+        from pending_transfers
+        where id = ? and status = 'PENDING'
+        for update skip locked
+        """;
+
+    private static final String COMPLETE_SQL = """
+        update pending_transfers set status = ?, attempts = attempts + 1, processed_at = now()
+        where id = ? and status = 'PENDING'
+        """;
+
+    private static final String FAIL_SQL = """
+        update pending_transfers
+        set attempts = attempts + 1,
+            status = case when attempts + 1 >= ? then 'FAILED' else status end,
+            processed_at = case when attempts + 1 >= ? then now() else processed_at end
+        where id = any(?::uuid[]) and status = 'PENDING'
+        """;
+
+    private static final RowMapper<ClaimedTransfer> CLAIMED_MAPPER = (rs, rowNum) -> new ClaimedTransfer(
+        rs.getObject("id", UUID.class),
+        new TransferRequestDto(
+            rs.getObject("from_account_id", UUID.class),
+            rs.getObject("to_account_id", UUID.class),
+            rs.getBigDecimal("amount")
+        )
+    );
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Выбирает и блокирует до конца транзакции ожидающие переводы в порядке поступления.
+     * Строки, заблокированные другими обработчиками, пропускаются.
+     *
+     * @param limit максимальное число переводов
+     * @return выбранные переводы
+     */
+    public List<ClaimedTransfer> claim(int limit) {
+        return jdbcTemplate.query(CLAIM_SQL, CLAIMED_MAPPER, limit);
+    }
+
+    /**
+     * Выбирает и блокирует до конца транзакции один ожидающий перевод.
+     *
+     * @param id идентификатор перевода
+     * @return перевод; пусто, если он уже обработан или заблокирован другим обработчиком
+     */
+    public Optional<ClaimedTransfer> claim(UUID id) {
+        return jdbcTemplate.query(CLAIM_ONE_SQL, CLAIMED_MAPPER, id).stream().findFirst();
+    }
+
+    /**
+     * Записывает итоговые статусы выполненных переводов пакетными UPDATE.
+     * Переводы, уже получившие итоговый статус, не изменяются.
+     *
+     * @param ids      идентификаторы переводов
+     * @param statuses статусы в том же порядке
+     */
+    public void complete(List<UUID> ids, List<TransferStatus> statuses) {
+        jdbcTemplate.batchUpdate(COMPLETE_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                ps.setString(1, statuses.get(i).name());
+                ps.setObject(2, ids.get(i));
+            }
+
+            @Override
+            public int getBatchSize() {
+                return ids.size();
+            }
+        });
+    }
+
+    /**
+     * Учитывает неудачную попытку; переводы, исчерпавшие попытки, получают статус FAILED.
+     * Переводы, уже получившие итоговый статус, не изменяются.
+     *
+     * @param ids         идентификаторы переводов
+     * @param maxAttempts допустимое число попыток
+     */
+    public void fail(List<UUID> ids, int maxAttempts) {
+        jdbcTemplate.update(
+            FAIL_SQL,
+            ps -> {
+                ps.setInt(1, maxAttempts);
+                ps.setInt(2, maxAttempts);
+                ps.setArray(3, ps.getConnection().createArrayOf("uuid", ids.toArray()));
+            }
+        );
+    }
+
+    /**
+     * Перевод, выбранный из очереди.
+     */
+    public record ClaimedTransfer(UUID id, TransferRequestDto transfer) {}
+}
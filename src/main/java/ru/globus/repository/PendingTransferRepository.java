@@ -0,0 +1,12 @@
+package ru.globus.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import ru.globus.model.entity.PendingTransfer;
+
+import java.util.UUID;
+
+/**
+ * Репозиторий для приёма асинхронных переводов и чтения их статуса.
+ */
+public interface PendingTransferRepository extends JpaRepository<PendingTransfer, UUID> {
+}
@@ -0,0 +1,80 @@
+package ru.globus.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.Duration;
+import java.util.OptionalLong;
+
+/**
+ * Блокировки задач планировщика с ограниченным сроком аренды.
+ * Все сроки считаются по часам базы, поэтому расхождение часов экземпляров не влияет на блокировку.
+ */
+@Repository
+@RequiredArgsConstructor
+public class SchedulerLockJdbcRepository {
+
+    /*
+     * Свободную или просроченную блокировку захватывает первый пришедший: ON CONFLICT DO UPDATE
+     * берёт блокировку строки, поэтому конкурирующий захват ждёт и затем видит новый срок.
+     * Токен растёт при каждом захвате и служит токеном ограждения.
+     */
+    private static final String ACQUIRE_SQL = """
+        insert into scheduler_locks (name, owner, token, locked_at, locked_until)
+        values (?, ?, 1, now(), now() + ? * interval '1 millisecond')
+        on conflict (name) do update
+            set owner = excluded.owner,
+                token = scheduler_locks.token + 1,
+                locked_at = excluded.locked_at,
+                locked_until = excluded.locked_until
+            where scheduler_locks.locked_until <= now()
+        returning token
+        """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Захватывает блокировку, если она свободна или срок её аренды истёк.
+     *
+     * @param name  имя блокировки
+     * @param owner идентификатор экземпляра приложения
+     * @param ttl   срок аренды
+     * @return токен ограждения; пустой, если блокировку держит другой владелец
+     */
+    public OptionalLong tryAcquire(String name, String owner, Duration ttl) {
+        return jdbcTemplate.query(ACQUIRE_SQL, (rs, rowNum) -> rs.getLong("token"), name, owner, ttl.toMillis())
+            .stream().mapToLong(Long::longValue).findFirst();
+    }
+
+    /**
+     * Проверяет, что блокировка с токеном ещё действует, и до конца транзакции
+     * не даёт её перезахватить. Вызывается в транзакции защищаемой записи.
+     *
+     * @param name  имя блокировки
+     * @param token токен ограждения
+     * @return {@code true}, если блокировка действует
+     */
+    public boolean lockIfHeld(String name, long token) {
+        return !jdbcTemplate.queryForList(
+            "select token from scheduler_locks where name = ? and token = ? and locked_until > now() for share",
+            Long.class, name, token
+        ).isEmpty();
+    }
+
+    /**
+     * Освобождает блокировку, если она всё ещё принадлежит владельцу с этим токеном.
+     * Блокировка остаётся занятой не меньше {@code minHold} с момента захвата.
+     *
+     * @param name    имя блокировки
+     * @param token   токен ограждения
+     * @param minHold минимальное время удержания с момента захвата
+     */
+    public void release(String name, long token, Duration minHold) {
+        jdbcTemplate.update(
+            "update scheduler_locks set locked_until = greatest(now(), locked_at + ? * interval '1 millisecond') "
+                + "where name = ? and token = ?",
+            minHold.toMillis(), name, token
+        );
+    }
+}
@@ -0,0 +1,85 @@
+package ru.globus.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import ru.globus.model.entity.Transaction;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+
+/**
+ * Пакетная запись в журнал операций и обслуживание его секций через JDBC.
+ */
+@Repository
+@RequiredArgsConstructor
+public class TransactionJdbcRepository {
+
+    private static final String INSERT_SQL = """
+        insert into transactions (id, transfer_id, account_id, type, amount, currency_code, created_at)
+        values (?, ?, ?, ?, ?, ?, ?)
+        """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Добавляет записи в журнал пакетными INSERT в текущей транзакции.
+     *
+     * @param transactions записи журнала
+     * @param batchSize    размер одного JDBC-пакета
+     */
+    public void insertAll(List<Transaction> transactions, int batchSize) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, transactions, batchSize, (ps, transaction) -> {
+            ps.setObject(1, transaction.getId());
+            ps.setObject(2, transaction.getTransferId());
+            ps.setObject(3, transaction.getAccountId());
+            ps.setString(4, transaction.getType().name());
+            ps.setBigDecimal(5, transaction.getAmount());
+            ps.setString(6, transaction.getCurrencyCode().name());
+            ps.setTimestamp(7, Timestamp.valueOf(transaction.getCreatedAt()));
+        });
+    }
+
+    /**
+     * Создаёт секцию журнала за месяц, если её ещё нет.
+     * Если записи за этот месяц уже попали в секцию по умолчанию, PostgreSQL не даст создать секцию,
+     * поэтому записи переносятся в новую таблицу, и она подключается как секция. На время переноса
+     * секция по умолчанию блокируется для записи.
+     *
+     * @param month месяц секции
+     * @return число записей, перенесённых из секции по умолчанию
+     */
+    @Transactional
+    public int createPartition(YearMonth month) {
+        String name = partitionName(month);
+        LocalDate from = month.atDay(1);
+        LocalDate to = month.plusMonths(1).atDay(1);
+        Boolean misplaced = jdbcTemplate.queryForObject(
+            "select exists (select 1 from transactions_default where created_at >= ? and created_at < ?)",
+            Boolean.class, from, to);
+        if (!Boolean.TRUE.equals(misplaced)) {
+            jdbcTemplate.execute("create table if not exists %s partition of transactions for values from ('%s') to ('%s')"
+                .formatted(name, from, to));
+            return 0;
+        }
+
+        jdbcTemplate.execute("lock table transactions_default in exclusive mode");
+        jdbcTemplate.execute("create table %s (like transactions including defaults including constraints)".formatted(name));
+        int moved = jdbcTemplate.update("""
+            with moved as (
+                delete from transactions_default where created_at >= ? and created_at < ? returning *
+            )
+            insert into %s select * from moved
+            """.formatted(name), from, to);
+        jdbcTemplate.execute("alter table transactions attach partition %s for values from ('%s') to ('%s')"
+            .formatted(name, from, to));
+        return moved;
+    }
+
+    static String partitionName(YearMonth month) {
+        return "transactions_%d_%02d".formatted(month.getYear(), month.getMonthValue());
+    }
+}
@@ -0,0 +1,22 @@
+package ru.globus.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import ru.globus.model.entity.Transaction;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Репозиторий для чтения журнала операций.
+ */
+public interface TransactionRepository extends JpaRepository<Transaction, UUID> {
+
+    /**
+     * Возвращает операции по счёту за период, начиная с последних.
+     * Запрос использует индекс {@code (account_id, created_at)} и затрагивает только секции периода.
+     */
+    List<Transaction> findByAccountIdAndCreatedAtBetweenOrderByCreatedAtDesc(
+        UUID accountId, LocalDateTime from, LocalDateTime to, Pageable pageable);
+}
@@ -0,0 +1,153 @@
+package ru.globus.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.PGCopyOutputStream;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.function.Consumer;
+
+/**
+ * Массовая загрузка пользователей: строки передаются в промежуточную временную таблицу
+ * через COPY и затем одним запросом переносятся в {@code users}.
+ * Все методы должны вызываться в одной транзакции: временная таблица удаляется при её завершении.
+ */
+@Repository
+@RequiredArgsConstructor
+public class UserImportJdbcRepository {
+
+    private static final String CREATE_STAGING_SQL = """
+        create temp table user_import (
+            line       bigint  not null,
+            email      varchar not null,
+            firstname  varchar not null,
+            surname    varchar not null,
+            middlename varchar
+        ) on commit drop
+        """;
+
+    private static final String COPY_SQL =
+        "copy user_import (line, email, firstname, surname, middlename) from stdin with (format csv)";
+
+    /*
+     * Из повторов email внутри файла вставляется первая строка, остальные отклоняются.
+     * Строки, email которых уже есть в users, пропускает ON CONFLICT по UC_USERS_EMAIL;
+     * запрос возвращает все невставленные строки в порядке номеров строк.
+     */
+    private static final String MERGE_SQL = """
+        with first_rows as (
+            select distinct on (email) line, email, firstname, surname, middlename
+            from user_import
+            order by email, line
+        ), inserted as (
+            insert into users (id, email, firstname, surname, middlename, registered_at)
+            select gen_random_uuid(), email, firstname, surname, middlename, localtimestamp
+            from first_rows
+            order by line
+            on conflict on constraint uc_users_email do nothing
+            returning email
+        )
+        select s.line, s.email, f.line is null as repeated
+        from user_import s
+        left join first_rows f on f.line = s.line
+        where f.line is null or not exists (select 1 from inserted i where i.email = s.email)
+        order by s.line
+        """;
+
+    private static final int MERGE_FETCH_SIZE = 1_000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Создаёт временную таблицу для строк импорта.
+     */
+    public void createStaging() {
+        jdbcTemplate.execute(CREATE_STAGING_SQL);
+    }
+
+    /**
+     * Передаёт строки во временную таблицу одним COPY. Строки читаются из итератора
+     * по мере отправки, поэтому в памяти не накапливаются.
+     *
+     * @param rows       строки импорта
+     * @param bufferSize размер буфера COPY в байтах
+     * @return число загруженных строк
+     */
+    public long copy(Iterator<StagedUser> rows, int bufferSize) {
+        return jdbcTemplate.execute((ConnectionCallback<Long>) connection -> {
+            var copy = new PGCopyOutputStream(connection.unwrap(PGConnection.class), COPY_SQL, bufferSize);
+            try {
+                Writer writer = new OutputStreamWriter(copy, StandardCharsets.UTF_8);
+                while (rows.hasNext()) {
+                    writeRow(writer, rows.next());
+                }
+                writer.flush();
+                return copy.endCopy();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } finally {
+                if (copy.isActive()) {
+                    copy.cancelCopy();
+                }
+            }
+        });
+    }
+
+    /**
+     * Переносит строки из временной таблицы в {@code users}.
+     *
+     * @param rejected получает строки, которые не были вставлены
+     */
+    public void merge(Consumer<RejectedUser> rejected) {
+        jdbcTemplate.query(
+            connection -> {
+                var ps = connection.prepareStatement(MERGE_SQL);
+                // Отклонённых строк может быть сколько угодно, поэтому они читаются курсором
+                ps.setFetchSize(MERGE_FETCH_SIZE);
+                return ps;
+            },
+            rs -> {
+                rejected.accept(new RejectedUser(rs.getLong("line"), rs.getString("email"), rs.getBoolean("repeated")));
+            }
+        );
+    }
+
+    private static void writeRow(Writer writer, StagedUser row) throws IOException {
+        writer.write(Long.toString(row.line()));
+        writeField(writer, row.email());
+        writeField(writer, row.firstname());
+        writeField(writer, row.surname());
+        writeField(writer, row.middlename());
+        writer.write('\n');
+    }
+
+    /** Пустое поле без кавычек COPY читает как NULL, значение в кавычках — как строку. */
+    private static void writeField(Writer writer, String value) throws IOException {
+        writer.write(',');
+        if (value != null) {
+            writer.write('"');
+            writer.write(value.replace("\"", "\"\""));
+            writer.write('"');
+        }
+    }
+
+    /**
+     * Строка импорта, прошедшая проверку.
+     */
+    public record StagedUser(long line, String email, String firstname, String surname, String middlename) {}
+
+    /**
+     * Строка импорта, которая не была вставлена.
+     *
+     * @param repeated {@code true}, если email уже встречался в файле выше
+     */
+    public record RejectedUser(long line, String email, boolean repeated) {}
+}
@@ -1,8 +1,12 @@
 package ru.globus.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import ru.globus.model.entity.User;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.UUID;
 
 /**
@@ -11,11 +15,118 @@ import java.util.UUID;
  */
 public interface UserRepository extends JpaRepository<User, UUID> {
 
+    /*
+     * Поиск идёт в два шага: сначала по индексам отбираются кандидаты, затем они ранжируются.
+     * Совпадения с начала email и фамилии берутся по индексам idx_users_email_prefix и
+     * idx_users_surname_prefix в порядке индекса (точное совпадение раньше более длинных),
+     * не больше :candidates из каждого; к ним через union добавляется не больше :candidates
+     * совпадений по триграммным индексам без сортировки. Так время запроса ограничено и для частых
+     * фрагментов вроде "mail", которым соответствует большая часть таблицы, а совпадения с начала
+     * не теряются среди случайно отобранных совпадений в середине значения.
+     */
+
+    /** Поиск по части email, фамилии или имени по триграммным индексам. */
+    String SEARCH_BY_FRAGMENT_SQL = """
+        select * from (
+            (select * from users where lower(surname) like lower(:prefix) order by lower(surname) using ~<~ limit :candidates)
+            union
+            (select * from users where lower(email) like lower(:prefix) order by lower(email) using ~<~ limit :candidates)
+            union
+            (select * from users
+             where email ilike :pattern or surname ilike :pattern or firstname ilike :pattern
+             limit :candidates)
+        ) u
+        order by
+            (lower(u.email) like lower(:prefix) or lower(u.surname) like lower(:prefix) or lower(u.firstname) like lower(:prefix)) desc,
+            greatest(similarity(u.email, :term), similarity(u.surname, :term), similarity(u.firstname, :term)) desc,
+            u.surname, u.firstname, u.id
+        limit :limit
+        """;
+
+    /** Поиск по началу email или фамилии по индексам idx_users_email_prefix и idx_users_surname_prefix. */
+    String SEARCH_BY_PREFIX_SQL = """
+        select * from (
+            (select * from users where lower(surname) like lower(:prefix) order by lower(surname) using ~<~ limit :candidates)
+            union
+            (select * from users where lower(email) like lower(:prefix) order by lower(email) using ~<~ limit :candidates)
+        ) u
+        order by
+            greatest(similarity(u.email, :term), similarity(u.surname, :term), similarity(u.firstname, :term)) desc,
+            u.surname, u.firstname, u.id
+        limit :limit
+        """;
+
+    /**
+     * Возвращает первых пользователей в порядке регистрации.
+     *
+     * @param limit число строк
+     * @return пользователи, отсортированные по времени регистрации и идентификатору
+     */
+    @Query(value = """
+        select * from users
+        order by registered_at, id
+        limit :limit
+        """, nativeQuery = true)
+    List<User> findFirstPage(@Param("limit") int limit);
+
+    /**
+     * Возвращает пользователей, зарегистрированных после указанной позиции.
+     * Сравнение пары столбцов читает индекс idx_users_registered_at_id с позиции,
+     * поэтому стоимость запроса не зависит от того, насколько далеко позиция от начала.
+     *
+     * @param registeredAt время регистрации последнего пользователя предыдущей страницы
+     * @param id           идентификатор последнего пользователя предыдущей страницы
+     * @param limit        число строк
+     * @return пользователи, отсортированные по времени регистрации и идентификатору
+     */
+    @Query(value = """
+        select * from users
+        where (registered_at, id) > (:registeredAt, :id)
+        order by registered_at, id
+        limit :limit
+        """, nativeQuery = true)
+    List<User> findPageAfter(@Param("registeredAt") LocalDateTime registeredAt, @Param("id") UUID id, @Param("limit") int limit);
+
+    /**
+     * Ищет пользователей, у которых email, фамилия или имя содержат фрагмент.
+     * Сначала идут совпадения с начала значения, затем остальные по убыванию сходства.
+     *
+     * @param term       искомая строка
+     * @param pattern    шаблон LIKE вида {@code %term%}
+     * @param prefix     шаблон LIKE вида {@code term%}
+     * @param candidates сколько строк отбирать из каждого индекса для ранжирования
+     * @param limit      число строк
+     * @return найденные пользователи, лучшие совпадения первыми
+     */
+    @Query(value = SEARCH_BY_FRAGMENT_SQL, nativeQuery = true)
+    List<User> searchByFragment(@Param("term") String term,
+                                @Param("pattern") String pattern,
+                                @Param("prefix") String prefix,
+                                @Param("candidates") int candidates,
+                                @Param("limit") int limit);
+
+    /**
+     * Ищет пользователей, у которых email или фамилия начинаются с префикса.
+     * Нужен для строк короче трёх символов, по которым триграммный индекс не помогает.
+     *
+     * @param term       искомая строка
+     * @param prefix     шаблон LIKE вида {@code term%}
+     * @param candidates сколько строк отбирать из каждого индекса для ранжирования
+     * @param limit      число строк
+     * @return найденные пользователи, лучшие совпадения первыми
+     */
+    @Query(value = SEARCH_BY_PREFIX_SQL, nativeQuery = true)
+    List<User> searchByPrefix(@Param("term") String term,
+                              @Param("prefix") String prefix,
+                              @Param("candidates") int candidates,
+                              @Param("limit") int limit);
+
     /**
-     * Проверяет, существует ли пользователь с указанным email.
+     * Устанавливает statement_timeout для текущей транзакции.
      *
-     * @param email адрес электронной почты
-     * @return true, если пользователь существует
+     * @param timeout значение в формате PostgreSQL, например "500ms"
+     * @return установленное значение
      */
-    boolean existsByEmail(String email);
+    @Query(value = "select set_config('statement_timeout', :timeout, true)", nativeQuery = true)
+    String setStatementTimeout(@Param("timeout") String timeout);
 }
@@ -4,8 +4,13 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import ru.globus.dto.BankAccountRequestDto;
 import ru.globus.dto.BankAccountResponseDto;
+import ru.globus.dto.BatchTransferRequestDto;
+import ru.globus.dto.CursorPageDto;
+import ru.globus.dto.PendingTransferResponseDto;
 import ru.globus.dto.TransferRequestDto;
+import ru.globus.dto.TransferResultDto;
 
+import java.util.List;
 import java.util.UUID;
 
 /**
@@ -30,6 +35,16 @@ public interface BankAccountService {
      */
     Page<BankAccountResponseDto> getAll(Pageable pageable);
 
+    /**
+     * Возвращает страницу счетов в порядке открытия, начиная после курсора,
+     * без подсчёта общего числа счетов.
+     *
+     * @param after курсор из предыдущей страницы или {@code null} для первой страницы
+     * @param size  размер страницы
+     * @return страница DTO счетов с курсором следующей страницы
+     */
+    CursorPageDto<BankAccountResponseDto> scroll(String after, int size);
+
     /**
      * Возвращает счёт по его идентификатору.
      *
@@ -60,4 +75,36 @@ public interface BankAccountService {
      * @param dto запрос на перевод
      */
     void transfer(TransferRequestDto dto);
+
+    /**
+     * Выполняет пакет переводов с общим снимком курсов валют.
+     *
+     * @param dto запрос на пакетный перевод
+     * @return результат по каждому переводу в порядке запроса
+     */
+    List<TransferResultDto> transferBatch(BatchTransferRequestDto dto);
+
+    /**
+     * Принимает перевод в очередь для асинхронного выполнения.
+     *
+     * @param dto запрос на перевод
+     * @return принятый перевод со статусом PENDING
+     */
+    PendingTransferResponseDto submitTransfer(TransferRequestDto dto);
+
+    /**
+     * Выполняет перевод или, если включён асинхронный приём переводов, принимает его в очередь.
+     *
+     * @param dto запрос на перевод
+     * @return принятый перевод со статусом PENDING или {@code null}, если перевод уже выполнен
+     */
+    PendingTransferResponseDto acceptTransfer(TransferRequestDto dto);
+
+    /**
+     * Возвращает статус асинхронного перевода.
+     *
+     * @param id идентификатор перевода
+     * @return перевод с текущим статусом
+     */
+    PendingTransferResponseDto getTransfer(UUID id);
 }
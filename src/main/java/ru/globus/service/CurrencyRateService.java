@@ -17,6 +17,16 @@ public interface CurrencyRateService {
      */
     void saveRates(Map<CurrencyCode, BigDecimal> rates, LocalDate date);
 
+    /**
+     * Сохраняет курсы валют, предварительно выполнив проверку в той же транзакции.
+     * Если проверка выбрасывает исключение, курсы не сохраняются.
+     *
+     * @param rates курсы валют
+     * @param date  дата курса
+     * @param fence проверка, например, что блокировка обновления курсов ещё принадлежит этому экземпляру
+     */
+    void saveRates(Map<CurrencyCode, BigDecimal> rates, LocalDate date, Runnable fence);
+
     /**
      * Получить коэффициент конвертации между двумя валютами на указанную дату.
      * Если валюты одинаковые, возвращает 1.
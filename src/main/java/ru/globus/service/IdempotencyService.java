@@ -0,0 +1,30 @@
+package ru.globus.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+
+import java.util.function.Supplier;
+
+/**
+ * Сервис выполнения запросов с ключом идемпотентности (заголовок {@code Idempotency-Key}).
+ * Повтор запроса с тем же ключом не выполняет операцию заново, а возвращает сохранённый ответ.
+ */
+public interface IdempotencyService {
+
+    /**
+     * Выполняет операцию не более одного раза для данного ключа.
+     * Если ключ не передан, операция выполняется без проверок.
+     *
+     * @param key          ключ идемпотентности, может быть {@code null}
+     * @param operation    имя операции; один ключ нельзя использовать для разных операций
+     * @param request      тело запроса; повтор с другим телом отклоняется
+     * @param responseType тип ответа для восстановления из хранилища
+     * @param action       операция
+     * @return результат операции или сохранённый ответ на предыдущий запрос
+     */
+    <T> T execute(String key, String operation, Object request, TypeReference<T> responseType, Supplier<T> action);
+
+    /**
+     * Удаляет просроченные ключи пакетами.
+     */
+    void cleanupExpired();
+}
@@ -1,10 +1,15 @@
 package ru.globus.service;
 
+import ru.globus.dto.CursorPageDto;
+import ru.globus.dto.UserImportReportDto;
 import ru.globus.dto.UserRequestDto;
 import ru.globus.dto.UserResponseDto;
+import ru.globus.model.enums.UserImportFormat;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import java.io.InputStream;
+import java.util.List;
 import java.util.UUID;
 
 /**
@@ -21,6 +26,16 @@ public interface UserService {
      */
     UserResponseDto create(UserRequestDto dto);
 
+    /**
+     * Создаёт пользователей из файла CSV или NDJSON.
+     * Строки с ошибками и с уже существующим email пропускаются и попадают в отчёт.
+     *
+     * @param body   содержимое файла
+     * @param format формат файла
+     * @return итог импорта
+     */
+    UserImportReportDto importUsers(InputStream body, UserImportFormat format);
+
     /**
      * Возвращает список всех пользователей.
      *
@@ -28,6 +43,26 @@ public interface UserService {
      */
     Page<UserResponseDto> getAll(Pageable pageable);
 
+    /**
+     * Возвращает страницу пользователей в порядке регистрации, начиная после курсора.
+     * В отличие от {@link #getAll(Pageable)}, не считает общее число пользователей
+     * и не пропускает строки через OFFSET.
+     *
+     * @param after курсор из предыдущей страницы или {@code null} для первой страницы
+     * @param size  размер страницы
+     * @return страница DTO пользователей с курсором следующей страницы
+     */
+    CursorPageDto<UserResponseDto> scroll(String after, int size);
+
+    /**
+     * Ищет пользователей по части email, фамилии или имени.
+     *
+     * @param query искомая строка
+     * @param limit максимальное число пользователей в ответе
+     * @return найденные пользователи, лучшие совпадения первыми
+     */
+    List<UserResponseDto> search(String query, int limit);
+
     /**
      * Возвращает пользователя по его идентификатору.
      *
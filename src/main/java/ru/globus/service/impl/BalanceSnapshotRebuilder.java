@@ -0,0 +1,98 @@
+package ru.globus.service.impl;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ApplicationContext;
+import org.springframework.stereotype.Component;
+import ru.globus.config.TransferProperties;
+import ru.globus.repository.BalanceEventRepository;
+import ru.globus.repository.BalanceEventRepository.BalanceEvent;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Пересобирает снимки балансов, заново проигрывая события всех счетов в несколько потоков.
+ * Запускается командой {@code java -jar app.jar --rebuild-balance-snapshots},
+ * после пересборки приложение завершается. Команда запускается в профиле {@code maintenance}:
+ * без веб-сервера, задач по расписанию и фоновых обработчиков.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BalanceSnapshotRebuilder implements ApplicationRunner {
+
+    public static final String REBUILD_OPTION = "rebuild-balance-snapshots";
+
+    private final BalanceEventRepository balanceEventRepository;
+    private final TransferProperties transferProperties;
+    private final ApplicationContext applicationContext;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!args.containsOption(REBUILD_OPTION)) {
+            return;
+        }
+        int rebuilt = rebuild();
+        log.info("Пересборка снимков завершена: {} счетов", rebuilt);
+        System.exit(SpringApplication.exit(applicationContext, () -> 0));
+    }
+
+    /**
+     * Проигрывает события каждого счёта от начального баланса и перезаписывает снимок.
+     * Снимок, записанный за это время фоновой задачей и более новый, не перезаписывается.
+     *
+     * @return число пересобранных снимков
+     */
+    public int rebuild() {
+        List<UUID> accountIds = balanceEventRepository.findAccountIds();
+        int threads = transferProperties.getEventSourcing().getRebuildThreads();
+        log.info("Пересборка снимков балансов: {} счетов, {} потоков", accountIds.size(), threads);
+
+        try (ExecutorService pool = Executors.newFixedThreadPool(threads)) {
+            List<Future<Boolean>> results = new ArrayList<>(accountIds.size());
+            for (UUID accountId : accountIds) {
+                results.add(pool.submit(() -> replay(accountId)));
+            }
+            int rebuilt = 0;
+            for (Future<Boolean> result : results) {
+                if (result.get()) {
+                    rebuilt++;
+                }
+            }
+            return rebuilt;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Пересборка снимков прервана", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Ошибка при пересборке снимков: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    private boolean replay(UUID accountId) {
+        List<BalanceEvent> events = balanceEventRepository.findEvents(accountId);
+        if (events.isEmpty()) {
+            return false;
+        }
+        BigDecimal balance = balanceEventRepository.findInitialBalance(accountId);
+        long seq = 0;
+        for (BalanceEvent event : events) {
+            if (event.seq() != seq + 1) {
+                log.warn("Счёт {}: пропуск в номерах событий между {} и {}", accountId, seq, event.seq());
+            }
+            balance = balance.add(event.amount());
+            seq = event.seq();
+        }
+        balanceEventRepository.saveSnapshot(accountId, seq, balance);
+        return true;
+    }
+}
@@ -1,27 +1,66 @@
 package ru.globus.service.impl;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import ru.globus.aop.LogMethod;
+import ru.globus.config.TransferProperties;
 import ru.globus.dto.BankAccountRequestDto;
 import ru.globus.dto.BankAccountResponseDto;
+import ru.globus.dto.BatchTransferRequestDto;
+import ru.globus.dto.CursorPageDto;
+import ru.globus.dto.PendingTransferResponseDto;
 import ru.globus.dto.TransferRequestDto;
+import ru.globus.dto.TransferResultDto;
 import ru.globus.exception.BankAccountNotFoundException;
+import ru.globus.exception.TransferNotFoundException;
+import ru.globus.exception.TransferTimeoutException;
 import ru.globus.exception.UserNotFoundException;
+import ru.globus.exception.ValidationException;
 import ru.globus.mapper.BankAccountMapper;
+import ru.globus.mapper.PendingTransferMapper;
+import ru.globus.model.entity.BankAccount;
+import ru.globus.model.entity.PendingTransfer;
+import ru.globus.model.enums.BatchTransferMode;
+import ru.globus.model.enums.CurrencyCode;
+import ru.globus.model.enums.TransferMode;
+import ru.globus.model.enums.TransferStatus;
+import ru.globus.repository.BalanceEventRepository;
+import ru.globus.repository.BalanceEventRepository.BalanceEvent;
 import ru.globus.repository.BankAccountRepository;
+import ru.globus.repository.PendingTransferRepository;
 import ru.globus.repository.UserRepository;
 import ru.globus.service.BankAccountService;
 import ru.globus.service.CurrencyRateService;
+import ru.globus.util.ConstraintViolations;
+import ru.globus.util.Cursor;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.time.Duration;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 /**
  * Имплементация BankAccountService.
@@ -32,29 +71,45 @@ import java.util.UUID;
 @RequiredArgsConstructor
 public class BankAccountServiceImpl implements BankAccountService {
 
+    private static final String USER_CONSTRAINT = "fk_bank_accounts_on_user";
+    private static final String ACCOUNT_NUMBER_CONSTRAINT = "uc_ac9562b7d91d15a6113e9515b";
+
     private final BankAccountRepository bankAccountRepository;
     private final UserRepository userRepository;
     private final BankAccountMapper bankAccountMapper;
     private final CurrencyRateService currencyRateService;
+    private final TransferProperties transferProperties;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final TransferBatchProcessor transferBatchProcessor;
+    private final TransferLaneExecutor transferLaneExecutor;
+    private final TransferGroupCommitter transferGroupCommitter;
+    private final TransactionLedger transactionLedger;
+    private final BalanceEventRepository balanceEventRepository;
+    private final PendingTransferRepository pendingTransferRepository;
+    private final PendingTransferMapper pendingTransferMapper;
 
     /**
-     * Создаёт новый банковский счёт.
+     * Создаёт новый банковский счёт одной вставкой. Существование владельца и уникальность
+     * номера счёта проверяют внешний ключ и ограничение уникальности при вставке.
      */
     @Override
     @LogMethod("account-create")
     public BankAccountResponseDto create(BankAccountRequestDto dto) {
-        var user = userRepository.findById(dto.userId())
-            .orElseThrow(() -> new UserNotFoundException("Пользователь не найден: " + dto.userId()));
-
-        if (bankAccountRepository.existsByAccountNumber(dto.accountNumber())) {
-            log.error("Счёт с номером {} уже существует", dto.accountNumber());
-            throw new IllegalArgumentException("Счёт с номером " + dto.accountNumber() + " уже существует");
+        var account = bankAccountMapper.toEntity(dto, userRepository.getReferenceById(dto.userId()));
+        try {
+            var saved = bankAccountRepository.save(account);
+            return bankAccountMapper.toResponseDto(saved);
+        } catch (DataIntegrityViolationException e) {
+            if (ConstraintViolations.isViolated(e, USER_CONSTRAINT)) {
+                throw new UserNotFoundException("Пользователь не найден: " + dto.userId());
+            }
+            if (ConstraintViolations.isViolated(e, ACCOUNT_NUMBER_CONSTRAINT)) {
+                log.error("Счёт с номером {} уже существует", dto.accountNumber());
+                throw new IllegalArgumentException("Счёт с номером " + dto.accountNumber() + " уже существует");
+            }
+            throw e;
         }
-
-        var account = bankAccountMapper.toEntity(dto, user);
-        var saved = bankAccountRepository.save(account);
-
-        return bankAccountMapper.toResponseDto(saved);
     }
 
     /**
@@ -64,8 +119,38 @@ public class BankAccountServiceImpl implements BankAccountService {
     @LogMethod("account-get-all")
     @Transactional(readOnly = true)
     public Page<BankAccountResponseDto> getAll(Pageable pageable) {
-        return bankAccountRepository.findAll(pageable)
+        var page = bankAccountRepository.findAll(pageable)
             .map(bankAccountMapper::toResponseDto);
+        if (!isEventSourced()) {
+            return page;
+        }
+        var balances = currentBalances(page.map(BankAccountResponseDto::id).getContent());
+        return page.map(dto -> withBalance(dto, balances.get(dto.id())));
+    }
+
+    /**
+     * Возвращает страницу счетов в порядке открытия, начиная после курсора.
+     */
+    @Override
+    @LogMethod("account-scroll")
+    @Transactional(readOnly = true)
+    public CursorPageDto<BankAccountResponseDto> scroll(String after, int size) {
+        Cursor.checkPageSize(size);
+        List<BankAccount> accounts;
+        if (after == null) {
+            accounts = bankAccountRepository.findFirstPage(size + 1);
+        } else {
+            var cursor = Cursor.decode(after);
+            accounts = bankAccountRepository.findPageAfter(cursor.created(), cursor.id(), size + 1);
+        }
+        return Cursor.page(accounts, size, account -> new Cursor(account.getCreatedAt(), account.getId()), page -> {
+            var dtos = page.stream().map(bankAccountMapper::toResponseDto).toList();
+            if (!isEventSourced()) {
+                return dtos;
+            }
+            var balances = currentBalances(dtos.stream().map(BankAccountResponseDto::id).toList());
+            return dtos.stream().map(dto -> withBalance(dto, balances.get(dto.id()))).toList();
+        });
     }
 
     /**
@@ -77,24 +162,27 @@ public class BankAccountServiceImpl implements BankAccountService {
     public BankAccountResponseDto getById(UUID id) {
         var account = bankAccountRepository.findById(id)
             .orElseThrow(() -> new BankAccountNotFoundException("Счёт не найден: " + id));
-        return bankAccountMapper.toResponseDto(account);
+        return withCurrentBalance(bankAccountMapper.toResponseDto(account));
     }
 
     /**
-     * Обновляет данные счёта.
+     * Обновляет данные счёта одной транзакцией, в том числе в режиме {@link TransferMode#EVENT_SOURCED}.
      */
     @Override
     @LogMethod("account-update")
+    @Transactional
     public BankAccountResponseDto update(UUID id, BankAccountRequestDto dto) {
         var account = bankAccountRepository.findById(id)
             .orElseThrow(() -> new BankAccountNotFoundException("Счёт не найден: " + id));
 
-        if (dto.balance() != null) {
+        if (dto.balance() != null && isEventSourced()) {
+            adjustBalance(id, dto.balance());
+        } else if (dto.balance() != null) {
             account.setBalance(dto.balance());
         }
 
         var updated = bankAccountRepository.save(account);
-        return bankAccountMapper.toResponseDto(updated);
+        return withCurrentBalance(bankAccountMapper.toResponseDto(updated));
     }
 
     /**
@@ -113,14 +201,337 @@ public class BankAccountServiceImpl implements BankAccountService {
 
     /**
      * Переводит средства между счетами пользователя с конвертацией валют по текущему курсу.
+     * Способ защиты от конкурентных изменений баланса задаётся {@link TransferProperties#getMode()};
+     * при включённых очередях перевод выполняется через {@link TransferLaneExecutor},
+     * при включённом групповом коммите — через {@link TransferGroupCommitter}.
      */
     @Override
     @LogMethod("account-transfer")
-    @Transactional
     public void transfer(TransferRequestDto dto) {
-        var fromAccount = bankAccountRepository.findById(dto.fromAccountId())
+        if (dto.fromAccountId().equals(dto.toAccountId())) {
+            throw new IllegalArgumentException("Нельзя выполнить перевод на тот же самый счёт");
+        }
+
+        if (transferProperties.getLanes().isEnabled()) {
+            requireSucceeded(await(transferLaneExecutor.submit(dto), transferProperties.getLanes().getAwaitTimeout()));
+            return;
+        }
+        if (transferProperties.getGroupCommit().isEnabled()) {
+            requireSucceeded(await(transferGroupCommitter.submit(dto), transferProperties.getGroupCommit().getAwaitTimeout()));
+            return;
+        }
+
+        switch (transferProperties.getMode()) {
+            case PESSIMISTIC -> transactionTemplate.executeWithoutResult(status -> transferWithLocks(dto));
+            case OPTIMISTIC -> transferWithRetry(dto);
+            case ATOMIC -> transactionTemplate.executeWithoutResult(status -> transferAtomically(dto));
+            case EVENT_SOURCED -> requireSucceeded(transactionTemplate.execute(status -> transferBatchProcessor.process(
+                List.of(dto),
+                transferBatchProcessor.rateSnapshot(LocalDate.now())
+            ).get(0)));
+        }
+    }
+
+    /**
+     * Сохраняет перевод в очередь; выполнит его {@link PendingTransferWorker}.
+     * Проверки счетов и баланса выполняются при обработке, итог отражается в статусе перевода.
+     */
+    @Override
+    @LogMethod("account-transfer-submit")
+    public PendingTransferResponseDto submitTransfer(TransferRequestDto dto) {
+        if (dto.fromAccountId().equals(dto.toAccountId())) {
+            throw new IllegalArgumentException("Нельзя выполнить перевод на тот же самый счёт");
+        }
+
+        var pending = PendingTransfer.builder()
+            .fromAccountId(dto.fromAccountId())
+            .toAccountId(dto.toAccountId())
+            .amount(dto.amount())
+            .status(TransferStatus.PENDING)
+            .createdAt(LocalDateTime.now())
+            .build();
+        return pendingTransferMapper.toResponseDto(pendingTransferRepository.save(pending));
+    }
+
+    /**
+     * Выбирает синхронное выполнение или очередь по {@code transfer.async.enabled}.
+     */
+    @Override
+    @LogMethod("account-transfer-accept")
+    public PendingTransferResponseDto acceptTransfer(TransferRequestDto dto) {
+        if (transferProperties.getAsync().isEnabled()) {
+            return submitTransfer(dto);
+        }
+        transfer(dto);
+        return null;
+    }
+
+    /**
+     * Возвращает статус асинхронного перевода.
+     */
+    @Override
+    @LogMethod("account-transfer-status")
+    @Transactional(readOnly = true)
+    public PendingTransferResponseDto getTransfer(UUID id) {
+        return pendingTransferRepository.findById(id)
+            .map(pendingTransferMapper::toResponseDto)
+            .orElseThrow(() -> new TransferNotFoundException("Перевод не найден: " + id));
+    }
+
+    /**
+     * Ждёт результат перевода из очереди не дольше {@code timeout}. Если очередь ещё не забрала
+     * перевод, он отменяется; уже выполняемый перевод может быть зафиксирован после ответа,
+     * поэтому ключ идемпотентности такого запроса не освобождается.
+     */
+    private TransferStatus await(CompletableFuture<TransferStatus> result, Duration timeout) {
+        try {
+            return result.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            result.cancel(false);
+            throw new TransferTimeoutException("Перевод не завершился за " + timeout.toMillis()
+                + " мс и может быть выполнен позже; повтор с тем же ключом идемпотентности отклоняется, пока действует его резервация");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("Перевод не выполнен", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Перевод прерван", e);
+        }
+    }
+
+    /**
+     * Переводит статус, полученный из очереди переводов, в те же исключения,
+     * что выбрасывает синхронный перевод.
+     */
+    private void requireSucceeded(TransferStatus status) {
+        switch (status) {
+            case OK -> { }
+            case NOT_FOUND -> throw new BankAccountNotFoundException("Счёт отправителя или получателя не найден");
+            case SAME_ACCOUNT -> throw new IllegalArgumentException("Нельзя выполнить перевод на тот же самый счёт");
+            case DIFFERENT_USERS -> throw new IllegalArgumentException("Перевод возможен только между счетами одного пользователя");
+            case INACTIVE -> throw new IllegalArgumentException("Один из счетов неактивен");
+            case INSUFFICIENT_FUNDS -> throw new IllegalArgumentException("Недостаточно средств на счёте отправителя");
+            case RATE_NOT_FOUND -> throw new ValidationException("Курс для конвертации валют счетов не найден");
+            case ROLLED_BACK, PENDING, FAILED -> throw new IllegalStateException("Перевод не выполнен: " + status);
+        }
+    }
+
+    /**
+     * Выполняет пакет переводов. В режиме ALL_OR_NOTHING весь пакет выполняется
+     * в одной транзакции, в режиме BEST_EFFORT — частями по {@code transfer.batch.chunk-size};
+     * если транзакция части завершилась ошибкой, её переводы получают статус FAILED,
+     * а остальные части выполняются.
+     */
+    @Override
+    @LogMethod(value = "account-transfer-batch", logResult = false)
+    public List<TransferResultDto> transferBatch(BatchTransferRequestDto dto) {
+        var transfers = dto.transfers();
+        int maxSize = transferProperties.getBatch().getMaxSize();
+        if (transfers.size() > maxSize) {
+            throw new ValidationException("Пакет содержит " + transfers.size() + " переводов, допустимо не более " + maxSize);
+        }
+
+        var rates = transferBatchProcessor.rateSnapshot(LocalDate.now());
+        List<TransferStatus> statuses = dto.mode() == BatchTransferMode.ALL_OR_NOTHING
+            ? transferAllOrNothing(transfers, rates)
+            : transferBestEffort(transfers, rates);
+
+        log.info("Пакет из {} переводов обработан, выполнено {}",
+            transfers.size(), statuses.stream().filter(TransferStatus.OK::equals).count());
+        return IntStream.range(0, statuses.size())
+            .mapToObj(i -> new TransferResultDto(i, statuses.get(i)))
+            .toList();
+    }
+
+    private List<TransferStatus> transferAllOrNothing(List<TransferRequestDto> transfers,
+                                                      BiFunction<CurrencyCode, CurrencyCode, BigDecimal> rates) {
+        return transactionTemplate.execute(status -> {
+            var statuses = transferBatchProcessor.process(transfers, rates);
+            if (statuses.stream().allMatch(TransferStatus.OK::equals)) {
+                return statuses;
+            }
+            status.setRollbackOnly();
+            return statuses.stream()
+                .map(s -> s == TransferStatus.OK ? TransferStatus.ROLLED_BACK : s)
+                .toList();
+        });
+    }
+
+    private List<TransferStatus> transferBestEffort(List<TransferRequestDto> transfers,
+                                                    BiFunction<CurrencyCode, CurrencyCode, BigDecimal> rates) {
+        int chunkSize = transferProperties.getBatch().getChunkSize();
+        List<TransferStatus> statuses = new ArrayList<>(transfers.size());
+        for (int start = 0; start < transfers.size(); start += chunkSize) {
+            var chunk = transfers.subList(start, Math.min(start + chunkSize, transfers.size()));
+            try {
+                statuses.addAll(transactionTemplate.execute(status -> transferBatchProcessor.process(chunk, rates)));
+            } catch (RuntimeException e) {
+                // Предыдущие части уже зафиксированы, поэтому ошибка не прерывает пакет,
+                // а попадает в результат каждого перевода этой части
+                log.warn("Часть пакета (переводы с {} по {}) не выполнена: {}", start, start + chunk.size() - 1, e.getMessage());
+                chunk.forEach(transfer -> statuses.add(TransferStatus.FAILED));
+            }
+        }
+        return statuses;
+    }
+
+    /**
+     * Строки обоих счетов блокируются в порядке возрастания ID, поэтому встречные
+     * переводы A→B и B→A не приводят к взаимной блокировке.
+     */
+    private void transferWithLocks(TransferRequestDto dto) {
+        bankAccountRepository.setLockTimeout(transferProperties.getLockTimeout().toMillis() + "ms");
+
+        boolean fromFirst = dto.fromAccountId().compareTo(dto.toAccountId()) < 0;
+        var first = bankAccountRepository.findByIdForUpdate(fromFirst ? dto.fromAccountId() : dto.toAccountId());
+        var second = bankAccountRepository.findByIdForUpdate(fromFirst ? dto.toAccountId() : dto.fromAccountId());
+
+        applyTransfer(dto, fromFirst ? first : second, fromFirst ? second : first);
+    }
+
+    /**
+     * Счета читаются без блокировок, конфликт обнаруживается по версии строки при коммите.
+     * При конфликте перевод повторяется в новой транзакции с экспоненциальной задержкой и джиттером.
+     */
+    private void transferWithRetry(TransferRequestDto dto) {
+        var settings = transferProperties.getOptimistic();
+        for (int attempt = 1; ; attempt++) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> applyTransfer(
+                    dto,
+                    bankAccountRepository.findById(dto.fromAccountId()),
+                    bankAccountRepository.findById(dto.toAccountId())
+                ));
+                return;
+            } catch (OptimisticLockingFailureException e) {
+                if (attempt >= settings.getMaxAttempts()) {
+                    log.warn("Перевод {} → {} не выполнен после {} попыток", dto.fromAccountId(), dto.toAccountId(), attempt);
+                    throw e;
+                }
+                meterRegistry.counter("transfer.optimistic.retries", "attempt", String.valueOf(attempt)).increment();
+                backoff(attempt, settings);
+            }
+        }
+    }
+
+    /**
+     * Баланс меняется условными UPDATE без чтения-изменения-записи в Java:
+     * списание проходит только при достаточном остатке и активном счёте, а число
+     * изменённых строк заменяет проверки в памяти. UPDATE выполняются в порядке
+     * возрастания ID, чтобы встречные переводы не блокировали друг друга.
+     */
+    private void transferAtomically(TransferRequestDto dto) {
+        var accounts = bankAccountRepository.findAllById(List.of(dto.fromAccountId(), dto.toAccountId())).stream()
+                .collect(Collectors.toMap(BankAccount::getId, Function.identity()));
+        var fromAccount = Optional.ofNullable(accounts.get(dto.fromAccountId()))
                 .orElseThrow(() -> new BankAccountNotFoundException("Счёт отправителя не найден: " + dto.fromAccountId()));
-        var toAccount = bankAccountRepository.findById(dto.toAccountId())
+        var toAccount = Optional.ofNullable(accounts.get(dto.toAccountId()))
+                .orElseThrow(() -> new BankAccountNotFoundException("Счёт получателя не найден: " + dto.toAccountId()));
+
+        if (!fromAccount.getUser().getId().equals(toAccount.getUser().getId())) {
+            throw new IllegalArgumentException("Перевод возможен только между счетами одного пользователя");
+        }
+
+        BigDecimal crossRate = currencyRateService.getConversionRate(
+                fromAccount.getCurrencyCode(),
+                toAccount.getCurrencyCode(),
+                LocalDate.now()
+        );
+
+        BigDecimal convertedAmount = dto.amount()
+                .multiply(crossRate)
+                .setScale(2, RoundingMode.HALF_UP);
+
+        if (dto.fromAccountId().compareTo(dto.toAccountId()) < 0) {
+            debit(fromAccount, dto.amount());
+            credit(toAccount, convertedAmount);
+        } else {
+            credit(toAccount, convertedAmount);
+            debit(fromAccount, dto.amount());
+        }
+        recordTransfer(fromAccount, dto.amount(), toAccount, convertedAmount);
+
+        log.info(
+                "Перевод {} {} (курс {}) со счёта {} на {} выполнен: {} {}",
+                dto.amount(), fromAccount.getCurrencyCode(), crossRate,
+                dto.fromAccountId(), dto.toAccountId(),
+                convertedAmount, toAccount.getCurrencyCode()
+        );
+    }
+
+    private void debit(BankAccount account, BigDecimal amount) {
+        if (bankAccountRepository.debit(account.getId(), amount) == 0) {
+            throw new IllegalArgumentException(account.getActive()
+                ? "Недостаточно средств на счёте отправителя"
+                : "Один из счетов неактивен");
+        }
+    }
+
+    private void credit(BankAccount account, BigDecimal amount) {
+        if (bankAccountRepository.credit(account.getId(), amount) == 0) {
+            throw new IllegalArgumentException("Один из счетов неактивен");
+        }
+    }
+
+    private boolean isEventSourced() {
+        return transferProperties.getMode() == TransferMode.EVENT_SOURCED;
+    }
+
+    private Map<UUID, BigDecimal> currentBalances(List<UUID> ids) {
+        return balanceEventRepository.load(ids).stream()
+            .collect(Collectors.toMap(loaded -> loaded.account().id(), loaded -> loaded.account().balance()));
+    }
+
+    private BankAccountResponseDto withCurrentBalance(BankAccountResponseDto dto) {
+        return isEventSourced() ? withBalance(dto, currentBalances(List.of(dto.id())).get(dto.id())) : dto;
+    }
+
+    private BankAccountResponseDto withBalance(BankAccountResponseDto dto, BigDecimal balance) {
+        return new BankAccountResponseDto(
+            dto.id(), dto.userId(), dto.currencyCode(), dto.accountNumber(), balance, dto.active(), dto.createdAt());
+    }
+
+    /**
+     * В режиме {@link TransferMode#EVENT_SOURCED} новый баланс записывается событием
+     * на разницу с текущим балансом.
+     */
+    private void adjustBalance(UUID id, BigDecimal target) {
+        bankAccountRepository.setLockTimeout(transferProperties.getLockTimeout().toMillis() + "ms");
+        balanceEventRepository.lock(List.of(id));
+        var current = balanceEventRepository.load(List.of(id)).get(0);
+        BigDecimal delta = target.subtract(current.account().balance());
+        if (delta.signum() != 0) {
+            balanceEventRepository.append(
+                List.of(new BalanceEvent(id, current.seq() + 1, delta, null, LocalDateTime.now())), 1);
+        }
+    }
+
+    private void recordTransfer(BankAccount from, BigDecimal amount, BankAccount to, BigDecimal convertedAmount) {
+        transactionLedger.record(transactionLedger.transfer(
+            from.getId(), from.getCurrencyCode(), amount,
+            to.getId(), to.getCurrencyCode(), convertedAmount
+        ));
+    }
+
+    private void backoff(int attempt, TransferProperties.Optimistic settings) {
+        long ceiling = Math.min(
+            settings.getMaxBackoff().toMillis(),
+            settings.getInitialBackoff().toMillis() << Math.min(attempt - 1, 20)
+        );
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(ceiling + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Перевод прерван", e);
+        }
+    }
+
+    private void applyTransfer(TransferRequestDto dto, Optional<BankAccount> from, Optional<BankAccount> to) {
+        var fromAccount = from
+                .orElseThrow(() -> new BankAccountNotFoundException("Счёт отправителя не найден: " + dto.fromAccountId()));
+        var toAccount = to
                 .orElseThrow(() -> new BankAccountNotFoundException("Счёт получателя не найден: " + dto.toAccountId()));
 
         if (fromAccount.getBalance().compareTo(dto.amount()) < 0) {
@@ -131,10 +542,6 @@ public class BankAccountServiceImpl implements BankAccountService {
             throw new IllegalArgumentException("Перевод возможен только между счетами одного пользователя");
         }
 
-        if (dto.fromAccountId().equals(dto.toAccountId())) {
-            throw new IllegalArgumentException("Нельзя выполнить перевод на тот же самый счёт");
-        }
-
         if (!fromAccount.getActive() || !toAccount.getActive()) {
             throw new IllegalArgumentException("Один из счетов неактивен");
         }
@@ -156,6 +563,7 @@ public class BankAccountServiceImpl implements BankAccountService {
 
         bankAccountRepository.save(fromAccount);
         bankAccountRepository.save(toAccount);
+        recordTransfer(fromAccount, dto.amount(), toAccount, convertedAmount);
 
         log.info(
                 "Перевод {} {} (курс {}) со счёта {} на {} выполнен: {} {}",
@@ -0,0 +1,86 @@
+package ru.globus.service.impl;
+
+import ru.globus.exception.ValidationException;
+import ru.globus.model.enums.CurrencyCode;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.Map;
+
+/**
+ * Неизменяемая матрица кросс-курсов всех пар {@link CurrencyCode} на дату.
+ * Коэффициенты вычисляются один раз при построении с тем же округлением,
+ * что и при прямом делении курсов, и хранятся в плоском массиве, индексируемом
+ * порядковыми номерами валют. Все поля финальные, поэтому матрицу можно
+ * публиковать другим потокам без синхронизации.
+ */
+public final class CrossRateMatrix {
+
+    private static final CurrencyCode[] CODES = CurrencyCode.values();
+    private static final int SIZE = CODES.length;
+
+    private final LocalDate date;
+    private final LocalDate since;
+    private final BigDecimal[] rates;
+    private final BigDecimal[] crossRates;
+
+    private CrossRateMatrix(LocalDate date, LocalDate since, BigDecimal[] rates) {
+        this.date = date;
+        this.since = since;
+        this.rates = rates;
+        this.crossRates = new BigDecimal[SIZE * SIZE];
+        for (int from = 0; from < SIZE; from++) {
+            for (int to = 0; to < SIZE; to++) {
+                if (from == to) {
+                    crossRates[from * SIZE + to] = BigDecimal.ONE;
+                } else if (rates[from] != null && rates[to] != null) {
+                    crossRates[from * SIZE + to] = rates[from].divide(rates[to], 6, RoundingMode.HALF_UP);
+                }
+            }
+        }
+    }
+
+    /**
+     * Строит матрицу по курсам, действующим на дату.
+     *
+     * @param date  дата курса
+     * @param since самая ранняя допустимая дата курса
+     * @param rates последний курс каждой валюты, опубликованный с since по date
+     * @return матрица кросс-курсов
+     */
+    public static CrossRateMatrix of(LocalDate date, LocalDate since, Map<CurrencyCode, BigDecimal> rates) {
+        var byOrdinal = new BigDecimal[SIZE];
+        rates.forEach((code, rate) -> byOrdinal[code.ordinal()] = rate);
+        return new CrossRateMatrix(date, since, byOrdinal);
+    }
+
+    /**
+     * @return {@code true}, если нет курса ни одной валюты
+     */
+    public boolean isEmpty() {
+        for (BigDecimal rate : rates) {
+            if (rate != null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Возвращает коэффициент конвертации.
+     *
+     * @param from валюта отправителя
+     * @param to   валюта получателя
+     * @return сколько единиц to за одну единицу from
+     * @throws ValidationException если курса одной из валют нет
+     */
+    public BigDecimal get(CurrencyCode from, CurrencyCode to) {
+        var crossRate = crossRates[from.ordinal() * SIZE + to.ordinal()];
+        if (crossRate == null) {
+            var missing = rates[from.ordinal()] == null ? from : to;
+            throw new ValidationException("Курс для валюты " + missing + " не найден за период с " + since + " по " + date);
+        }
+        return crossRate;
+    }
+}
@@ -0,0 +1,142 @@
+package ru.globus.service.impl;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ApplicationContext;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.globus.config.CurrencyRateProperties;
+import ru.globus.feign.BankClient;
+import ru.globus.model.entity.CurrencyRate;
+import ru.globus.model.enums.CurrencyCode;
+import ru.globus.repository.CurrencyRateJdbcRepository;
+import ru.globus.util.XmlParser;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Загружает историю курсов ЦБР за диапазон дат.
+ * Дни запрашиваются параллельно ограниченным числом потоков, курсы сохраняются
+ * пачками по {@code currency-rates.backfill.batch-days} дней; вместе с каждой пачкой
+ * в той же транзакции сохраняется контрольная точка, поэтому прерванная загрузка
+ * того же диапазона продолжается со следующего дня.
+ * Запускается командой {@code java -jar app.jar --backfill-rates-from=2020-01-01 [--backfill-rates-to=2020-12-31]},
+ * после загрузки приложение завершается. Команда запускается в профиле {@code maintenance}:
+ * без веб-сервера, задач по расписанию и фоновых обработчиков.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CurrencyRateBackfill implements ApplicationRunner {
+
+    public static final String FROM_OPTION = "backfill-rates-from";
+    static final String TO_OPTION = "backfill-rates-to";
+
+    private static final DateTimeFormatter CBR_DATE = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+
+    private final BankClient bankClient;
+    private final CurrencyRateJdbcRepository currencyRateJdbcRepository;
+    private final CurrencyRateTable currencyRateTable;
+    private final CurrencyRateProperties currencyRateProperties;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationContext applicationContext;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!args.containsOption(FROM_OPTION)) {
+            return;
+        }
+        LocalDate from = LocalDate.parse(args.getOptionValues(FROM_OPTION).get(0));
+        LocalDate to = args.containsOption(TO_OPTION)
+            ? LocalDate.parse(args.getOptionValues(TO_OPTION).get(0))
+            : LocalDate.now().minusDays(1);
+        int saved = backfill(from, to);
+        log.info("Загрузка истории курсов за {} — {} завершена: сохранено {} курсов", from, to, saved);
+        System.exit(SpringApplication.exit(applicationContext, () -> 0));
+    }
+
+    /**
+     * Загружает курсы за каждый день диапазона, продолжая с контрольной точки, если она есть.
+     *
+     * @param from первая дата
+     * @param to   последняя дата
+     * @return число добавленных и обновлённых курсов
+     */
+    public int backfill(LocalDate from, LocalDate to) {
+        var settings = currencyRateProperties.getBackfill();
+        LocalDate start = currencyRateJdbcRepository.findBackfillCheckpoint(from, to)
+            .map(checkpoint -> checkpoint.plusDays(1))
+            .orElse(from);
+        if (start.isAfter(from)) {
+            log.info("Загрузка истории курсов за {} — {} продолжается с {}", from, to, start);
+        }
+
+        int saved = 0;
+        try (ExecutorService pool = Executors.newFixedThreadPool(settings.getThreads())) {
+            for (LocalDate next = start; !next.isAfter(to); next = next.plusDays(settings.getBatchDays())) {
+                LocalDate batchStart = next;
+                LocalDate batchEnd = min(batchStart.plusDays(settings.getBatchDays() - 1L), to);
+
+                List<Future<List<CurrencyRate>>> days = batchStart.datesUntil(batchEnd.plusDays(1))
+                    .map(date -> pool.submit(() -> fetch(date)))
+                    .toList();
+                List<CurrencyRate> rates = new ArrayList<>();
+                for (Future<List<CurrencyRate>> day : days) {
+                    rates.addAll(day.get());
+                }
+
+                var result = transactionTemplate.execute(status -> {
+                    var upserted = currencyRateJdbcRepository.upsert(rates, currencyRateProperties.getWriteBatchSize());
+                    currencyRateJdbcRepository.saveBackfillCheckpoint(from, to, batchEnd);
+                    currencyRateJdbcRepository.notifyRatesChanged(batchStart, batchEnd);
+                    return upserted;
+                });
+                currencyRateTable.reload(batchStart, batchEnd);
+                saved += result.inserted() + result.updated();
+                log.info("Курсы за {} — {} сохранены: добавлено {}, обновлено {}",
+                    batchStart, batchEnd, result.inserted(), result.updated());
+            }
+            return saved;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Загрузка истории курсов прервана", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Ошибка при загрузке истории курсов: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    /**
+     * Запрашивает и разбирает курсы за день. Валюты, которых нет в {@link CurrencyCode}
+     * (например, давно выведенные из обращения), пропускаются.
+     */
+    private List<CurrencyRate> fetch(LocalDate date) {
+        List<CurrencyRate> rates = new ArrayList<>();
+        XmlParser.readCbrRates(bankClient.getRates(date.format(CBR_DATE)),
+            rate -> rates.add(rate(rate.code(), rate.value(), date)));
+        if (rates.isEmpty()) {
+            log.warn("ЦБР не вернул курсов за {}", date);
+            return List.of();
+        }
+        rates.add(rate(CurrencyCode.RUB, BigDecimal.ONE, date));
+        return rates;
+    }
+
+    private CurrencyRate rate(CurrencyCode code, BigDecimal value, LocalDate date) {
+        return CurrencyRate.builder().currencyCode(code).rate(value).rateDate(date).build();
+    }
+
+    private static LocalDate min(LocalDate a, LocalDate b) {
+        return a.isBefore(b) ? a : b;
+    }
+}
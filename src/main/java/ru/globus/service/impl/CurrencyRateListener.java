@@ -0,0 +1,160 @@
+package ru.globus.service.impl;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import ru.globus.config.CurrencyRateProperties;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.time.LocalDate;
+
+import static ru.globus.repository.CurrencyRateJdbcRepository.RATES_CHANGED_CHANNEL;
+
+/**
+ * Слушает уведомления PostgreSQL об изменении курсов на канале
+ * {@value ru.globus.repository.CurrencyRateJdbcRepository#RATES_CHANGED_CHANNEL}
+ * и пересчитывает затронутые матрицы {@link CurrencyRateTable}.
+ * Уведомление отправляется в транзакции, сохраняющей курсы, и доставляется только после её
+ * фиксации, поэтому при пересчёте новые курсы уже видны.
+ * Для LISTEN открывается отдельное соединение в обход пула: оно занято всё время работы
+ * приложения. Если соединение не присылает уведомлений {@code currency-rates.listener.check-interval},
+ * оно проверяется; после обрыва слушатель переподключается и пересчитывает все матрицы,
+ * так как уведомления за время обрыва потеряны.
+ */
+@Slf4j
+@Component
+@Profile("!maintenance")
+public class CurrencyRateListener {
+
+    private final CurrencyRateTable currencyRateTable;
+    private final CurrencyRateProperties currencyRateProperties;
+    private final DataSourceProperties dataSourceProperties;
+    private final Counter notifications;
+    private final Counter reconnects;
+
+    private volatile Thread worker;
+    private volatile Connection connection;
+
+    public CurrencyRateListener(CurrencyRateTable currencyRateTable,
+                                CurrencyRateProperties currencyRateProperties,
+                                DataSourceProperties dataSourceProperties,
+                                MeterRegistry meterRegistry) {
+        this.currencyRateTable = currencyRateTable;
+        this.currencyRateProperties = currencyRateProperties;
+        this.dataSourceProperties = dataSourceProperties;
+        this.notifications = meterRegistry.counter("currency.rate.listener.notifications");
+        this.reconnects = meterRegistry.counter("currency.rate.listener.reconnects");
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!currencyRateProperties.getListener().isEnabled()) {
+            return;
+        }
+        worker = Thread.ofPlatform().name("currency-rate-listener").daemon().start(this::run);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (worker != null) {
+            worker.interrupt();
+            closeQuietly();
+        }
+    }
+
+    private void run() {
+        var settings = currencyRateProperties.getListener();
+        boolean connected = false;
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                connect();
+                if (connected) {
+                    reconnects.increment();
+                    currencyRateTable.reloadAll();
+                    log.info("Слушатель курсов валют переподключился, матрицы пересчитаны");
+                }
+                connected = true;
+                listen(settings.getCheckInterval().toMillis());
+            } catch (SQLException | RuntimeException e) {
+                if (Thread.currentThread().isInterrupted()) {
+                    return;
+                }
+                log.warn("Слушатель курсов валют потерял соединение: {}", e.getMessage());
+                closeQuietly();
+                try {
+                    Thread.sleep(settings.getReconnectInterval().toMillis());
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+        closeQuietly();
+    }
+
+    private void connect() throws SQLException {
+        connection = DriverManager.getConnection(
+            dataSourceProperties.determineUrl(),
+            dataSourceProperties.determineUsername(),
+            dataSourceProperties.determinePassword()
+        );
+        try (var statement = connection.createStatement()) {
+            statement.execute("listen " + RATES_CHANGED_CHANNEL);
+        }
+    }
+
+    private void listen(long checkIntervalMillis) throws SQLException {
+        var pg = connection.unwrap(PGConnection.class);
+        while (!Thread.currentThread().isInterrupted()) {
+            PGNotification[] received = pg.getNotifications((int) checkIntervalMillis);
+            if (received == null || received.length == 0) {
+                if (!connection.isValid(5)) {
+                    throw new SQLException("соединение не отвечает");
+                }
+                continue;
+            }
+            for (PGNotification notification : received) {
+                handle(notification.getParameter());
+            }
+        }
+    }
+
+    /**
+     * Пересчитывает матрицы по уведомлению.
+     *
+     * @param payload диапазон изменившихся дат в виде {@code from,to}
+     */
+    void handle(String payload) {
+        notifications.increment();
+        try {
+            String[] range = payload.split(",", 2);
+            LocalDate from = LocalDate.parse(range[0]);
+            LocalDate to = LocalDate.parse(range[range.length - 1]);
+            currencyRateTable.reload(from, to);
+            log.debug("Курсы за {} — {} изменены другим экземпляром, матрицы пересчитаны", from, to);
+        } catch (RuntimeException e) {
+            log.warn("Некорректное уведомление об изменении курсов '{}', пересчитываются все матрицы", payload);
+            currencyRateTable.reloadAll();
+        }
+    }
+
+    private void closeQuietly() {
+        var current = connection;
+        if (current == null) {
+            return;
+        }
+        try {
+            current.close();
+        } catch (SQLException e) {
+            log.debug("Не удалось закрыть соединение слушателя курсов валют: {}", e.getMessage());
+        }
+    }
+}
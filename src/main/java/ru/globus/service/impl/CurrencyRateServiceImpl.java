@@ -3,14 +3,14 @@ package ru.globus.service.impl;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
-import ru.globus.exception.ValidationException;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.globus.config.CurrencyRateProperties;
 import ru.globus.model.entity.CurrencyRate;
 import ru.globus.model.enums.CurrencyCode;
-import ru.globus.repository.CurrencyRateRepository;
+import ru.globus.repository.CurrencyRateJdbcRepository;
 import ru.globus.service.CurrencyRateService;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.time.LocalDate;
 import java.util.Map;
 
@@ -22,58 +22,55 @@ import java.util.Map;
 @RequiredArgsConstructor
 @Slf4j
 public class CurrencyRateServiceImpl implements CurrencyRateService {
-    private final CurrencyRateRepository currencyRateRepository;
+    private final CurrencyRateJdbcRepository currencyRateJdbcRepository;
+    private final CurrencyRateTable currencyRateTable;
+    private final CurrencyRateProperties currencyRateProperties;
+    private final TransactionTemplate transactionTemplate;
 
     /*
-     * Метод сохранения курсов валют в базу
+     * Метод сохранения курсов валют в базу.
+     * Все курсы записываются одним запросом INSERT ... ON CONFLICT DO UPDATE в одной транзакции;
+     * неизменившиеся курсы не перезаписываются. После фиксации таблица курсов в памяти за дату
+     * перечитывается из базы и заменяется целиком; остальные экземпляры приложения узнают
+     * об изменении из уведомления PostgreSQL, отправленного в той же транзакции.
      */
     @Override
     public void saveRates(Map<CurrencyCode, BigDecimal> rates, LocalDate date) {
-        rates.forEach((code, newRateValue) -> {
-            currencyRateRepository.findTopByCurrencyCodeOrderByRateDateDesc(code)
-                    .ifPresentOrElse(
-                            existing -> {
-                                if (existing.getRateDate().isEqual(date) &&
-                                        existing.getRate().compareTo(newRateValue) == 0) {
-                                    log.debug("Актуальный курс {} уже сохранён: {} за {}", code, newRateValue, date);
-                                } else {
-                                    CurrencyRate updated = CurrencyRate.builder()
-                                            .currencyCode(code)
-                                            .rate(newRateValue)
-                                            .rateDate(date)
-                                            .build();
-                                    currencyRateRepository.save(updated);
-                                    log.info("Обновлён курс {} = {} за {}", code, newRateValue, date);
-                                }
-                            },
-                            () -> {
-                                CurrencyRate created = CurrencyRate.builder()
-                                        .currencyCode(code)
-                                        .rate(newRateValue)
-                                        .rateDate(date)
-                                        .build();
-                                currencyRateRepository.save(created);
-                                log.info("Добавлен новый курс {} = {} за {}", code, newRateValue, date);
-                            }
-                    );
-        });
+        saveRates(rates, date, () -> { });
     }
 
-
+    /*
+     * Проверка fence выполняется первой в транзакции записи курсов.
+     */
     @Override
-    public BigDecimal getConversionRate(CurrencyCode from, CurrencyCode to, LocalDate date) {
-        if (from == to) return BigDecimal.ONE;
+    public void saveRates(Map<CurrencyCode, BigDecimal> rates, LocalDate date, Runnable fence) {
+        var rows = rates.entrySet().stream()
+            .map(rate -> CurrencyRate.builder()
+                .currencyCode(rate.getKey())
+                .rate(rate.getValue())
+                .rateDate(date)
+                .build())
+            .toList();
 
-        LocalDate yesterday = date.minusDays(1);
+        var result = transactionTemplate.execute(status -> {
+            fence.run();
+            var upserted = currencyRateJdbcRepository.upsert(rows, currencyRateProperties.getWriteBatchSize());
+            currencyRateJdbcRepository.notifyRatesChanged(date, date);
+            return upserted;
+        });
+        log.info("Курсы за {} сохранены: добавлено {}, обновлено {}, без изменений {}",
+            date, result.inserted(), result.updated(), rows.size() - result.inserted() - result.updated());
 
-        var rateFrom = currencyRateRepository.findByCurrencyCodeAndRateDate(from, date)
-            .or(() -> currencyRateRepository.findByCurrencyCodeAndRateDate(from, yesterday))
-            .orElseThrow(() -> new ValidationException("Курс для валюты " + from + " не найден за " + date + " и " + yesterday));
+        currencyRateTable.reload(date);
+    }
 
-        var rateTo = currencyRateRepository.findByCurrencyCodeAndRateDate(to, date)
-            .or(() -> currencyRateRepository.findByCurrencyCodeAndRateDate(to, yesterday))
-            .orElseThrow(() -> new ValidationException("Курс для валюты " + to + " не найден за " + date + " и " + yesterday));
+    /**
+     * Возвращает кросс-курс из заранее вычисленной матрицы на дату.
+     */
+    @Override
+    public BigDecimal getConversionRate(CurrencyCode from, CurrencyCode to, LocalDate date) {
+        if (from == to) return BigDecimal.ONE;
 
-        return rateFrom.getRate().divide(rateTo.getRate(), 6, RoundingMode.HALF_UP);
+        return currencyRateTable.crossRates(date).get(from, to);
     }
 }
@@ -0,0 +1,137 @@
+package ru.globus.service.impl;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import ru.globus.config.CurrencyRateProperties;
+import ru.globus.model.entity.CurrencyRate;
+import ru.globus.model.enums.CurrencyCode;
+import ru.globus.repository.CurrencyRateRepository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Курсы валют в памяти: {@link CrossRateMatrix} на каждую дату.
+ * В матрицу на дату попадает последний курс каждой валюты, опубликованный не раньше
+ * {@code currency-rates.max-staleness} до этой даты, поэтому в выходные и праздники
+ * действуют курсы последнего рабочего дня. Курсы на дату читаются из базы одним запросом.
+ * Чтение не берёт блокировок и не обращается к базе; матрица за дату заменяется целиком,
+ * поэтому читатели видят либо старый, либо новый набор курсов.
+ * Хранятся последние {@code currency-rates.table-days} дат, за остальными датами
+ * таблица обращается к базе.
+ */
+@Slf4j
+@Component
+public class CurrencyRateTable {
+
+    private static final String[] CODES = Arrays.stream(CurrencyCode.values()).map(Enum::name).toArray(String[]::new);
+
+    private final CurrencyRateRepository currencyRateRepository;
+    private final CurrencyRateProperties currencyRateProperties;
+    private final Counter hits;
+    private final Counter misses;
+
+    private final ConcurrentSkipListMap<LocalDate, CrossRateMatrix> matrices = new ConcurrentSkipListMap<>();
+
+    public CurrencyRateTable(CurrencyRateRepository currencyRateRepository,
+                             CurrencyRateProperties currencyRateProperties,
+                             MeterRegistry meterRegistry) {
+        this.currencyRateRepository = currencyRateRepository;
+        this.currencyRateProperties = currencyRateProperties;
+        this.hits = meterRegistry.counter("currency.rate.table.requests", "result", "hit");
+        this.misses = meterRegistry.counter("currency.rate.table.requests", "result", "miss");
+    }
+
+    /**
+     * Загружает курсы на текущую дату. Вызывается при прогреве после запуска приложения.
+     *
+     * @return матрица кросс-курсов на текущую дату
+     */
+    public CrossRateMatrix load() {
+        LocalDate today = LocalDate.now();
+        var matrix = build(today);
+        matrices.put(today, matrix);
+        log.info("Загружены курсы валют на {}", today);
+        return matrix;
+    }
+
+    /**
+     * Возвращает матрицу кросс-курсов на дату.
+     * Если матрицы за дату ещё нет, курсы на дату читаются из базы.
+     *
+     * @param date дата курса
+     * @return матрица кросс-курсов
+     */
+    public CrossRateMatrix crossRates(LocalDate date) {
+        var matrix = matrices.get(date);
+        if (matrix != null) {
+            hits.increment();
+            return matrix;
+        }
+        misses.increment();
+        var built = build(date);
+        // Параллельный reload мог уже опубликовать более свежую матрицу — её не перезаписываем
+        var existing = matrices.putIfAbsent(date, built);
+        evict();
+        return existing != null ? existing : built;
+    }
+
+    /**
+     * Пересчитывает матрицу на дату, а также матрицы на следующие даты в пределах
+     * допустимой давности курса, которые уже есть в памяти.
+     * Вызывается после сохранения новых курсов.
+     *
+     * @param date дата курса
+     */
+    public synchronized void reload(LocalDate date) {
+        var dates = new TreeSet<>(matrices.subMap(date, true, date.plus(currencyRateProperties.getMaxStaleness()), true).keySet());
+        dates.add(date);
+        dates.forEach(this::rebuild);
+        evict();
+    }
+
+    /**
+     * Пересчитывает матрицы, которые уже есть в памяти и зависят от курсов за диапазон дат.
+     * Вызывается после загрузки курсов за несколько дат сразу.
+     *
+     * @param from первая дата
+     * @param to   последняя дата
+     */
+    public synchronized void reload(LocalDate from, LocalDate to) {
+        new TreeSet<>(matrices.subMap(from, true, to.plus(currencyRateProperties.getMaxStaleness()), true).keySet())
+            .forEach(this::rebuild);
+    }
+
+    /**
+     * Пересчитывает все матрицы, которые есть в памяти.
+     * Вызывается, когда уведомления об изменении курсов могли быть пропущены.
+     */
+    public synchronized void reloadAll() {
+        new TreeSet<>(matrices.keySet()).forEach(this::rebuild);
+    }
+
+    private void rebuild(LocalDate date) {
+        matrices.put(date, build(date));
+    }
+
+    private CrossRateMatrix build(LocalDate date) {
+        LocalDate since = date.minus(currencyRateProperties.getMaxStaleness());
+        var rates = new EnumMap<CurrencyCode, BigDecimal>(CurrencyCode.class);
+        for (CurrencyRate rate : currencyRateRepository.findLatestAsOf(CODES, date, since)) {
+            rates.put(rate.getCurrencyCode(), rate.getRate());
+        }
+        return CrossRateMatrix.of(date, since, rates);
+    }
+
+    private void evict() {
+        while (matrices.size() > currencyRateProperties.getTableDays()) {
+            matrices.pollFirstEntry();
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package ru.globus.service.impl;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import ru.globus.config.CurrencyRateProperties;
+import ru.globus.service.scheduler.CurrencyRateUpdater;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Прогрев курсов валют после запуска приложения.
+ * Выполняется в фоновом потоке после {@link ApplicationReadyEvent}, поэтому запуск не ждёт
+ * ни базы, ни ЦБР: сначала курсы на текущую дату загружаются из базы (с повторами, пока база
+ * недоступна), затем запрашиваются у ЦБР через {@link CurrencyRateUpdater}.
+ * Пока курсов нет, индикатор {@code currencyRateWarmup} в группе readiness отвечает
+ * {@code OUT_OF_SERVICE}: экземпляр готов, как только в базе нашлись курсы. Если их нет и после
+ * обращения к ЦБР (ЦБР недоступен или курсы обновляет другой экземпляр), загрузка из базы
+ * и обращение к ЦБР повторяются через {@code warmup-retry-interval}, пока курсы не появятся.
+ * Длительность этапов пишется в таймер {@code currency.rate.warmup} (тег {@code stage}),
+ * время от старта JVM до готовности — в {@code currency.rate.ready.time}.
+ */
+@Slf4j
+@Component
+@Profile("!maintenance")
+public class CurrencyRateWarmup implements HealthIndicator {
+
+    private final CurrencyRateTable currencyRateTable;
+    private final ObjectProvider<CurrencyRateUpdater> currencyRateUpdater;
+    private final CurrencyRateProperties currencyRateProperties;
+    private final Timer tableTimer;
+    private final Timer fetchTimer;
+    private final AtomicLong readyTime = new AtomicLong();
+
+    private volatile boolean ready;
+    private volatile Thread worker;
+
+    public CurrencyRateWarmup(CurrencyRateTable currencyRateTable,
+                              ObjectProvider<CurrencyRateUpdater> currencyRateUpdater,
+                              CurrencyRateProperties currencyRateProperties,
+                              MeterRegistry meterRegistry) {
+        this.currencyRateTable = currencyRateTable;
+        this.currencyRateUpdater = currencyRateUpdater;
+        this.currencyRateProperties = currencyRateProperties;
+        this.tableTimer = meterRegistry.timer("currency.rate.warmup", "stage", "table");
+        this.fetchTimer = meterRegistry.timer("currency.rate.warmup", "stage", "fetch");
+        TimeGauge.builder("currency.rate.ready.time", readyTime, TimeUnit.MILLISECONDS, AtomicLong::get)
+            .description("Время от старта JVM до готовности курсов валют")
+            .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        worker = Thread.ofPlatform().name("currency-rate-warmup").daemon().start(this::warmUp);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (worker != null) {
+            worker.interrupt();
+        }
+    }
+
+    @Override
+    public Health health() {
+        if (ready) {
+            return Health.up().build();
+        }
+        return Health.outOfService().withDetail("reason", "Курсы валют ещё не загружены").build();
+    }
+
+    void warmUp() {
+        try {
+            var sample = Timer.start();
+            boolean hasRates = loadTable();
+            sample.stop(tableTimer);
+            if (hasRates) {
+                markReady();
+            }
+
+            var updater = currencyRateUpdater.getIfAvailable();
+            if (updater != null) {
+                fetchTimer.record(updater::updateRates);
+            }
+            while (!hasRates) {
+                hasRates = loadTable();
+                if (!hasRates) {
+                    log.warn("Курсов валют на текущую дату нет, повтор через {}", currencyRateProperties.getWarmupRetryInterval());
+                    Thread.sleep(currencyRateProperties.getWarmupRetryInterval().toMillis());
+                    if (updater != null) {
+                        updater.updateRates();
+                    }
+                }
+            }
+            markReady();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Прогрев курсов валют прерван");
+        }
+    }
+
+    private boolean loadTable() throws InterruptedException {
+        while (true) {
+            try {
+                return !currencyRateTable.load().isEmpty();
+            } catch (RuntimeException e) {
+                log.warn("Не удалось загрузить курсы валют из базы, повтор через {}: {}",
+                    currencyRateProperties.getWarmupRetryInterval(), e.getMessage());
+                Thread.sleep(currencyRateProperties.getWarmupRetryInterval().toMillis());
+            }
+        }
+    }
+
+    private void markReady() {
+        if (!ready) {
+            readyTime.set(ManagementFactory.getRuntimeMXBean().getUptime());
+            ready = true;
+            log.info("Курсы валют готовы через {} мс после старта", readyTime.get());
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package ru.globus.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import ru.globus.config.IdempotencyProperties;
+import ru.globus.exception.BankAccountNotFoundException;
+import ru.globus.exception.IdempotencyKeyConflictException;
+import ru.globus.exception.TransferQueueFullException;
+import ru.globus.exception.UserNotFoundException;
+import ru.globus.exception.ValidationException;
+import ru.globus.model.entity.IdempotencyKey;
+import ru.globus.repository.IdempotencyKeyRepository;
+import ru.globus.service.IdempotencyService;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Реализация {@link IdempotencyService}.
+ * Ключ резервируется в таблице {@code idempotency_keys} до выполнения операции
+ * и получает ответ после её успешного завершения. Завершённые ответы также
+ * хранятся в локальном LRU-кэше, так что повторы обычно не обращаются к базе.
+ * Если операция отклонена до выполнения (см. {@link #rejectedBeforeExecution}), ключ освобождается
+ * и запрос можно повторить. При остальных ошибках, в том числе по таймауту ожидания очереди,
+ * операция могла быть выполнена, поэтому ключ остаётся зарезервированным и повтор получает 409.
+ * Резервация действует {@code idempotency.reservation-timeout}: если узел упал или не смог
+ * сохранить ответ, по истечении этого срока ключ может занять повторный запрос.
+ * Просроченный, но ещё не удалённый ключ считается свободным.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class IdempotencyServiceImpl implements IdempotencyService {
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final IdempotencyKeyRepository idempotencyKeyRepository;
+    private final IdempotencyProperties idempotencyProperties;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, StoredResponse> cache = Collections.synchronizedMap(
+        new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, StoredResponse> eldest) {
+                return size() > idempotencyProperties.getCacheSize();
+            }
+        });
+
+    @Override
+    public <T> T execute(String key, String operation, Object request, TypeReference<T> responseType, Supplier<T> action) {
+        if (key == null) {
+            return action.get();
+        }
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new ValidationException("Ключ идемпотентности должен содержать от 1 до " + MAX_KEY_LENGTH + " символов");
+        }
+
+        String requestHash = hash(operation, request);
+        // timestamp в PostgreSQL хранит микросекунды, а время резервации служит её меткой
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+
+        StoredResponse cached = cache.get(key);
+        if (cached != null && cached.expiresAt().isAfter(now)) {
+            return replay(key, cached, requestHash, responseType, "cache");
+        }
+
+        LocalDateTime expiresAt = now.plus(idempotencyProperties.getTtl());
+        LocalDateTime reservedUntil = now.plus(idempotencyProperties.getReservationTimeout());
+        if (idempotencyKeyRepository.tryReserve(key, requestHash, now, expiresAt, reservedUntil) == 0) {
+            IdempotencyKey existing = idempotencyKeyRepository.findById(key)
+                .filter(stored -> stored.getResponse() != null && stored.getExpiresAt().isAfter(now))
+                .orElseThrow(() -> new IdempotencyKeyConflictException(
+                    "Запрос с ключом идемпотентности " + key + " ещё выполняется или его результат пока неизвестен"));
+            StoredResponse stored = new StoredResponse(existing.getRequestHash(), existing.getResponse(), existing.getExpiresAt());
+            cache.put(key, stored);
+            return replay(key, stored, requestHash, responseType, "database");
+        }
+
+        T result;
+        try {
+            result = action.get();
+        } catch (RuntimeException e) {
+            if (rejectedBeforeExecution(e)) {
+                idempotencyKeyRepository.release(key, now);
+            } else {
+                log.warn("Результат запроса с ключом идемпотентности {} неизвестен, ключ остаётся зарезервированным: {}",
+                    key, e.getMessage());
+            }
+            throw e;
+        }
+
+        String response = write(result);
+        cache.put(key, new StoredResponse(requestHash, response, expiresAt));
+        try {
+            if (idempotencyKeyRepository.complete(key, now, response) == 0) {
+                log.warn("Резервация ключа идемпотентности {} истекла до сохранения ответа", key);
+            }
+        } catch (RuntimeException e) {
+            // операция уже выполнена: ответ возвращается клиенту, а ключ освободится по истечении резервации
+            log.error("Не удалось сохранить ответ для ключа идемпотентности {}", key, e);
+        }
+        return result;
+    }
+
+    /**
+     * Удаляет просроченные ключи пакетами по {@code idempotency.cleanup-batch-size},
+     * каждый пакет — отдельной транзакцией.
+     */
+    @Override
+    @Scheduled(fixedDelayString = "${idempotency.cleanup-interval:PT10M}")
+    public void cleanupExpired() {
+        LocalDateTime now = LocalDateTime.now();
+        int batchSize = idempotencyProperties.getCleanupBatchSize();
+        int total = 0;
+        int deleted;
+        do {
+            deleted = idempotencyKeyRepository.deleteExpired(now, batchSize);
+            total += deleted;
+        } while (deleted == batchSize);
+
+        cache.values().removeIf(stored -> !stored.expiresAt().isAfter(now));
+        if (total > 0) {
+            log.info("Удалено {} просроченных ключей идемпотентности", total);
+        }
+    }
+
+    /**
+     * Ошибки, после которых операция точно не выполнена: проверка входных данных,
+     * отсутствующий счёт или пользователь, недостаточно средств, переполненная очередь
+     * и конфликт блокировок, после которого транзакция откатывается.
+     */
+    static boolean rejectedBeforeExecution(RuntimeException e) {
+        return e instanceof ValidationException
+            || e instanceof IllegalArgumentException
+            || e instanceof BankAccountNotFoundException
+            || e instanceof UserNotFoundException
+            || e instanceof TransferQueueFullException
+            || e instanceof ConcurrencyFailureException;
+    }
+
+    private <T> T replay(String key, StoredResponse stored, String requestHash, TypeReference<T> responseType, String source) {
+        if (!stored.requestHash().equals(requestHash)) {
+            throw new IdempotencyKeyConflictException(
+                "Ключ идемпотентности " + key + " уже использован для другого запроса");
+        }
+        meterRegistry.counter("idempotency.replays", "source", source).increment();
+        try {
+            return objectMapper.readValue(stored.response(), responseType);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Не удалось прочитать сохранённый ответ", e);
+        }
+    }
+
+    private String write(Object response) {
+        try {
+            return objectMapper.writeValueAsString(response);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Не удалось сохранить ответ", e);
+        }
+    }
+
+    String hash(String operation, Object request) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                .digest((operation + ':' + write(request)).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private record StoredResponse(String requestHash, String response, LocalDateTime expiresAt) {}
+}
@@ -0,0 +1,166 @@
+package ru.globus.service.impl;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.globus.config.TransferProperties;
+import ru.globus.model.enums.TransferStatus;
+import ru.globus.repository.PendingTransferJdbcRepository;
+import ru.globus.repository.PendingTransferJdbcRepository.ClaimedTransfer;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Фоновые обработчики очереди асинхронных переводов.
+ * Каждый обработчик выбирает пакет ожидающих переводов через {@code FOR UPDATE SKIP LOCKED},
+ * поэтому обработчики (в том числе на разных экземплярах приложения) не ждут друг друга.
+ * Пакет выполняется и получает статусы одной транзакцией. Если транзакция пакета
+ * откатилась, его переводы выполняются по одному, каждый своей транзакцией, так что
+ * ошибка одного перевода не задерживает остальные; не выполненный перевод остаётся
+ * в очереди до исчерпания попыток.
+ * После ошибки, не связанной с конкретными переводами (например, база недоступна),
+ * обработчик делает паузу, которая удваивается с каждой ошибкой подряд до {@code max-backoff}.
+ */
+@Slf4j
+@Component
+@Profile("!maintenance")
+@RequiredArgsConstructor
+public class PendingTransferWorker {
+
+    private final TransferProperties transferProperties;
+    private final PendingTransferJdbcRepository pendingTransferJdbcRepository;
+    private final TransferBatchProcessor transferBatchProcessor;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+
+    private final List<Thread> workers = new ArrayList<>();
+
+    @PostConstruct
+    public void start() {
+        var settings = transferProperties.getAsync();
+        if (!settings.isEnabled()) {
+            return;
+        }
+        for (int i = 0; i < settings.getWorkers(); i++) {
+            workers.add(Thread.ofPlatform().name("transfer-worker-" + i).daemon().start(this::run));
+        }
+        log.info("Запущено {} обработчиков очереди переводов", settings.getWorkers());
+    }
+
+    @PreDestroy
+    public void stop() {
+        workers.forEach(Thread::interrupt);
+    }
+
+    private void run() {
+        long pause = transferProperties.getAsync().getPollInterval().toMillis();
+        int failures = 0;
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                try {
+                    int drained = drain();
+                    failures = 0;
+                    if (drained == 0) {
+                        Thread.sleep(pause);
+                    }
+                } catch (RuntimeException e) {
+                    failures++;
+                    long backoff = backoff(failures);
+                    log.error("Ошибка обработчика очереди переводов, повтор через {} мс: {}", backoff, e.getMessage());
+                    Thread.sleep(backoff);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Пауза после {@code failures} ошибок подряд: {@code poll-interval}, удваиваемый
+     * с каждой ошибкой, но не больше {@code max-backoff}.
+     */
+    long backoff(int failures) {
+        var settings = transferProperties.getAsync();
+        return Math.min(
+            settings.getMaxBackoff().toMillis(),
+            settings.getPollInterval().toMillis() << Math.min(failures - 1, 20)
+        );
+    }
+
+    /**
+     * Выполняет один пакет переводов из очереди.
+     *
+     * @return число выбранных переводов
+     */
+    int drain() throws InterruptedException {
+        var settings = transferProperties.getAsync();
+        List<ClaimedTransfer> claimed = new ArrayList<>();
+        try {
+            return transactionTemplate.execute(status -> {
+                claimed.addAll(pendingTransferJdbcRepository.claim(settings.getBatchSize()));
+                if (!claimed.isEmpty()) {
+                    process(claimed);
+                }
+                return claimed.size();
+            });
+        } catch (RuntimeException e) {
+            if (claimed.isEmpty()) {
+                throw e;
+            }
+            boolean failed;
+            if (claimed.size() == 1) {
+                fail(claimed.get(0), e);
+                failed = true;
+            } else {
+                log.warn("Пакет из {} переводов не выполнен, переводы будут выполнены по одному: {}",
+                    claimed.size(), e.getMessage());
+                meterRegistry.counter("transfer.async.fallbacks").increment();
+                failed = false;
+                for (ClaimedTransfer transfer : claimed) {
+                    failed |= !drainAlone(transfer);
+                }
+            }
+            if (failed) {
+                Thread.sleep(settings.getPollInterval().toMillis());
+            }
+            return claimed.size();
+        }
+    }
+
+    /**
+     * Выполняет один перевод отдельной транзакцией.
+     *
+     * @return {@code false}, если перевод не выполнен и будет повторён
+     */
+    private boolean drainAlone(ClaimedTransfer transfer) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> pendingTransferJdbcRepository.claim(transfer.id())
+                .ifPresent(claimed -> process(List.of(claimed))));
+            return true;
+        } catch (RuntimeException e) {
+            fail(transfer, e);
+            return false;
+        }
+    }
+
+    private void process(List<ClaimedTransfer> batch) {
+        List<TransferStatus> statuses = transferBatchProcessor.process(
+            batch.stream().map(ClaimedTransfer::transfer).toList(),
+            transferBatchProcessor.rateSnapshot(LocalDate.now())
+        );
+        pendingTransferJdbcRepository.complete(batch.stream().map(ClaimedTransfer::id).toList(), statuses);
+        statuses.forEach(result -> meterRegistry.counter("transfer.async.processed", "status", result.name()).increment());
+    }
+
+    private void fail(ClaimedTransfer transfer, RuntimeException e) {
+        log.warn("Перевод {} не выполнен, попытка будет повторена: {}", transfer.id(), e.getMessage());
+        pendingTransferJdbcRepository.fail(List.of(transfer.id()), transferProperties.getAsync().getMaxAttempts());
+    }
+}
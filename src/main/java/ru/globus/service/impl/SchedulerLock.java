@@ -0,0 +1,86 @@
+package ru.globus.service.impl;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import ru.globus.exception.LockLostException;
+import ru.globus.repository.SchedulerLockJdbcRepository;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Блокировка задач планировщика на уровне кластера через таблицу {@code scheduler_locks}.
+ * Задачу выполняет экземпляр, захвативший блокировку; если он упал, блокировка освобождается
+ * по истечении срока аренды. Каждый захват выдаёт новый токен ограждения: запись результата
+ * проверяет токен в своей транзакции ({@link #checkHeld}), поэтому экземпляр, потерявший
+ * блокировку (например, после долгой паузы GC), не перезапишет результат нового владельца.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SchedulerLock {
+
+    private final SchedulerLockJdbcRepository schedulerLockJdbcRepository;
+    private final String owner = ManagementFactory.getRuntimeMXBean().getName() + "/" + UUID.randomUUID();
+
+    /**
+     * Пытается захватить блокировку.
+     *
+     * @param name имя блокировки
+     * @param ttl  срок аренды
+     * @return захваченная блокировка; пустой результат, если её держит другой экземпляр
+     */
+    public Optional<Lease> tryAcquire(String name, Duration ttl) {
+        var token = schedulerLockJdbcRepository.tryAcquire(name, owner, ttl);
+        if (token.isEmpty()) {
+            return Optional.empty();
+        }
+        log.debug("Блокировка {} захвачена экземпляром {}, токен {}", name, owner, token.getAsLong());
+        return Optional.of(new Lease(name, token.getAsLong()));
+    }
+
+    /**
+     * Проверяет, что блокировка ещё принадлежит этому экземпляру, и удерживает её до конца
+     * текущей транзакции. Вызывается в транзакции записи результата задачи.
+     *
+     * @param lease захваченная блокировка
+     * @throws LockLostException если срок аренды истёк или блокировку перехватили
+     */
+    public void checkHeld(Lease lease) {
+        if (!schedulerLockJdbcRepository.lockIfHeld(lease.name(), lease.token())) {
+            throw new LockLostException("Блокировка " + lease.name() + " с токеном " + lease.token() + " больше не действует");
+        }
+    }
+
+    /**
+     * Освобождает блокировку, если её ещё не перехватили.
+     *
+     * @param lease захваченная блокировка
+     */
+    public void release(Lease lease) {
+        release(lease, Duration.ZERO);
+    }
+
+    /**
+     * Освобождает блокировку, если её ещё не перехватили, но оставляет её занятой
+     * не меньше {@code minHold} с момента захвата, чтобы экземпляр, запустивший ту же задачу
+     * чуть позже (расхождение часов, пауза GC, перезапуск), не выполнил её повторно.
+     *
+     * @param lease   захваченная блокировка
+     * @param minHold минимальное время удержания с момента захвата
+     */
+    public void release(Lease lease, Duration minHold) {
+        schedulerLockJdbcRepository.release(lease.name(), lease.token(), minHold);
+    }
+
+    /**
+     * Захваченная блокировка.
+     *
+     * @param name  имя блокировки
+     * @param token токен ограждения
+     */
+    public record Lease(String name, long token) {}
+}
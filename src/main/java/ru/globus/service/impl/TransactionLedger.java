@@ -0,0 +1,71 @@
+package ru.globus.service.impl;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import ru.globus.config.TransferProperties;
+import ru.globus.model.entity.Transaction;
+import ru.globus.model.enums.CurrencyCode;
+import ru.globus.model.enums.TransactionType;
+import ru.globus.repository.TransactionJdbcRepository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Формирует записи журнала операций для переводов и добавляет их в журнал.
+ * Запись выполняется в текущей транзакции, вместе с изменением балансов.
+ */
+@Component
+@RequiredArgsConstructor
+public class TransactionLedger {
+
+    private final TransactionJdbcRepository transactionJdbcRepository;
+    private final TransferProperties transferProperties;
+
+    /**
+     * Формирует пару записей (списание и зачисление) для одного перевода.
+     *
+     * @param fromAccountId   счёт отправителя
+     * @param fromCurrency    валюта счёта отправителя
+     * @param amount          списанная сумма
+     * @param toAccountId     счёт получателя
+     * @param toCurrency      валюта счёта получателя
+     * @param convertedAmount зачисленная сумма
+     * @return записи журнала
+     */
+    public List<Transaction> transfer(UUID fromAccountId, CurrencyCode fromCurrency, BigDecimal amount,
+                                      UUID toAccountId, CurrencyCode toCurrency, BigDecimal convertedAmount) {
+        UUID transferId = UUID.randomUUID();
+        LocalDateTime now = LocalDateTime.now();
+        return List.of(
+            entry(transferId, fromAccountId, TransactionType.DEBIT, amount, fromCurrency, now),
+            entry(transferId, toAccountId, TransactionType.CREDIT, convertedAmount, toCurrency, now)
+        );
+    }
+
+    /**
+     * Добавляет записи в журнал пакетными INSERT.
+     *
+     * @param transactions записи журнала
+     */
+    public void record(List<Transaction> transactions) {
+        if (!transactions.isEmpty()) {
+            transactionJdbcRepository.insertAll(transactions, transferProperties.getBatch().getChunkSize());
+        }
+    }
+
+    private Transaction entry(UUID transferId, UUID accountId, TransactionType type,
+                              BigDecimal amount, CurrencyCode currencyCode, LocalDateTime createdAt) {
+        return Transaction.builder()
+            .id(UUID.randomUUID())
+            .transferId(transferId)
+            .accountId(accountId)
+            .type(type)
+            .amount(amount)
+            .currencyCode(currencyCode)
+            .createdAt(createdAt)
+            .build();
+    }
+}
@@ -0,0 +1,177 @@
+package ru.globus.service.impl;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import ru.globus.config.TransferProperties;
+import ru.globus.dto.TransferRequestDto;
+import ru.globus.exception.ValidationException;
+import ru.globus.model.entity.Transaction;
+import ru.globus.model.enums.CurrencyCode;
+import ru.globus.model.enums.TransactionType;
+import ru.globus.model.enums.TransferMode;
+import ru.globus.model.enums.TransferStatus;
+import ru.globus.repository.BalanceEventRepository;
+import ru.globus.repository.BalanceEventRepository.AccountBalance;
+import ru.globus.repository.BalanceEventRepository.BalanceEvent;
+import ru.globus.repository.BankAccountJdbcRepository;
+import ru.globus.repository.BankAccountJdbcRepository.LockedAccount;
+import ru.globus.repository.BankAccountRepository;
+import ru.globus.service.CurrencyRateService;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Выполняет группу переводов в текущей транзакции.
+ * Все затронутые счета блокируются одним запросом в порядке возрастания ID,
+ * переводы применяются к балансам в памяти строго по порядку, а итоговые
+ * балансы записываются пакетными UPDATE, а записи журнала операций — пакетными INSERT.
+ * В режиме {@link TransferMode#EVENT_SOURCED} вместо блокировки строк счетов берутся
+ * advisory-блокировки, а вместо UPDATE добавляются события баланса.
+ */
+@Component
+@RequiredArgsConstructor
+public class TransferBatchProcessor {
+
+    private final BankAccountRepository bankAccountRepository;
+    private final BankAccountJdbcRepository bankAccountJdbcRepository;
+    private final CurrencyRateService currencyRateService;
+    private final TransferProperties transferProperties;
+    private final TransactionLedger transactionLedger;
+    private final BalanceEventRepository balanceEventRepository;
+
+    /**
+     * Создаёт снимок курсов на дату: каждая пара валют запрашивается не более одного раза.
+     *
+     * @param date дата курса
+     * @return функция получения коэффициента конвертации
+     */
+    public BiFunction<CurrencyCode, CurrencyCode, BigDecimal> rateSnapshot(LocalDate date) {
+        Map<CurrencyCode, Map<CurrencyCode, BigDecimal>> cache = new EnumMap<>(CurrencyCode.class);
+        return (from, to) -> cache
+            .computeIfAbsent(from, code -> new EnumMap<>(CurrencyCode.class))
+            .computeIfAbsent(to, code -> currencyRateService.getConversionRate(from, to, date));
+    }
+
+    /**
+     * Выполняет переводы; должен вызываться внутри транзакции.
+     *
+     * @param transfers переводы в порядке выполнения
+     * @param rates     снимок курсов валют
+     * @return статусы переводов в том же порядке
+     */
+    public List<TransferStatus> process(List<TransferRequestDto> transfers,
+                                        BiFunction<CurrencyCode, CurrencyCode, BigDecimal> rates) {
+        var ids = new TreeSet<UUID>();
+        transfers.forEach(t -> {
+            ids.add(t.fromAccountId());
+            ids.add(t.toAccountId());
+        });
+
+        bankAccountRepository.setLockTimeout(transferProperties.getLockTimeout().toMillis() + "ms");
+        boolean eventSourced = transferProperties.getMode() == TransferMode.EVENT_SOURCED;
+        Map<UUID, LockedAccount> accounts;
+        Map<UUID, Long> sequences = new HashMap<>();
+        if (eventSourced) {
+            balanceEventRepository.lock(ids);
+            accounts = new HashMap<>();
+            for (AccountBalance loaded : balanceEventRepository.load(ids)) {
+                accounts.put(loaded.account().id(), loaded.account());
+                sequences.put(loaded.account().id(), loaded.seq());
+            }
+        } else {
+            accounts = bankAccountJdbcRepository.lockAll(new ArrayList<>(ids)).stream()
+                .collect(Collectors.toMap(LockedAccount::id, Function.identity()));
+        }
+
+        Map<UUID, BigDecimal> balances = new HashMap<>();
+        List<Transaction> ledger = new ArrayList<>();
+        List<TransferStatus> statuses = new ArrayList<>(transfers.size());
+        for (TransferRequestDto transfer : transfers) {
+            statuses.add(apply(transfer, accounts, balances, ledger, rates));
+        }
+
+        if (!balances.isEmpty()) {
+            int batchSize = transferProperties.getBatch().getChunkSize();
+            if (eventSourced) {
+                balanceEventRepository.append(toEvents(ledger, sequences), batchSize);
+            } else {
+                bankAccountJdbcRepository.updateBalances(balances, batchSize);
+            }
+            transactionLedger.record(ledger);
+        }
+        return statuses;
+    }
+
+    /**
+     * Превращает записи журнала в события баланса, продолжая нумерацию событий каждого счёта.
+     */
+    private List<BalanceEvent> toEvents(List<Transaction> ledger, Map<UUID, Long> sequences) {
+        return ledger.stream()
+            .map(entry -> new BalanceEvent(
+                entry.getAccountId(),
+                sequences.merge(entry.getAccountId(), 1L, Long::sum),
+                entry.getType() == TransactionType.DEBIT ? entry.getAmount().negate() : entry.getAmount(),
+                entry.getTransferId(),
+                entry.getCreatedAt()
+            ))
+            .toList();
+    }
+
+    private TransferStatus apply(TransferRequestDto transfer,
+                                 Map<UUID, LockedAccount> accounts,
+                                 Map<UUID, BigDecimal> balances,
+                                 List<Transaction> ledger,
+                                 BiFunction<CurrencyCode, CurrencyCode, BigDecimal> rates) {
+        if (transfer.fromAccountId().equals(transfer.toAccountId())) {
+            return TransferStatus.SAME_ACCOUNT;
+        }
+
+        var from = accounts.get(transfer.fromAccountId());
+        var to = accounts.get(transfer.toAccountId());
+        if (from == null || to == null) {
+            return TransferStatus.NOT_FOUND;
+        }
+        if (!from.userId().equals(to.userId())) {
+            return TransferStatus.DIFFERENT_USERS;
+        }
+        if (!from.active() || !to.active()) {
+            return TransferStatus.INACTIVE;
+        }
+
+        BigDecimal fromBalance = balances.getOrDefault(from.id(), from.balance());
+        if (fromBalance.compareTo(transfer.amount()) < 0) {
+            return TransferStatus.INSUFFICIENT_FUNDS;
+        }
+
+        BigDecimal crossRate;
+        try {
+            crossRate = rates.apply(from.currencyCode(), to.currencyCode());
+        } catch (ValidationException e) {
+            return TransferStatus.RATE_NOT_FOUND;
+        }
+
+        BigDecimal convertedAmount = transfer.amount()
+            .multiply(crossRate)
+            .setScale(2, RoundingMode.HALF_UP);
+
+        balances.put(from.id(), fromBalance.subtract(transfer.amount()));
+        balances.put(to.id(), balances.getOrDefault(to.id(), to.balance()).add(convertedAmount));
+        ledger.addAll(transactionLedger.transfer(
+            from.id(), from.currencyCode(), transfer.amount(),
+            to.id(), to.currencyCode(), convertedAmount
+        ));
+        return TransferStatus.OK;
+    }
+}
@@ -0,0 +1,253 @@
+package ru.globus.service.impl;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.globus.dto.TransferRequestDto;
+import ru.globus.exception.TransferQueueFullException;
+import ru.globus.model.enums.TransferStatus;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ограниченная очередь переводов с потоками, фиксирующими накопившиеся переводы группой
+ * через {@link TransferBatchProcessor} одной транзакцией.
+ * Поток забирает перевод и добирает группу до {@code maxBatchSize} или истечения {@code maxWait}.
+ * Если транзакция группы завершилась ошибкой, переводы группы выполняются повторно по одному,
+ * каждый в своей транзакции, чтобы ошибка одного не затрагивала остальные.
+ * Переводы, которые вызывающий перестал ждать, не выполняются.
+ * <p>
+ * Перевод можно поставить в очередь с передачей в другую очередь: дойдя до него, поток
+ * фиксирует накопленные перед ним переводы, передаёт перевод в указанную очередь и ждёт,
+ * пока её поток закончит с ним работу. Пока перевод выполняется другой очередью,
+ * передавшая очередь ничего не пишет, поэтому её счета не изменяются двумя потоками одновременно.
+ * Передача идёт только в одном направлении (например, от очереди с меньшим номером к большей),
+ * иначе очереди могут ждать друг друга бесконечно.
+ * <p>
+ * Общая основа {@link TransferLaneExecutor} и {@link TransferGroupCommitter};
+ * метрики пишутся с префиксом {@code metricPrefix}.
+ */
+@Slf4j
+class TransferCommitQueue {
+
+    private final BlockingQueue<Task> queue;
+    private final int maxBatchSize;
+    private final Duration maxWait;
+    private final TransferBatchProcessor transferBatchProcessor;
+    private final TransactionTemplate transactionTemplate;
+    private final List<Thread> workers = new ArrayList<>();
+
+    private final Timer latency;
+    private final DistributionSummary batchSize;
+    private final Counter rejected;
+    private final Counter fallbacks;
+
+    TransferCommitQueue(String metricPrefix, Tags tags, int capacity, int maxBatchSize, Duration maxWait,
+                        TransferBatchProcessor transferBatchProcessor, TransactionTemplate transactionTemplate,
+                        MeterRegistry meterRegistry) {
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.maxBatchSize = maxBatchSize;
+        this.maxWait = maxWait;
+        this.transferBatchProcessor = transferBatchProcessor;
+        this.transactionTemplate = transactionTemplate;
+        this.latency = meterRegistry.timer(metricPrefix + ".latency", tags);
+        this.batchSize = meterRegistry.summary(metricPrefix + ".batch.size", tags);
+        this.rejected = meterRegistry.counter(metricPrefix + ".rejected", tags);
+        this.fallbacks = meterRegistry.counter(metricPrefix + ".fallbacks", tags);
+        Gauge.builder(metricPrefix + ".queue.depth", queue, BlockingQueue::size)
+            .tags(tags)
+            .register(meterRegistry);
+    }
+
+    /**
+     * Запускает потоки-обработчики.
+     *
+     * @param threadName имя потока; при нескольких потоках к нему добавляется номер
+     * @param count      число потоков
+     */
+    void start(String threadName, int count) {
+        for (int i = 0; i < count; i++) {
+            String name = count == 1 ? threadName : threadName + "-" + i;
+            workers.add(Thread.ofPlatform().name(name).daemon().start(this::run));
+        }
+    }
+
+    /**
+     * Останавливает потоки; переводы, оставшиеся в очереди, завершаются ошибкой.
+     */
+    void stop() {
+        workers.forEach(Thread::interrupt);
+        var pending = new ArrayList<Task>();
+        queue.drainTo(pending);
+        pending.forEach(task -> {
+            task.result.completeExceptionally(new IllegalStateException("Приложение останавливается, перевод не выполнен"));
+            task.finished.countDown();
+        });
+    }
+
+    /**
+     * Ставит перевод в очередь.
+     *
+     * @param transfer запрос на перевод
+     * @return результат, который будет получен после фиксации транзакции
+     * @throws TransferQueueFullException если очередь переполнена
+     */
+    CompletableFuture<TransferStatus> submit(TransferRequestDto transfer) {
+        return submit(transfer, null);
+    }
+
+    /**
+     * Ставит перевод в очередь; дойдя до него, поток передаёт его в очередь {@code handoff}
+     * и ждёт, пока она закончит с ним работу.
+     *
+     * @param transfer запрос на перевод
+     * @param handoff  очередь, которая выполнит перевод, или {@code null}, чтобы выполнить его в этой очереди
+     * @return результат, который будет получен после фиксации транзакции
+     * @throws TransferQueueFullException если очередь переполнена
+     */
+    CompletableFuture<TransferStatus> submit(TransferRequestDto transfer, TransferCommitQueue handoff) {
+        var task = new Task(transfer, new CompletableFuture<>(), System.nanoTime(), handoff, new CountDownLatch(1));
+        if (!queue.offer(task)) {
+            rejected.increment();
+            throw new TransferQueueFullException("Очередь переводов переполнена, повторите запрос позже");
+        }
+        return task.result;
+    }
+
+    private void run() {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                execute(collect());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Ждёт первый перевод, затем добирает группу до лимита или истечения окна ожидания.
+     */
+    private List<Task> collect() throws InterruptedException {
+        List<Task> tasks = new ArrayList<>(maxBatchSize);
+        tasks.add(queue.take());
+        long deadline = System.nanoTime() + maxWait.toNanos();
+        while (tasks.size() < maxBatchSize) {
+            queue.drainTo(tasks, maxBatchSize - tasks.size());
+            long remaining = deadline - System.nanoTime();
+            if (tasks.size() >= maxBatchSize || remaining <= 0) {
+                break;
+            }
+            Task next;
+            try {
+                next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                // Уже забранные переводы выполняются, поток остановится после них
+                Thread.currentThread().interrupt();
+                break;
+            }
+            if (next == null) {
+                break;
+            }
+            tasks.add(next);
+        }
+        return tasks;
+    }
+
+    /**
+     * Фиксирует переводы группами по порядку; перевод с передачей делит группу
+     * и выполняется очередью, в которую передан.
+     */
+    private void execute(List<Task> queued) throws InterruptedException {
+        try {
+            var group = new ArrayList<Task>();
+            for (Task task : queued) {
+                // Переводы, которые вызывающий перестал ждать, не выполняются
+                if (task.result.isDone()) {
+                    continue;
+                }
+                if (task.handoff == null) {
+                    group.add(task);
+                    continue;
+                }
+                executeGroup(List.copyOf(group));
+                group.clear();
+                handOff(task);
+            }
+            executeGroup(group);
+        } finally {
+            queued.forEach(task -> task.finished.countDown());
+        }
+    }
+
+    /**
+     * Передаёт перевод в другую очередь и ждёт, пока её поток закончит с ним работу.
+     */
+    private void handOff(Task task) throws InterruptedException {
+        var forwarded = new Task(task.transfer, task.result, task.enqueuedAt, null, new CountDownLatch(1));
+        task.handoff.queue.put(forwarded);
+        forwarded.finished.await();
+    }
+
+    private void executeGroup(List<Task> tasks) {
+        if (tasks.isEmpty()) {
+            return;
+        }
+        batchSize.record(tasks.size());
+        try {
+            var statuses = commit(tasks.stream().map(Task::transfer).toList());
+            for (int i = 0; i < tasks.size(); i++) {
+                complete(tasks.get(i), statuses.get(i));
+            }
+        } catch (RuntimeException e) {
+            if (tasks.size() == 1) {
+                tasks.get(0).result.completeExceptionally(e);
+                return;
+            }
+            log.warn("Группа из {} переводов не зафиксирована, выполняем по одному: {}", tasks.size(), e.getMessage());
+            fallbacks.increment();
+            tasks.forEach(this::executeAlone);
+        }
+    }
+
+    private void executeAlone(Task task) {
+        try {
+            complete(task, commit(List.of(task.transfer)).get(0));
+        } catch (RuntimeException e) {
+            task.result.completeExceptionally(e);
+        }
+    }
+
+    private List<TransferStatus> commit(List<TransferRequestDto> transfers) {
+        return transactionTemplate.execute(status -> transferBatchProcessor.process(
+            transfers,
+            transferBatchProcessor.rateSnapshot(LocalDate.now())
+        ));
+    }
+
+    private void complete(Task task, TransferStatus status) {
+        latency.record(System.nanoTime() - task.enqueuedAt, TimeUnit.NANOSECONDS);
+        task.result.complete(status);
+    }
+
+    /**
+     * Перевод в очереди.
+     *
+     * @param handoff  очередь, в которую передаётся перевод, или {@code null}
+     * @param finished отпускается, когда поток очереди закончил работу с переводом
+     */
+    private record Task(TransferRequestDto transfer, CompletableFuture<TransferStatus> result, long enqueuedAt,
+                        TransferCommitQueue handoff, CountDownLatch finished) {}
+}
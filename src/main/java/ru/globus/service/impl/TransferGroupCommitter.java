@@ -0,0 +1,70 @@
+package ru.globus.service.impl;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.globus.config.TransferProperties;
+import ru.globus.dto.TransferRequestDto;
+import ru.globus.exception.TransferQueueFullException;
+import ru.globus.model.enums.TransferStatus;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Групповой коммит переводов.
+ * Потоки-обработчики забирают переводы из общей очереди ({@link TransferCommitQueue}) и ждут
+ * следующие не дольше {@code max-wait} или до набора {@code max-batch-size}, после чего
+ * выполняют всю группу одной транзакцией — одна фиксация в базе на группу.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TransferGroupCommitter {
+
+    private final TransferProperties transferProperties;
+    private final TransferBatchProcessor transferBatchProcessor;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+
+    private TransferCommitQueue queue;
+
+    @PostConstruct
+    public void start() {
+        var settings = transferProperties.getGroupCommit();
+        if (!settings.isEnabled()) {
+            return;
+        }
+        queue = new TransferCommitQueue("transfer.group-commit", Tags.empty(), settings.getQueueCapacity(),
+            settings.getMaxBatchSize(), settings.getMaxWait(), transferBatchProcessor, transactionTemplate, meterRegistry);
+        queue.start("transfer-group-commit", settings.getWorkers());
+        log.info("Групповой коммит переводов включён: ожидание {}, до {} переводов в группе, потоков {}",
+            settings.getMaxWait(), settings.getMaxBatchSize(), settings.getWorkers());
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (queue != null) {
+            queue.stop();
+        }
+    }
+
+    /**
+     * Ставит перевод в очередь группового коммита.
+     *
+     * @param transfer запрос на перевод
+     * @return результат, который будет получен после фиксации транзакции
+     * @throws TransferQueueFullException если очередь переполнена
+     * @throws IllegalStateException      если групповой коммит не запущен
+     */
+    public CompletableFuture<TransferStatus> submit(TransferRequestDto transfer) {
+        if (queue == null) {
+            throw new IllegalStateException("Групповой коммит переводов не запущен: transfer.group-commit.enabled = false");
+        }
+        return queue.submit(transfer);
+    }
+}
@@ -0,0 +1,99 @@
+package ru.globus.service.impl;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.globus.config.TransferProperties;
+import ru.globus.dto.TransferRequestDto;
+import ru.globus.exception.TransferQueueFullException;
+import ru.globus.model.enums.TransferStatus;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Выполняет переводы в N однопоточных очередях (lanes).
+ * Счёт закреплён за очередью по хешу его ID, поэтому конкурирующие переводы
+ * одного счёта выполняются последовательно одним потоком вместо ожидания
+ * блокировок в базе. Поток очереди забирает накопившиеся переводы и фиксирует
+ * их одной транзакцией ({@link TransferCommitQueue}).
+ * <p>
+ * Перевод между счетами разных очередей ставится в очередь с меньшим номером. Дойдя до него,
+ * она передаёт перевод очереди с большим номером и ждёт, пока та его выполнит, ничего не
+ * записывая сама. Так в каждый момент счёт изменяет только один поток, а передача всегда
+ * идёт от меньшего номера к большему, поэтому очереди не ждут друг друга по кругу.
+ * Доля таких переводов видна по счётчику {@code transfer.lane.cross}.
+ * <p>
+ * Перевод, ожидание которого прервано по таймауту до того, как очередь его забрала,
+ * не выполняется.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TransferLaneExecutor {
+
+    private final TransferProperties transferProperties;
+    private final TransferBatchProcessor transferBatchProcessor;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+
+    private final List<TransferCommitQueue> lanes = new ArrayList<>();
+    private final List<Counter> cross = new ArrayList<>();
+
+    @PostConstruct
+    public void start() {
+        var settings = transferProperties.getLanes();
+        if (!settings.isEnabled()) {
+            return;
+        }
+        for (int i = 0; i < settings.getCount(); i++) {
+            Tags tags = Tags.of("lane", String.valueOf(i));
+            var lane = new TransferCommitQueue("transfer.lane", tags, settings.getQueueCapacity(), settings.getMaxBatchSize(),
+                Duration.ZERO, transferBatchProcessor, transactionTemplate, meterRegistry);
+            lane.start("transfer-lane-" + i, 1);
+            lanes.add(lane);
+            cross.add(meterRegistry.counter("transfer.lane.cross", tags));
+        }
+        log.info("Запущено {} очередей переводов, ёмкость каждой {}", settings.getCount(), settings.getQueueCapacity());
+    }
+
+    @PreDestroy
+    public void stop() {
+        lanes.forEach(TransferCommitQueue::stop);
+    }
+
+    /**
+     * Ставит перевод в очередь, за которой закреплены его счета.
+     *
+     * @param transfer запрос на перевод
+     * @return результат, который будет получен после фиксации транзакции
+     * @throws TransferQueueFullException если очередь переполнена
+     * @throws IllegalStateException      если очереди не запущены
+     */
+    public CompletableFuture<TransferStatus> submit(TransferRequestDto transfer) {
+        if (lanes.isEmpty()) {
+            throw new IllegalStateException("Очереди переводов не запущены: transfer.lanes.enabled = false");
+        }
+        int fromLane = laneIndex(transfer.fromAccountId());
+        int toLane = laneIndex(transfer.toAccountId());
+        if (fromLane == toLane) {
+            return lanes.get(fromLane).submit(transfer);
+        }
+        int lower = Math.min(fromLane, toLane);
+        cross.get(lower).increment();
+        return lanes.get(lower).submit(transfer, lanes.get(Math.max(fromLane, toLane)));
+    }
+
+    int laneIndex(UUID accountId) {
+        return Math.floorMod(accountId.hashCode(), lanes.size());
+    }
+}
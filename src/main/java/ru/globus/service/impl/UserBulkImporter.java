@@ -0,0 +1,211 @@
+package ru.globus.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvParser;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.globus.config.UserImportProperties;
+import ru.globus.dto.UserImportErrorDto;
+import ru.globus.dto.UserImportReportDto;
+import ru.globus.dto.UserRequestDto;
+import ru.globus.exception.ValidationException;
+import ru.globus.model.enums.UserImportFormat;
+import ru.globus.repository.UserImportJdbcRepository;
+import ru.globus.repository.UserImportJdbcRepository.StagedUser;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Массовый импорт пользователей из CSV или NDJSON.
+ * Файл читается построчно прямо из тела запроса: каждая строка разбирается и проверяется
+ * теми же ограничениями, что и {@link UserRequestDto} в {@code POST /users}, и сразу
+ * отправляется в COPY. Затем строки одним запросом переносятся в {@code users}; строки
+ * с уже существующим email пропускаются по ограничению UC_USERS_EMAIL.
+ * Всё выполняется в одной транзакции. Память не зависит от размера файла: в ней хранятся
+ * только текущая строка, буфер COPY и первые {@code users.import.max-reported-errors} ошибок.
+ */
+@Slf4j
+@Component
+public class UserBulkImporter {
+
+    private static final Set<String> REQUIRED_COLUMNS = Set.of("email", "firstname", "surname");
+
+    private final UserImportJdbcRepository userImportJdbcRepository;
+    private final UserImportProperties userImportProperties;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final ObjectReader jsonReader;
+    private final CsvMapper csvMapper = CsvMapper.builder()
+        .enable(CsvParser.Feature.EMPTY_STRING_AS_NULL)
+        .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+        .build();
+
+    public UserBulkImporter(UserImportJdbcRepository userImportJdbcRepository,
+                            UserImportProperties userImportProperties,
+                            TransactionTemplate transactionTemplate,
+                            Validator validator,
+                            ObjectMapper objectMapper) {
+        this.userImportJdbcRepository = userImportJdbcRepository;
+        this.userImportProperties = userImportProperties;
+        this.transactionTemplate = transactionTemplate;
+        this.validator = validator;
+        this.jsonReader = objectMapper.readerFor(UserRequestDto.class)
+            .without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+    }
+
+    /**
+     * Импортирует пользователей из файла.
+     *
+     * @param body   содержимое файла в UTF-8
+     * @param format формат файла
+     * @return итог импорта с ошибками по строкам
+     * @throws ValidationException если в заголовке CSV нет обязательных столбцов
+     */
+    public UserImportReportDto importUsers(InputStream body, UserImportFormat format) {
+        var report = new Report(userImportProperties.getMaxReportedErrors());
+        var reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        transactionTemplate.executeWithoutResult(status -> {
+            userImportJdbcRepository.createStaging();
+            userImportJdbcRepository.copy(new Rows(reader, format, report), userImportProperties.getCopyBufferSize());
+            userImportJdbcRepository.merge(rejected -> report.fail(rejected.line(), rejected.email(), rejected.repeated()
+                ? "Email повторяется в файле"
+                : "Пользователь с таким email уже существует"));
+        });
+        log.info("Импорт пользователей: строк {}, создано {}, ошибок {}", report.rows, report.rows - report.failed, report.failed);
+        return report.toDto();
+    }
+
+    private StagedUser validate(long line, UserRequestDto dto, Report report) {
+        Set<ConstraintViolation<UserRequestDto>> violations = validator.validate(dto);
+        if (!violations.isEmpty()) {
+            report.fail(line, dto.email(), violations.stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining("; ")));
+            return null;
+        }
+        return new StagedUser(line, dto.email(), dto.firstname(), dto.surname(), dto.middlename());
+    }
+
+    /**
+     * Проверенные строки файла; читаются по одной, когда их запрашивает COPY.
+     */
+    private class Rows implements Iterator<StagedUser> {
+
+        private final BufferedReader reader;
+        private final UserImportFormat format;
+        private final Report report;
+        private ObjectReader rowReader;
+        private long line;
+        private StagedUser next;
+
+        Rows(BufferedReader reader, UserImportFormat format, Report report) {
+            this.reader = reader;
+            this.format = format;
+            this.report = report;
+            this.rowReader = format == UserImportFormat.NDJSON ? jsonReader : null;
+        }
+
+        @Override
+        public boolean hasNext() {
+            try {
+                while (next == null) {
+                    String text = reader.readLine();
+                    if (text == null) {
+                        return false;
+                    }
+                    line++;
+                    if (text.isBlank()) {
+                        continue;
+                    }
+                    if (rowReader == null) {
+                        rowReader = csvReader(text);
+                        continue;
+                    }
+                    report.rows++;
+                    next = parse(text);
+                }
+                return true;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public StagedUser next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            var row = next;
+            next = null;
+            return row;
+        }
+
+        private StagedUser parse(String text) {
+            try {
+                return validate(line, rowReader.readValue(text), report);
+            } catch (JsonProcessingException e) {
+                report.fail(line, null, "Строка не разобрана как " + format + ": " + e.getOriginalMessage());
+                return null;
+            }
+        }
+
+        private ObjectReader csvReader(String header) {
+            var columns = Arrays.stream(header.split(",")).map(String::trim).toList();
+            if (!columns.containsAll(REQUIRED_COLUMNS)) {
+                throw new ValidationException("В заголовке CSV должны быть столбцы " + REQUIRED_COLUMNS + ", получено " + columns);
+            }
+            var schema = CsvSchema.builder();
+            columns.forEach(schema::addColumn);
+            return csvMapper.readerFor(UserRequestDto.class).with(schema.build());
+        }
+    }
+
+    /**
+     * Счётчики импорта и первые ошибки по строкам.
+     */
+    private static class Report {
+
+        private final int maxErrors;
+        private final List<UserImportErrorDto> errors = new ArrayList<>();
+        private long rows;
+        private long failed;
+
+        Report(int maxErrors) {
+            this.maxErrors = maxErrors;
+        }
+
+        void fail(long line, String email, String message) {
+            failed++;
+            if (errors.size() < maxErrors) {
+                errors.add(new UserImportErrorDto(line, email, message));
+            }
+        }
+
+        UserImportReportDto toDto() {
+            errors.sort(Comparator.comparingLong(UserImportErrorDto::line));
+            return new UserImportReportDto(rows, rows - failed, failed, errors);
+        }
+    }
+}
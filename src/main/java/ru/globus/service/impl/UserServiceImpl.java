@@ -2,19 +2,35 @@ package ru.globus.service.impl;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import ru.globus.aop.LogMethod;
+import ru.globus.config.UserSearchProperties;
+import ru.globus.dto.CursorPageDto;
+import ru.globus.dto.UserImportReportDto;
 import ru.globus.dto.UserRequestDto;
 import ru.globus.dto.UserResponseDto;
 import ru.globus.exception.UserAlreadyExistException;
 import ru.globus.exception.UserNotFoundException;
+import ru.globus.exception.ValidationException;
 import ru.globus.mapper.UserMapper;
+import ru.globus.model.entity.User;
+import ru.globus.model.enums.UserImportFormat;
+import ru.globus.repository.BankAccountRepository;
+import ru.globus.repository.BankAccountRepository.OwnedAccountId;
 import ru.globus.repository.UserRepository;
 import ru.globus.service.UserService;
+import ru.globus.util.ConstraintViolations;
+import ru.globus.util.Cursor;
 
+import java.io.InputStream;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 /**
  * Имплементация UserService для управления пользователями.
@@ -24,10 +40,21 @@ import java.util.UUID;
 @Slf4j
 @RequiredArgsConstructor
 public class UserServiceImpl implements UserService {
+
+    private static final String EMAIL_CONSTRAINT = "uc_users_email";
+
+    /** Строки короче этой не содержат ни одной триграммы, и триграммный индекс для них бесполезен. */
+    private static final int MIN_TRIGRAM_LENGTH = 3;
+
     private final UserRepository userRepository;
+    private final BankAccountRepository bankAccountRepository;
     private final UserMapper userMapper;
+    private final UserBulkImporter userBulkImporter;
+    private final UserSearchProperties userSearchProperties;
     /**
      * Создаёт нового пользователя на основе данных из DTO.
+     * Уникальность email проверяет ограничение UC_USERS_EMAIL при вставке,
+     * поэтому одновременные запросы с одним email не создадут двух пользователей.
      *
      * @param dto DTO с данными нового пользователя
      * @return DTO с сохранённым пользователем
@@ -35,26 +62,89 @@ public class UserServiceImpl implements UserService {
     @Override
     @LogMethod("user-create")
     public UserResponseDto create(UserRequestDto dto) {
-        var user = userMapper.toEntity(dto);
-        if (userRepository.existsByEmail(dto.email())) {
-            log.error("Пользователь с email {} уже существует", dto.email());
-            throw new UserAlreadyExistException("Пользователь с email " + dto.email() + " уже существует");
-        }
-        var saved = userRepository.save(user);
+        var saved = save(userMapper.toEntity(dto));
         return userMapper.toResponseDto(saved);
     }
 
+    /**
+     * Создаёт пользователей из файла CSV или NDJSON.
+     *
+     * @param body   содержимое файла
+     * @param format формат файла
+     * @return итог импорта
+     */
+    @Override
+    @LogMethod("user-import")
+    public UserImportReportDto importUsers(InputStream body, UserImportFormat format) {
+        return userBulkImporter.importUsers(body, format);
+    }
+
     /**
      * Возвращает список всех пользователей.
      *
+     * Идентификаторы счетов всей страницы загружаются одним запросом,
+     * поэтому число запросов к базе не зависит от размера страницы.
+     *
      * @return список DTO с информацией о пользователях
      */
     @Override
     @LogMethod("user-get-all")
     public Page<UserResponseDto> getAll(Pageable pageable) {
-        return userRepository
-            .findAll(pageable)
-            .map(userMapper::toResponseDto);
+        var users = userRepository.findAll(pageable);
+        var accountIds = accountIdsByUser(users.getContent());
+        return users.map(user -> userMapper.toResponseDto(user, accountIds.getOrDefault(user.getId(), List.of())));
+    }
+
+    /**
+     * Возвращает страницу пользователей в порядке регистрации, начиная после курсора.
+     *
+     * @param after курсор из предыдущей страницы или {@code null} для первой страницы
+     * @param size  размер страницы
+     * @return страница DTO пользователей с курсором следующей страницы
+     */
+    @Override
+    @LogMethod("user-scroll")
+    public CursorPageDto<UserResponseDto> scroll(String after, int size) {
+        Cursor.checkPageSize(size);
+        List<User> users;
+        if (after == null) {
+            users = userRepository.findFirstPage(size + 1);
+        } else {
+            var cursor = Cursor.decode(after);
+            users = userRepository.findPageAfter(cursor.created(), cursor.id(), size + 1);
+        }
+        return Cursor.page(users, size, user -> new Cursor(user.getRegisteredAt(), user.getId()), this::toResponseDtos);
+    }
+
+    /**
+     * Ищет пользователей по части email, фамилии или имени.
+     * Строки короче трёх символов ищутся только по началу email и фамилии.
+     * Каждый запрос ограничен {@code users.search.timeout}: при превышении PostgreSQL
+     * прерывает его, и выбрасывается {@link org.springframework.dao.QueryTimeoutException}.
+     *
+     * @param query искомая строка
+     * @param limit максимальное число пользователей в ответе
+     * @return найденные пользователи, лучшие совпадения первыми
+     */
+    @Override
+    @Transactional(readOnly = true)
+    @LogMethod("user-search")
+    public List<UserResponseDto> search(String query, int limit) {
+        String term = query == null ? "" : query.strip();
+        if (term.isEmpty()) {
+            throw new ValidationException("Строка поиска не должна быть пустой");
+        }
+        int maxResults = userSearchProperties.getMaxResults();
+        if (limit < 1 || limit > maxResults) {
+            throw new ValidationException("Число результатов должно быть от 1 до " + maxResults + ", получено " + limit);
+        }
+        userRepository.setStatementTimeout(userSearchProperties.getTimeout().toMillis() + "ms");
+        String escaped = escapeLike(term);
+        int candidates = Math.max(userSearchProperties.getCandidates(), limit);
+        var users = term.length() < MIN_TRIGRAM_LENGTH
+            ? userRepository.searchByPrefix(term, escaped + "%", candidates, limit)
+            : userRepository.searchByFragment(term, "%" + escaped + "%", escaped + "%", candidates, limit);
+        return toResponseDtos(users);
     }
 
     /**
@@ -84,7 +174,7 @@ public class UserServiceImpl implements UserService {
         var user = userRepository.findById(id)
             .orElseThrow(() -> new UserNotFoundException("Пользователь не найден: " + id));
         userMapper.updateEntityFromDto(dto, user);
-        var updated = userRepository.save(user);
+        var updated = save(user);
         return userMapper.toResponseDto(updated);
     }
 
@@ -103,4 +193,40 @@ public class UserServiceImpl implements UserService {
             log.warn("Попытка удалить несуществующего пользователя {}", id);
         }
     }
+
+    private User save(User user) {
+        try {
+            return userRepository.save(user);
+        } catch (DataIntegrityViolationException e) {
+            if (!ConstraintViolations.isViolated(e, EMAIL_CONSTRAINT)) {
+                throw e;
+            }
+            log.error("Пользователь с email {} уже существует", user.getEmail());
+            throw new UserAlreadyExistException("Пользователь с email " + user.getEmail() + " уже существует");
+        }
+    }
+
+    /** Экранирует символы шаблона LIKE, чтобы "_" и "%" в email искались как есть. */
+    private static String escapeLike(String term) {
+        return term.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    private List<UserResponseDto> toResponseDtos(List<User> users) {
+        var accountIds = accountIdsByUser(users);
+        return users.stream()
+            .map(user -> userMapper.toResponseDto(user, accountIds.getOrDefault(user.getId(), List.of())))
+            .toList();
+    }
+
+    private Map<UUID, List<UUID>> accountIdsByUser(List<User> users) {
+        if (users.isEmpty()) {
+            return Map.of();
+        }
+        return bankAccountRepository.findAccountIdsByUserIds(users.stream().map(User::getId).toList())
+            .stream()
+            .collect(Collectors.groupingBy(
+                OwnedAccountId::getUserId,
+                Collectors.mapping(OwnedAccountId::getAccountId, Collectors.toList())
+            ));
+    }
 }
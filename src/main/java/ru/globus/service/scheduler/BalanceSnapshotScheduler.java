@@ -0,0 +1,46 @@
+package ru.globus.service.scheduler;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import ru.globus.config.TransferProperties;
+import ru.globus.model.enums.TransferMode;
+import ru.globus.repository.BalanceEventRepository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Фоново записывает снимки балансов в режиме {@link TransferMode#EVENT_SOURCED}:
+ * для счетов, у которых накопилось {@code snapshot-every} событий или
+ * первое не вошедшее в снимок событие старше {@code snapshot-interval}.
+ * Просматриваются только счета, отмеченные при добавлении событий.
+ */
+@Slf4j
+@Service
+@Profile("!maintenance")
+@RequiredArgsConstructor
+public class BalanceSnapshotScheduler {
+
+    private final BalanceEventRepository balanceEventRepository;
+    private final TransferProperties transferProperties;
+
+    /**
+     * Записывает снимки, срок которых подошёл.
+     */
+    @Scheduled(fixedDelayString = "${transfer.event-sourcing.snapshot-poll-interval:1s}")
+    public void snapshot() {
+        if (transferProperties.getMode() != TransferMode.EVENT_SOURCED) {
+            return;
+        }
+        var settings = transferProperties.getEventSourcing();
+        int written = balanceEventRepository.snapshotDue(
+            settings.getSnapshotEvery(),
+            LocalDateTime.now().minus(settings.getSnapshotInterval())
+        );
+        if (written > 0) {
+            log.debug("Записано снимков балансов: {}", written);
+        }
+    }
+}
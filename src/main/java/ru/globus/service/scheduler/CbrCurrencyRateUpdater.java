@@ -1,25 +1,35 @@
 package ru.globus.service.scheduler;
 
-import jakarta.annotation.PostConstruct;
+import feign.Response;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import ru.globus.dto.CbrResponse;
+import ru.globus.config.CurrencyRateProperties;
 import ru.globus.feign.BankClient;
 import ru.globus.model.enums.CurrencyCode;
 import ru.globus.service.CurrencyRateService;
+import ru.globus.service.impl.SchedulerLock;
 import ru.globus.util.XmlParser;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.EnumMap;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 /**
  * Планировщик обновления курсов валют с сайта ЦБР.
  * Работает только в профиле "real-scheduler".
+ * Первое обновление после запуска выполняет {@link ru.globus.service.impl.CurrencyRateWarmup}.
+ * Запросы условные: если документ ЦБР не изменился с прошлой успешной загрузки,
+ * он не скачивается и не разбирается.
+ * Из всех экземпляров приложения курсы запрашивает тот, кто захватил блокировку
+ * {@value #LOCK_NAME}; остальные перечитают сохранённые им курсы по уведомлению
+ * ({@link ru.globus.service.impl.CurrencyRateListener}). После успешного обновления блокировка
+ * остаётся занятой {@code currency-rates.refresh-lock.min-hold}, после ошибки освобождается сразу.
  */
 @Slf4j
 @Service
@@ -27,17 +37,15 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class CbrCurrencyRateUpdater implements CurrencyRateUpdater{
 
+    static final String LOCK_NAME = "currency-rate-refresh";
+
     private final BankClient bankClient;
     private final CurrencyRateService currencyRateService;
+    private final SchedulerLock schedulerLock;
+    private final CurrencyRateProperties currencyRateProperties;
 
-    /**
-     * Выполняет обновление курсов при запуске приложения.
-     */
-    @PostConstruct
-    public void init() {
-        log.info("Инициализация: обновление курсов валют при запуске");
-        updateRates();
-    }
+    private volatile String etag;
+    private volatile String lastModified;
 
     /**
      * Обновляет курсы валют по расписанию (ежедневно в 03:00).
@@ -48,23 +56,50 @@ public class CbrCurrencyRateUpdater implements CurrencyRateUpdater{
         log.info("Запуск обновления курсов валют ЦБР");
 
         try {
-            String xml = bankClient.getDailyRates();
+            var settings = currencyRateProperties.getRefreshLock();
+            var lease = schedulerLock.tryAcquire(LOCK_NAME, settings.getTtl());
+            if (lease.isEmpty()) {
+                log.info("Курсы валют обновляет другой экземпляр, новые курсы придут с уведомлением");
+                return;
+            }
+            try {
+                refresh(lease.get());
+            } catch (RuntimeException e) {
+                schedulerLock.release(lease.get());
+                throw e;
+            }
+            // Блокировка остаётся занятой min-hold: опоздавший экземпляр не запросит ЦБР повторно
+            schedulerLock.release(lease.get(), settings.getMinHold());
+        } catch (Exception e) {
+            log.error("Ошибка при обновлении курсов валют ЦБР: {}", e.getMessage(), e);
+        }
+    }
 
-            CbrResponse response = XmlParser.parseCbrXml(xml);
+    private void refresh(SchedulerLock.Lease lease) {
+        Response response = bankClient.getDailyRates(etag, lastModified);
+        if (response.status() == HttpStatus.NOT_MODIFIED.value()) {
+            response.close();
+            log.info("Курсы валют ЦБР не изменились с прошлого обновления");
+            return;
+        }
+        String responseEtag = header(response, HttpHeaders.ETAG);
+        String responseLastModified = header(response, HttpHeaders.LAST_MODIFIED);
 
-            Map<CurrencyCode, BigDecimal> rates = response.getCurrencies().stream()
-                .collect(Collectors.toMap(
-                    currency -> CurrencyCode.fromCode(currency.getCode()),
-                    currency -> new BigDecimal(currency.getValue().replace(",","."))
-                ));
+        Map<CurrencyCode, BigDecimal> rates = new EnumMap<>(CurrencyCode.class);
+        XmlParser.readCbrRates(response, rate -> rates.put(rate.code(), rate.value()));
 
-            rates.put(CurrencyCode.RUB, BigDecimal.ONE);
+        rates.put(CurrencyCode.RUB, BigDecimal.ONE);
 
-            currencyRateService.saveRates(rates, LocalDate.now());
+        currencyRateService.saveRates(rates, LocalDate.now(), () -> schedulerLock.checkHeld(lease));
+        // Запоминаем версию документа только после сохранения, иначе неудачная загрузка не повторится
+        etag = responseEtag;
+        lastModified = responseLastModified;
 
-            log.info("Обновление курса валют завершено. Загружено {} записей", rates.size());
-        } catch (Exception e) {
-            log.error("Ошибка при обновлении курсов валют ЦБР: {}", e.getMessage(), e);
-        }
+        log.info("Обновление курса валют завершено. Загружено {} записей", rates.size());
+    }
+
+    private static String header(Response response, String name) {
+        var values = response.headers().get(name);
+        return values == null || values.isEmpty() ? null : values.iterator().next();
     }
 }
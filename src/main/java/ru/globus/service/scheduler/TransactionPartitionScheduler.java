@@ -0,0 +1,59 @@
+package ru.globus.service.scheduler;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import ru.globus.config.TransferProperties;
+import ru.globus.repository.TransactionJdbcRepository;
+
+import java.time.YearMonth;
+
+/**
+ * Создаёт секции журнала операций заранее, чтобы записи не попадали
+ * в секцию по умолчанию и вставка не замедлялась с ростом журнала.
+ * Записи, уже попавшие в секцию по умолчанию, переносятся в созданную секцию;
+ * неудачи учитываются метрикой {@code transfer.ledger.partition.failures}.
+ */
+@Slf4j
+@Service
+@Profile("!maintenance")
+@RequiredArgsConstructor
+public class TransactionPartitionScheduler {
+
+    private final TransactionJdbcRepository transactionJdbcRepository;
+    private final TransferProperties transferProperties;
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Создаёт недостающие секции при запуске приложения.
+     */
+    @PostConstruct
+    public void init() {
+        createPartitions();
+    }
+
+    /**
+     * Создаёт секции на текущий месяц и {@code transfer.ledger.partitions-ahead} следующих (ежедневно в 01:00).
+     */
+    @Scheduled(cron = "0 0 1 * * *")
+    public void createPartitions() {
+        YearMonth current = YearMonth.now();
+        for (int i = 0; i <= transferProperties.getLedger().getPartitionsAhead(); i++) {
+            YearMonth month = current.plusMonths(i);
+            try {
+                int moved = transactionJdbcRepository.createPartition(month);
+                if (moved > 0) {
+                    log.warn("В секцию журнала операций за {} перенесено {} записей из секции по умолчанию", month, moved);
+                }
+            } catch (DataAccessException e) {
+                meterRegistry.counter("transfer.ledger.partition.failures").increment();
+                log.error("Не удалось создать секцию журнала операций за {}: {}", month, e.getMessage());
+            }
+        }
+    }
+}
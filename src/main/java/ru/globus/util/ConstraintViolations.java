@@ -0,0 +1,30 @@
+package ru.globus.util;
+
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
+
+/**
+ * Разбор нарушений ограничений базы данных, чтобы вместо предварительной проверки
+ * ({@code exists...} перед вставкой) полагаться на само ограничение.
+ */
+public final class ConstraintViolations {
+
+    private ConstraintViolations() {
+    }
+
+    /**
+     * Проверяет, что ошибка вызвана нарушением указанного ограничения.
+     *
+     * @param e              ошибка записи
+     * @param constraintName имя ограничения в базе (без учёта регистра)
+     * @return {@code true}, если нарушено именно это ограничение
+     */
+    public static boolean isViolated(DataIntegrityViolationException e, String constraintName) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation) {
+                return constraintName.equalsIgnoreCase(violation.getConstraintName());
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,88 @@
+package ru.globus.util;
+
+import ru.globus.dto.CursorPageDto;
+import ru.globus.exception.ValidationException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Позиция в списке, отсортированном по времени создания и идентификатору.
+ * Клиенту передаётся непрозрачной строкой (Base64 URL), по которой следующая
+ * страница читается условием {@code (created, id) > (:created, :id)} по индексу,
+ * без OFFSET и подсчёта строк.
+ *
+ * @param created время создания последней строки страницы
+ * @param id      идентификатор последней строки страницы
+ */
+public record Cursor(LocalDateTime created, UUID id) {
+
+    /** Наибольший размер страницы. */
+    public static final int MAX_PAGE_SIZE = 100;
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    /**
+     * @return курсор в виде строки для ответа API
+     */
+    public String encode() {
+        return ENCODER.encodeToString((created + "|" + id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Разбирает курсор, полученный от клиента.
+     *
+     * @param value строка курсора
+     * @return позиция в списке
+     * @throws ValidationException если строка не является курсором
+     */
+    public static Cursor decode(String value) {
+        try {
+            String[] parts = new String(DECODER.decode(value), StandardCharsets.UTF_8).split("\\|", 2);
+            if (parts.length != 2) {
+                throw new ValidationException("Некорректный курсор: " + value);
+            }
+            return new Cursor(LocalDateTime.parse(parts[0]), UUID.fromString(parts[1]));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new ValidationException("Некорректный курсор: " + value);
+        }
+    }
+
+    /**
+     * Проверяет размер страницы.
+     *
+     * @param size запрошенный размер страницы
+     * @throws ValidationException если размер вне диапазона 1..{@value #MAX_PAGE_SIZE}
+     */
+    public static void checkPageSize(int size) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new ValidationException("Размер страницы должен быть от 1 до " + MAX_PAGE_SIZE + ", получено " + size);
+        }
+    }
+
+    /**
+     * Собирает страницу из строк, прочитанных с запасом в одну строку:
+     * лишняя строка не попадает в ответ и только показывает, что следующая страница есть.
+     *
+     * @param rows     не более size + 1 строк в порядке сортировки
+     * @param size     размер страницы
+     * @param position позиция строки в сортировке
+     * @param mapper   преобразование строк страницы в DTO
+     * @return страница с курсором следующей страницы
+     */
+    public static <E, T> CursorPageDto<T> page(List<E> rows, int size,
+                                               Function<E, Cursor> position,
+                                               Function<List<E>, List<T>> mapper) {
+        if (rows.size() <= size) {
+            return new CursorPageDto<>(mapper.apply(rows), null);
+        }
+        var page = rows.subList(0, size);
+        return new CursorPageDto<>(mapper.apply(page), position.apply(page.get(size - 1)).encode());
+    }
+}
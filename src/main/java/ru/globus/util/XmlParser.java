@@ -1,32 +1,159 @@
 package ru.globus.util;
 
-import com.fasterxml.jackson.dataformat.xml.XmlMapper;
-import com.fasterxml.jackson.module.jaxb.JaxbAnnotationModule;
+import feign.FeignException;
+import feign.Response;
 import lombok.extern.slf4j.Slf4j;
-import ru.globus.dto.CbrResponse;
+import ru.globus.dto.CbrRate;
 import ru.globus.exception.XmlParsingException;
+import ru.globus.model.enums.CurrencyCode;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
- * Универсальный XML-парсер, поддерживающий JAXB-аннотации.
+ * Потоковый разбор XML с курсами валют от ЦБР.
+ * Документ читается StAX-парсером прямо из тела ответа, кодировка (windows-1251)
+ * берётся из XML-декларации; дерево объектов не строится, числа с десятичной
+ * запятой разбираются из символов парсера без промежуточных строк.
  */
 @Slf4j
 public final class XmlParser {
 
-    private static final XmlMapper XML_MAPPER;
+    private static final XMLInputFactory XML_INPUT_FACTORY;
+
+    private static final Map<String, CurrencyCode> CODES = Arrays.stream(CurrencyCode.values())
+        .collect(Collectors.toMap(Enum::name, Function.identity()));
 
     static {
-        XML_MAPPER = new XmlMapper();
-        XML_MAPPER.registerModule(new JaxbAnnotationModule());
+        XML_INPUT_FACTORY = XMLInputFactory.newFactory();
+        XML_INPUT_FACTORY.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        XML_INPUT_FACTORY.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
     }
 
     private XmlParser() {}
 
-    public static CbrResponse parseCbrXml(String xml) {
+    /**
+     * Разбирает тело ответа ЦБР и закрывает его.
+     *
+     * @param response ответ ЦБР
+     * @param consumer получатель курсов
+     * @throws FeignException если ЦБР ответил ошибкой
+     */
+    public static void readCbrRates(Response response, Consumer<CbrRate> consumer) {
+        try (response) {
+            if (response.status() / 100 != 2) {
+                throw FeignException.errorStatus("BankClient", response);
+            }
+            if (response.body() == null) {
+                return;
+            }
+            readCbrRates(response.body().asInputStream(), consumer);
+        } catch (IOException e) {
+            log.error("Ошибка при чтении ответа от ЦБР: {}", e.getMessage(), e);
+            throw new XmlParsingException("Ошибка обработки данных от ЦБР");
+        }
+    }
+
+    /**
+     * Разбирает XML с курсами валют и передаёт каждый курс получателю.
+     * Валюты, которых нет в {@link CurrencyCode}, пропускаются.
+     *
+     * @param xml      XML документ ЦБР
+     * @param consumer получатель курсов
+     */
+    public static void readCbrRates(InputStream xml, Consumer<CbrRate> consumer) {
         try {
-            return XML_MAPPER.readValue(xml, CbrResponse.class);
-        } catch (Exception e) {
+            XMLStreamReader reader = XML_INPUT_FACTORY.createXMLStreamReader(xml);
+            try {
+                readValutes(reader, consumer);
+            } finally {
+                reader.close();
+            }
+        } catch (XMLStreamException | ArithmeticException e) {
             log.error("Ошибка при парсинге XML от ЦБР: {}", e.getMessage(), e);
             throw new XmlParsingException("Ошибка обработки данных от ЦБР");
         }
     }
+
+    private static void readValutes(XMLStreamReader reader, Consumer<CbrRate> consumer) throws XMLStreamException {
+        String charCode = null;
+        CurrencyCode code = null;
+        BigDecimal value = null;
+        int nominal = 1;
+        while (reader.hasNext()) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                switch (reader.getLocalName()) {
+                    case "Valute" -> {
+                        charCode = null;
+                        code = null;
+                        value = null;
+                        nominal = 1;
+                    }
+                    case "CharCode" -> {
+                        charCode = reader.getElementText().trim();
+                        code = CODES.get(charCode);
+                    }
+                    case "Nominal" -> nominal = readDecimal(reader).intValueExact();
+                    case "Value" -> value = readDecimal(reader);
+                    default -> { }
+                }
+            } else if (event == XMLStreamConstants.END_ELEMENT && "Valute".equals(reader.getLocalName())) {
+                if (code != null && value != null) {
+                    consumer.accept(new CbrRate(code, value, nominal));
+                } else {
+                    log.debug("Курс валюты {} пропущен: валюта не поддерживается", charCode);
+                }
+            }
+        }
+    }
+
+    /**
+     * Читает текст текущего элемента как неотрицательное число с десятичной запятой или точкой.
+     * Текст может прийти несколькими событиями, поэтому разбор идёт посимвольно.
+     */
+    private static BigDecimal readDecimal(XMLStreamReader reader) throws XMLStreamException {
+        String element = reader.getLocalName();
+        long unscaled = 0;
+        int scale = 0;
+        int digits = 0;
+        boolean fraction = false;
+        int event;
+        while ((event = reader.next()) != XMLStreamConstants.END_ELEMENT) {
+            if (event != XMLStreamConstants.CHARACTERS && event != XMLStreamConstants.CDATA
+                && event != XMLStreamConstants.SPACE) {
+                continue;
+            }
+            char[] text = reader.getTextCharacters();
+            int end = reader.getTextStart() + reader.getTextLength();
+            for (int i = reader.getTextStart(); i < end; i++) {
+                char c = text[i];
+                if (c >= '0' && c <= '9') {
+                    unscaled = Math.addExact(Math.multiplyExact(unscaled, 10), c - '0');
+                    digits++;
+                    if (fraction) {
+                        scale++;
+                    }
+                } else if ((c == ',' || c == '.') && !fraction) {
+                    fraction = true;
+                } else if (!Character.isWhitespace(c)) {
+                    throw new XMLStreamException("Некорректное число в элементе " + element, reader.getLocation());
+                }
+            }
+        }
+        if (digits == 0) {
+            throw new XMLStreamException("Пустое число в элементе " + element, reader.getLocation());
+        }
+        return BigDecimal.valueOf(unscaled, scale);
+    }
 }
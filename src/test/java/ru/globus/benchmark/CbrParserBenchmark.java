@@ -0,0 +1,137 @@
+package ru.globus.benchmark;
+
+import com.fasterxml.jackson.dataformat.xml.XmlMapper;
+import com.fasterxml.jackson.dataformat.xml.annotation.JacksonXmlElementWrapper;
+import com.fasterxml.jackson.dataformat.xml.annotation.JacksonXmlProperty;
+import com.fasterxml.jackson.dataformat.xml.annotation.JacksonXmlRootElement;
+import com.fasterxml.jackson.module.jaxb.JaxbAnnotationModule;
+import lombok.Getter;
+import lombok.Setter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import ru.globus.model.enums.CurrencyCode;
+import ru.globus.util.XmlParser;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.Charset;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Разбор XML ЦБР: прежний путь (тело ответа строкой, {@link XmlMapper} в дерево DTO,
+ * {@code replace(",", ".")} и {@code new BigDecimal} на каждый курс) против потокового
+ * StAX-разбора {@link XmlParser#readCbrRates} прямо из байтов в windows-1251.
+ * Документ на 50 валют соответствует ежедневному ответу, на 50 000 — многолетней выгрузке.
+ * Запуск: {@code mvn test-compile dependency:build-classpath -Dmdep.outputFile=cp.txt},
+ * затем {@code java -cp target/test-classes:target/classes:$(cat cp.txt) ru.globus.benchmark.CbrParserBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx512m")
+public class CbrParserBenchmark {
+
+    private static final Charset WINDOWS_1251 = Charset.forName("windows-1251");
+
+    @Param({"50", "50000"})
+    private int valutes;
+
+    private final XmlMapper xmlMapper = new XmlMapper();
+    private byte[] body;
+
+    @Setup
+    public void setUp() {
+        xmlMapper.registerModule(new JaxbAnnotationModule());
+        var random = new Random(42);
+        var codes = CurrencyCode.values();
+        var xml = new StringBuilder("<?xml version=\"1.0\" encoding=\"windows-1251\"?><ValCurs Date=\"03.03.2014\" name=\"Foreign Currency Market\">");
+        for (int i = 0; i < valutes; i++) {
+            var code = codes[i % codes.length];
+            var value = BigDecimal.valueOf(random.nextInt(1, 20_000_000), 4).toPlainString().replace('.', ',');
+            xml.append("<Valute ID=\"R0").append(1000 + i % codes.length).append("\"><NumCode>").append(100 + code.ordinal())
+                .append("</NumCode><CharCode>").append(code.name()).append("</CharCode><Nominal>1</Nominal><Name>")
+                .append(code.getDisplayName()).append("</Name><Value>").append(value).append("</Value><VunitRate>")
+                .append(value).append("</VunitRate></Valute>");
+        }
+        body = xml.append("</ValCurs>").toString().getBytes(WINDOWS_1251);
+    }
+
+    @Benchmark
+    public void xmlMapper(Blackhole blackhole) throws Exception {
+        Daily daily = xmlMapper.readValue(new String(body, WINDOWS_1251), Daily.class);
+        for (Valute valute : daily.getValutes()) {
+            blackhole.consume(CurrencyCode.fromCode(valute.getCode()));
+            blackhole.consume(new BigDecimal(valute.getValue().replace(",", ".")));
+        }
+    }
+
+    @Benchmark
+    public void stax(Blackhole blackhole) {
+        XmlParser.readCbrRates(new ByteArrayInputStream(body), blackhole::consume);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(CbrParserBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    /** Прежнее представление ответа ЦБР. */
+    @Getter
+    @Setter
+    @JacksonXmlRootElement(localName = "ValCurs")
+    public static class Daily {
+
+        @JacksonXmlProperty(isAttribute = true, localName = "Date")
+        private String date;
+
+        @JacksonXmlProperty(isAttribute = true, localName = "name")
+        private String name;
+
+        @JacksonXmlElementWrapper(useWrapping = false)
+        @JacksonXmlProperty(localName = "Valute")
+        private List<Valute> valutes;
+    }
+
+    /** Прежнее представление валюты в ответе ЦБР. */
+    @Getter
+    @Setter
+    public static class Valute {
+
+        @JacksonXmlProperty(isAttribute = true, localName = "ID")
+        private String id;
+
+        @JacksonXmlProperty(localName = "NumCode")
+        private String numCode;
+
+        @JacksonXmlProperty(localName = "CharCode")
+        private String code;
+
+        @JacksonXmlProperty(localName = "Nominal")
+        private int nominal;
+
+        @JacksonXmlProperty(localName = "Name")
+        private String name;
+
+        @JacksonXmlProperty(localName = "Value")
+        private String value;
+
+        @JacksonXmlProperty(localName = "VunitRate")
+        private String vunitRate;
+    }
+}
@@ -0,0 +1,78 @@
+package ru.globus.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import ru.globus.model.enums.CurrencyCode;
+import ru.globus.service.impl.CrossRateMatrix;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сравнение получения кросс-курса делением курсов при каждом вызове
+ * и чтением из заранее вычисленной {@link CrossRateMatrix}.
+ * Запуск: {@code mvn test-compile dependency:build-classpath -Dmdep.outputFile=cp.txt},
+ * затем {@code java -cp target/test-classes:target/classes:$(cat cp.txt) ru.globus.benchmark.CrossRateBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CrossRateBenchmark {
+
+    private static final int PAIRS = 1024;
+
+    private final Map<CurrencyCode, BigDecimal> rates = new EnumMap<>(CurrencyCode.class);
+    private final CurrencyCode[] from = new CurrencyCode[PAIRS];
+    private final CurrencyCode[] to = new CurrencyCode[PAIRS];
+    private CrossRateMatrix matrix;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        var random = new Random(42);
+        var codes = CurrencyCode.values();
+        for (CurrencyCode code : codes) {
+            rates.put(code, BigDecimal.valueOf(random.nextInt(1, 20_000_000), 4));
+        }
+        for (int i = 0; i < PAIRS; i++) {
+            from[i] = codes[random.nextInt(codes.length)];
+            to[i] = codes[random.nextInt(codes.length)];
+        }
+        matrix = CrossRateMatrix.of(LocalDate.now(), LocalDate.now(), rates);
+    }
+
+    @Benchmark
+    public BigDecimal divide() {
+        int i = next++ & (PAIRS - 1);
+        return rates.get(from[i]).divide(rates.get(to[i]), 6, RoundingMode.HALF_UP);
+    }
+
+    @Benchmark
+    public BigDecimal matrix() {
+        int i = next++ & (PAIRS - 1);
+        return matrix.get(from[i], to[i]);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(CrossRateBenchmark.class.getSimpleName()).build()).run();
+    }
+}
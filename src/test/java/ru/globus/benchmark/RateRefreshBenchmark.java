@@ -0,0 +1,120 @@
+package ru.globus.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.globus.model.entity.CurrencyRate;
+import ru.globus.model.enums.CurrencyCode;
+import ru.globus.repository.CurrencyRateJdbcRepository;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Время сохранения курсов за один день и за год: прежняя запись по одной валюте
+ * (поиск последнего курса и отдельный INSERT в автокоммите) против одного
+ * {@code INSERT ... ON CONFLICT DO UPDATE} в транзакции.
+ * Нужна запущенная PostgreSQL со схемой приложения; подключение задаётся свойствами
+ * {@code bench.url}, {@code bench.user}, {@code bench.password}. Курсы пишутся за 1990 год
+ * и удаляются после каждой итерации.
+ * Запуск: {@code mvn test-compile dependency:build-classpath -Dmdep.outputFile=cp.txt},
+ * затем {@code java -cp target/test-classes:target/classes:$(cat cp.txt) ru.globus.benchmark.RateRefreshBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class RateRefreshBenchmark {
+
+    private static final LocalDate FIRST_DAY = LocalDate.of(1990, 1, 1);
+
+    @Param({"1", "365"})
+    private int days;
+
+    private SingleConnectionDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+    private CurrencyRateJdbcRepository repository;
+    private List<CurrencyRate> rates;
+
+    @Setup
+    public void setUp() {
+        dataSource = new SingleConnectionDataSource(
+            System.getProperty("bench.url", "jdbc:postgresql://localhost:5432/globus_db"),
+            System.getProperty("bench.user", "globus_user"),
+            System.getProperty("bench.password", "globus_pass"),
+            true
+        );
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        repository = new CurrencyRateJdbcRepository(jdbcTemplate);
+
+        var random = new Random(42);
+        rates = new ArrayList<>();
+        for (int day = 0; day < days; day++) {
+            for (CurrencyCode code : CurrencyCode.values()) {
+                rates.add(CurrencyRate.builder()
+                    .currencyCode(code)
+                    .rate(BigDecimal.valueOf(random.nextInt(1, 20_000_000), 4))
+                    .rateDate(FIRST_DAY.plusDays(day))
+                    .build());
+            }
+        }
+        cleanUp();
+    }
+
+    @TearDown(Level.Iteration)
+    public void cleanUp() {
+        jdbcTemplate.update("delete from currency_rates where rate_date between ? and ?",
+            Date.valueOf(FIRST_DAY), Date.valueOf(FIRST_DAY.plusYears(1)));
+    }
+
+    @TearDown
+    public void close() {
+        dataSource.destroy();
+    }
+
+    @Benchmark
+    public void perCurrency() {
+        for (CurrencyRate rate : rates) {
+            jdbcTemplate.queryForList(
+                "select rate, rate_date from currency_rates where currency_code = ? order by rate_date desc limit 1",
+                rate.getCurrencyCode().name());
+            jdbcTemplate.update("insert into currency_rates (currency_code, rate, rate_date) values (?, ?, ?)",
+                rate.getCurrencyCode().name(), rate.getRate(), Date.valueOf(rate.getRateDate()));
+        }
+    }
+
+    @Benchmark
+    public CurrencyRateJdbcRepository.UpsertResult upsert() {
+        return transactionTemplate.execute(status -> repository.upsert(rates, 5_000));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(RateRefreshBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,126 @@
+package ru.globus.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import ru.globus.repository.UserRepository;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Время поиска пользователей {@code GET /users/search} на нескольких миллионах строк:
+ * короткий префикс, редкий и частый фрагмент фамилии, фрагмент, которому соответствует
+ * половина таблицы, и начало email.
+ * Нужна запущенная PostgreSQL со схемой приложения и локалью, в которой кириллица считается
+ * буквами (не {@code C}); подключение задаётся свойствами {@code bench.url}, {@code bench.user},
+ * {@code bench.password}. Если тестовых пользователей нет, создаётся {@code bench.users}
+ * (по умолчанию 3 000 000) строк с email на {@code .bench}; это занимает несколько минут,
+ * и пользователи остаются для следующих запусков. Удаление:
+ * {@code delete from users where email like '%.bench'}.
+ * Запуск: {@code mvn test-compile dependency:build-classpath -Dmdep.outputFile=cp.txt},
+ * затем {@code java -cp target/test-classes:target/classes:$(cat cp.txt) ru.globus.benchmark.UserSearchBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserSearchBenchmark {
+
+    private static final int CANDIDATES = 1_000;
+    private static final int LIMIT = 20;
+
+    private static final String SEED_SQL = """
+        insert into users (id, email, firstname, surname, registered_at)
+        select gen_random_uuid(),
+               lower(f.lat || '.' || r.lat || m.lat || x.lat) || g || '@' || (array['mail.ru', 'yandex.ru', 'gmail.com', 'globus.bank'])[1 + g % 4] || '.bench',
+               f.cyr,
+               r.cyr || m.cyr || x.cyr,
+               timestamp '2020-01-01' + g * interval '1 minute'
+        from generate_series(1, ?) g
+        cross join lateral (
+            select (array['Иван', 'Пётр', 'Анна', 'Мария', 'Сергей', 'Ольга', 'Дмитрий', 'Елена', 'Алексей', 'Наталья'])[1 + (g / 7) % 10] cyr,
+                   (array['Ivan', 'Petr', 'Anna', 'Maria', 'Sergey', 'Olga', 'Dmitry', 'Elena', 'Alexey', 'Natalya'])[1 + (g / 7) % 10] lat
+        ) f
+        cross join lateral (
+            select (array['Кор', 'Сем', 'Вол', 'Мор', 'Леб', 'Коз', 'Нов', 'Пав', 'Бел', 'Тар', 'Гром', 'Жук', 'Зай', 'Кис', 'Тих'])[1 + (g * 13) % 15] cyr,
+                   (array['Kor', 'Sem', 'Vol', 'Mor', 'Leb', 'Koz', 'Nov', 'Pav', 'Bel', 'Tar', 'Grom', 'Zhuk', 'Zay', 'Kis', 'Tikh'])[1 + (g * 13) % 15] lat
+        ) r
+        cross join lateral (
+            select (array['', 'ал', 'ен', 'ин', 'от', 'ар', 'ус', 'им', 'ед', 'ор'])[1 + (g / 15) % 10] cyr,
+                   (array['', 'al', 'en', 'in', 'ot', 'ar', 'us', 'im', 'ed', 'or'])[1 + (g / 15) % 10] lat
+        ) m
+        cross join lateral (
+            select (array['ов', 'ев', 'ин', 'ский', 'енко', 'ич'])[1 + (g / 150) % 6] cyr,
+                   (array['ov', 'ev', 'in', 'skiy', 'enko', 'ich'])[1 + (g / 150) % 6] lat
+        ) x
+        """;
+
+    @Param({"ко", "Коралин", "ова", "mail", "elena.korov"})
+    private String term;
+
+    private SingleConnectionDataSource dataSource;
+    private NamedParameterJdbcTemplate jdbcTemplate;
+    private String sql;
+    private MapSqlParameterSource params;
+
+    @Setup
+    public void setUp() {
+        dataSource = new SingleConnectionDataSource(
+            System.getProperty("bench.url", "jdbc:postgresql://localhost:5432/globus_db"),
+            System.getProperty("bench.user", "globus_user"),
+            System.getProperty("bench.password", "globus_pass"),
+            true
+        );
+        var jdbc = new JdbcTemplate(dataSource);
+        Long seeded = jdbc.queryForObject("select count(*) from users where email like '%.bench'", Long.class);
+        if (seeded == null || seeded == 0) {
+            jdbc.update(SEED_SQL, Integer.getInteger("bench.users", 3_000_000));
+            jdbc.execute("vacuum analyze users");
+        }
+        jdbcTemplate = new NamedParameterJdbcTemplate(jdbc);
+        params = new MapSqlParameterSource(Map.of(
+            "term", term,
+            "pattern", "%" + term + "%",
+            "prefix", term + "%",
+            "candidates", CANDIDATES,
+            "limit", LIMIT
+        ));
+        sql = term.length() < 3 ? UserRepository.SEARCH_BY_PREFIX_SQL : UserRepository.SEARCH_BY_FRAGMENT_SQL;
+    }
+
+    @TearDown
+    public void tearDown() {
+        dataSource.destroy();
+    }
+
+    @Benchmark
+    public List<String> search() {
+        return jdbcTemplate.query(sql, params, (rs, row) -> rs.getString("email"));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(UserSearchBenchmark.class.getSimpleName())
+            .build()).run();
+    }
+}
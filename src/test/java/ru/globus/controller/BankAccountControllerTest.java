@@ -9,19 +9,29 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
 import ru.globus.dto.BankAccountRequestDto;
 import ru.globus.dto.BankAccountResponseDto;
+import ru.globus.dto.BatchTransferRequestDto;
+import ru.globus.dto.PendingTransferResponseDto;
 import ru.globus.dto.TransferRequestDto;
+import ru.globus.dto.TransferResultDto;
+import ru.globus.model.enums.BatchTransferMode;
 import ru.globus.model.enums.CurrencyCode;
+import ru.globus.model.enums.TransferStatus;
 import ru.globus.service.BankAccountService;
+import ru.globus.service.IdempotencyService;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
+import java.util.function.Supplier;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -31,6 +41,9 @@ public class BankAccountControllerTest {
     @Mock
     private BankAccountService bankAccountService;
 
+    @Mock
+    private IdempotencyService idempotencyService;
+
     @InjectMocks
     private BankAccountController controller;
 
@@ -92,9 +105,54 @@ public class BankAccountControllerTest {
     }
 
     @Test
-    void transferFunds_shouldCallServiceTransfer() {
+    void transferFunds_shouldReturnOk_WhenTransferCompleted() {
         TransferRequestDto request = new TransferRequestDto(UUID.randomUUID(), UUID.randomUUID(), BigDecimal.TEN);
-        controller.transferFunds(request);
-        verify(bankAccountService).transfer(request);
+        when(idempotencyService.execute(eq("key-1"), eq("transfer"), eq(request), any(), any()))
+            .thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(4).get());
+
+        var response = controller.transferFunds("key-1", request);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        verify(bankAccountService).acceptTransfer(request);
+    }
+
+    @Test
+    void transferFunds_shouldReturnAccepted_WhenTransferQueued() {
+        TransferRequestDto request = new TransferRequestDto(UUID.randomUUID(), UUID.randomUUID(), BigDecimal.TEN);
+        PendingTransferResponseDto pending = new PendingTransferResponseDto(UUID.randomUUID(), request.fromAccountId(),
+            request.toAccountId(), request.amount(), TransferStatus.PENDING, LocalDateTime.now(), null);
+        when(bankAccountService.acceptTransfer(request)).thenReturn(pending);
+        when(idempotencyService.execute(isNull(), eq("transfer"), eq(request), any(), any()))
+            .thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(4).get());
+
+        var response = controller.transferFunds(null, request);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.ACCEPTED);
+        assertThat(response.getBody()).isEqualTo(pending);
+    }
+
+    @Test
+    void getTransfer_shouldReturnTransferStatus() {
+        UUID id = UUID.randomUUID();
+        PendingTransferResponseDto pending = new PendingTransferResponseDto(id, UUID.randomUUID(), UUID.randomUUID(),
+            BigDecimal.TEN, TransferStatus.OK, LocalDateTime.now(), LocalDateTime.now());
+        when(bankAccountService.getTransfer(id)).thenReturn(pending);
+
+        assertThat(controller.getTransfer(id)).isEqualTo(pending);
+    }
+
+    @Test
+    void transferBatch_shouldReturnServiceResults() {
+        TransferRequestDto transfer = new TransferRequestDto(UUID.randomUUID(), UUID.randomUUID(), BigDecimal.TEN);
+        BatchTransferRequestDto request = new BatchTransferRequestDto(List.of(transfer), BatchTransferMode.BEST_EFFORT);
+        List<TransferResultDto> response = List.of(new TransferResultDto(0, TransferStatus.OK));
+        when(bankAccountService.transferBatch(request)).thenReturn(response);
+        when(idempotencyService.execute(isNull(), eq("transfer-batch"), eq(request), any(), any()))
+            .thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(4).get());
+
+        List<TransferResultDto> result = controller.transferBatch(null, request);
+
+        assertThat(result).isEqualTo(response);
+        verify(bankAccountService).transferBatch(request);
     }
 }
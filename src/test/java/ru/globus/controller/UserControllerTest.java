@@ -9,12 +9,16 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import ru.globus.dto.CursorPageDto;
+import ru.globus.dto.UserImportReportDto;
 import ru.globus.dto.UserRequestDto;
 import ru.globus.dto.UserResponseDto;
 import ru.globus.exception.UserAlreadyExistException;
 import ru.globus.exception.UserNotFoundException;
+import ru.globus.model.enums.UserImportFormat;
 import ru.globus.service.UserService;
 
+import java.io.ByteArrayInputStream;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
@@ -50,6 +54,27 @@ public class UserControllerTest {
         verify(userService).getAll(pageable);
     }
 
+    @Test
+    void scroll_shouldReturnCursorPage() {
+        var page = new CursorPageDto<>(List.of(responseDto), "next");
+        when(userService.scroll("after", 20)).thenReturn(page);
+
+        CursorPageDto<UserResponseDto> result = userController.scroll("after", 20);
+
+        assertEquals(page, result);
+        verify(userService).scroll("after", 20);
+    }
+
+    @Test
+    void search_shouldReturnFoundUsers() {
+        when(userService.search("doe", 20)).thenReturn(List.of(responseDto));
+
+        List<UserResponseDto> result = userController.search("doe", 20);
+
+        assertEquals(List.of(responseDto), result);
+        verify(userService).search("doe", 20);
+    }
+
     @Test
     void createUser_shouldReturnCreatedUser() {
         when(userService.create(requestDto)).thenReturn(responseDto);
@@ -69,6 +94,15 @@ public class UserControllerTest {
         verify(userService).create(requestDto);
     }
 
+    @Test
+    void importUsers_shouldPassFormatFromContentType() {
+        var body = new ByteArrayInputStream(new byte[0]);
+        var report = new UserImportReportDto(0, 0, 0, List.of());
+        when(userService.importUsers(body, UserImportFormat.NDJSON)).thenReturn(report);
+
+        assertEquals(report, userController.importUsers("application/x-ndjson", body));
+    }
+
     @Test
     void findUser_shouldReturnUser() {
         when(userService.getById(userId)).thenReturn(responseDto);
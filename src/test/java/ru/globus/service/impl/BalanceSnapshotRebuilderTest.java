@@ -0,0 +1,60 @@
+package ru.globus.service.impl;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationContext;
+import ru.globus.config.TransferProperties;
+import ru.globus.repository.BalanceEventRepository;
+import ru.globus.repository.BalanceEventRepository.BalanceEvent;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BalanceSnapshotRebuilderTest {
+
+    @Mock
+    private BalanceEventRepository balanceEventRepository;
+
+    @Spy
+    private TransferProperties transferProperties = new TransferProperties();
+
+    @Mock
+    private ApplicationContext applicationContext;
+
+    @InjectMocks
+    private BalanceSnapshotRebuilder rebuilder;
+
+    @Test
+    void rebuild_ShouldReplayEventsFromInitialBalance() {
+        UUID active = UUID.randomUUID();
+        UUID idle = UUID.randomUUID();
+        LocalDateTime now = LocalDateTime.now();
+        when(balanceEventRepository.findAccountIds()).thenReturn(List.of(active, idle));
+        when(balanceEventRepository.findEvents(active)).thenReturn(List.of(
+            new BalanceEvent(active, 1, BigDecimal.valueOf(-30), UUID.randomUUID(), now),
+            new BalanceEvent(active, 2, BigDecimal.valueOf(45), UUID.randomUUID(), now),
+            new BalanceEvent(active, 3, new BigDecimal("-0.50"), null, now)
+        ));
+        when(balanceEventRepository.findEvents(idle)).thenReturn(List.of());
+        when(balanceEventRepository.findInitialBalance(active)).thenReturn(BigDecimal.valueOf(100));
+
+        int rebuilt = rebuilder.rebuild();
+
+        assertEquals(1, rebuilt);
+        verify(balanceEventRepository).saveSnapshot(active, 3, new BigDecimal("114.50"));
+        verify(balanceEventRepository, never()).saveSnapshot(eq(idle), anyLong(), any());
+    }
+}
@@ -1,35 +1,72 @@
 package ru.globus.service.impl;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.PessimisticLockingFailureException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.globus.config.TransferProperties;
 import ru.globus.dto.BankAccountRequestDto;
 import ru.globus.dto.BankAccountResponseDto;
+import ru.globus.dto.BatchTransferRequestDto;
+import ru.globus.dto.PendingTransferResponseDto;
 import ru.globus.dto.TransferRequestDto;
+import ru.globus.dto.TransferResultDto;
 import ru.globus.exception.BankAccountNotFoundException;
+import ru.globus.exception.TransferNotFoundException;
+import ru.globus.exception.TransferTimeoutException;
 import ru.globus.exception.UserNotFoundException;
+import ru.globus.exception.ValidationException;
 import ru.globus.mapper.BankAccountMapper;
+import ru.globus.mapper.PendingTransferMapper;
 import ru.globus.model.entity.BankAccount;
+import ru.globus.model.entity.PendingTransfer;
+import ru.globus.model.entity.Transaction;
 import ru.globus.model.entity.User;
+import ru.globus.model.enums.BatchTransferMode;
 import ru.globus.model.enums.CurrencyCode;
+import ru.globus.model.enums.TransferMode;
+import ru.globus.model.enums.TransferStatus;
+import ru.globus.repository.BalanceEventRepository;
+import ru.globus.repository.BalanceEventRepository.AccountBalance;
+import ru.globus.repository.BankAccountJdbcRepository.LockedAccount;
 import ru.globus.repository.BankAccountRepository;
+import ru.globus.repository.PendingTransferRepository;
 import ru.globus.repository.UserRepository;
 import ru.globus.service.CurrencyRateService;
+import ru.globus.util.Cursor;
 
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.sql.SQLException;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -47,6 +84,36 @@ class BankAccountServiceImplTest {
     @Mock
     private CurrencyRateService currencyRateService;
 
+    @Spy
+    private TransferProperties transferProperties = new TransferProperties();
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Mock
+    private TransferBatchProcessor transferBatchProcessor;
+
+    @Mock
+    private TransferLaneExecutor transferLaneExecutor;
+
+    @Mock
+    private TransferGroupCommitter transferGroupCommitter;
+
+    @Mock
+    private TransactionLedger transactionLedger;
+
+    @Mock
+    private BalanceEventRepository balanceEventRepository;
+
+    @Mock
+    private PendingTransferRepository pendingTransferRepository;
+
+    @Mock
+    private PendingTransferMapper pendingTransferMapper;
+
     @InjectMocks
     private BankAccountServiceImpl bankAccountService;
 
@@ -60,6 +127,7 @@ class BankAccountServiceImplTest {
     private BankAccountResponseDto responseDto;
     private TransferRequestDto transferDto;
     private LocalDateTime createdAt;
+    private final SimpleTransactionStatus transactionStatus = new SimpleTransactionStatus();
 
     @BeforeEach
     void setUp() {
@@ -83,12 +151,18 @@ class BankAccountServiceImplTest {
         responseDto = new BankAccountResponseDto(accountId, userId, CurrencyCode.RUB, "1234567890", BigDecimal.valueOf(500), true, createdAt);
 
         transferDto = new TransferRequestDto(fromAccountId, toAccountId, BigDecimal.valueOf(100));
+
+        lenient().doAnswer(invocation -> {
+            invocation.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+        lenient().when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+            invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(transactionStatus));
     }
 
     @Test
-    void create_ShouldCreateAccount_WhenValidData() {
-        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
-        when(bankAccountRepository.existsByAccountNumber(requestDto.accountNumber())).thenReturn(false);
+    void create_ShouldInsertAccountWithoutPreChecks() {
+        when(userRepository.getReferenceById(userId)).thenReturn(user);
         when(bankAccountMapper.toEntity(requestDto, user)).thenReturn(bankAccount);
         when(bankAccountRepository.save(bankAccount)).thenReturn(bankAccount);
         when(bankAccountMapper.toResponseDto(bankAccount)).thenReturn(responseDto);
@@ -96,22 +170,24 @@ class BankAccountServiceImplTest {
         BankAccountResponseDto result = bankAccountService.create(requestDto);
 
         assertEquals(responseDto, result);
-        verify(userRepository).findById(userId);
-        verify(bankAccountRepository).existsByAccountNumber(requestDto.accountNumber());
         verify(bankAccountRepository).save(bankAccount);
+        verify(userRepository, never()).findById(any());
     }
 
     @Test
-    void create_ShouldThrowUserNotFoundException_WhenUserNotFound() {
-        when(userRepository.findById(userId)).thenReturn(Optional.empty());
+    void create_ShouldThrowUserNotFoundException_WhenUserForeignKeyIsViolated() {
+        when(userRepository.getReferenceById(userId)).thenReturn(user);
+        when(bankAccountMapper.toEntity(requestDto, user)).thenReturn(bankAccount);
+        when(bankAccountRepository.save(bankAccount)).thenThrow(constraintViolation("fk_bank_accounts_on_user"));
 
         assertThrows(UserNotFoundException.class, () -> bankAccountService.create(requestDto));
     }
 
     @Test
-    void create_ShouldThrowIllegalArgumentException_WhenAccountNumberExists() {
-        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
-        when(bankAccountRepository.existsByAccountNumber(requestDto.accountNumber())).thenReturn(true);
+    void create_ShouldThrowIllegalArgumentException_WhenAccountNumberIsTaken() {
+        when(userRepository.getReferenceById(userId)).thenReturn(user);
+        when(bankAccountMapper.toEntity(requestDto, user)).thenReturn(bankAccount);
+        when(bankAccountRepository.save(bankAccount)).thenThrow(constraintViolation("uc_ac9562b7d91d15a6113e9515b"));
 
         assertThrows(IllegalArgumentException.class, () -> bankAccountService.create(requestDto));
     }
@@ -129,6 +205,23 @@ class BankAccountServiceImplTest {
         verify(bankAccountRepository).findAll(pageable);
     }
 
+    @Test
+    void scroll_ShouldContinueAfterCursor_WithoutCountQuery() {
+        bankAccount.setCreatedAt(createdAt);
+        var cursor = new Cursor(createdAt.minusSeconds(1), UUID.randomUUID());
+        var next = new BankAccount();
+        next.setId(UUID.randomUUID());
+        next.setCreatedAt(createdAt.plusSeconds(1));
+        when(bankAccountRepository.findPageAfter(cursor.created(), cursor.id(), 2)).thenReturn(List.of(bankAccount, next));
+        when(bankAccountMapper.toResponseDto(bankAccount)).thenReturn(responseDto);
+
+        var result = bankAccountService.scroll(cursor.encode(), 1);
+
+        assertEquals(List.of(responseDto), result.content());
+        assertEquals(new Cursor(createdAt, accountId), Cursor.decode(result.next()));
+        verify(bankAccountRepository, never()).count();
+    }
+
     @Test
     void getById_ShouldReturnAccount_WhenExists() {
         when(bankAccountRepository.findById(accountId)).thenReturn(Optional.of(bankAccount));
@@ -161,6 +254,39 @@ class BankAccountServiceImplTest {
         verify(bankAccountRepository).save(bankAccount);
     }
 
+    @Test
+    void getById_ShouldReturnCurrentBalance_WhenEventSourcedMode() {
+        transferProperties.setMode(TransferMode.EVENT_SOURCED);
+        when(bankAccountRepository.findById(accountId)).thenReturn(Optional.of(bankAccount));
+        when(bankAccountMapper.toResponseDto(bankAccount)).thenReturn(responseDto);
+        when(balanceEventRepository.load(List.of(accountId))).thenReturn(List.of(new AccountBalance(
+            new LockedAccount(accountId, userId, CurrencyCode.RUB, BigDecimal.valueOf(730), true), 12)));
+
+        BankAccountResponseDto result = bankAccountService.getById(accountId);
+
+        assertEquals(BigDecimal.valueOf(730), result.balance());
+        assertEquals(responseDto.accountNumber(), result.accountNumber());
+    }
+
+    @Test
+    void update_ShouldAppendAdjustmentEvent_WhenEventSourcedMode() {
+        transferProperties.setMode(TransferMode.EVENT_SOURCED);
+        BankAccountRequestDto updateDto = new BankAccountRequestDto(null, null, null, BigDecimal.valueOf(1500));
+        when(bankAccountRepository.findById(accountId)).thenReturn(Optional.of(bankAccount));
+        when(bankAccountRepository.save(bankAccount)).thenReturn(bankAccount);
+        when(bankAccountMapper.toResponseDto(bankAccount)).thenReturn(responseDto);
+        when(balanceEventRepository.load(List.of(accountId))).thenReturn(List.of(new AccountBalance(
+            new LockedAccount(accountId, userId, CurrencyCode.RUB, BigDecimal.valueOf(1200), true), 7)));
+
+        bankAccountService.update(accountId, updateDto);
+
+        verify(balanceEventRepository).lock(List.of(accountId));
+        verify(balanceEventRepository).append(argThat(events -> events.size() == 1
+            && events.get(0).seq() == 8
+            && events.get(0).amount().compareTo(BigDecimal.valueOf(300)) == 0), eq(1));
+        assertEquals(BigDecimal.valueOf(1000), bankAccount.getBalance());
+    }
+
     @Test
     void update_ShouldThrowBankAccountNotFoundException_WhenNotExists() {
         BankAccountRequestDto updateDto = new BankAccountRequestDto(null, null, null, BigDecimal.valueOf(1500));
@@ -189,15 +315,16 @@ class BankAccountServiceImplTest {
 
     @Test
     void transfer_ShouldThrowBankAccountNotFoundException_WhenFromAccountNotFound() {
-        when(bankAccountRepository.findById(fromAccountId)).thenReturn(Optional.empty());
+        when(bankAccountRepository.findByIdForUpdate(fromAccountId)).thenReturn(Optional.empty());
+        when(bankAccountRepository.findByIdForUpdate(toAccountId)).thenReturn(Optional.of(bankAccount));
 
         assertThrows(BankAccountNotFoundException.class, () -> bankAccountService.transfer(transferDto));
     }
 
     @Test
     void transfer_ShouldThrowBankAccountNotFoundException_WhenToAccountNotFound() {
-        when(bankAccountRepository.findById(fromAccountId)).thenReturn(Optional.of(bankAccount));
-        when(bankAccountRepository.findById(toAccountId)).thenReturn(Optional.empty());
+        when(bankAccountRepository.findByIdForUpdate(fromAccountId)).thenReturn(Optional.of(bankAccount));
+        when(bankAccountRepository.findByIdForUpdate(toAccountId)).thenReturn(Optional.empty());
 
         assertThrows(BankAccountNotFoundException.class, () -> bankAccountService.transfer(transferDto));
     }
@@ -206,8 +333,8 @@ class BankAccountServiceImplTest {
     void transfer_ShouldThrowIllegalArgumentException_WhenInsufficientFunds() {
         transferDto = new TransferRequestDto(fromAccountId, toAccountId, BigDecimal.valueOf(2000));
 
-        when(bankAccountRepository.findById(fromAccountId)).thenReturn(Optional.of(bankAccount));
-        when(bankAccountRepository.findById(toAccountId)).thenReturn(Optional.of(bankAccount));
+        when(bankAccountRepository.findByIdForUpdate(fromAccountId)).thenReturn(Optional.of(bankAccount));
+        when(bankAccountRepository.findByIdForUpdate(toAccountId)).thenReturn(Optional.of(bankAccount));
 
         assertThrows(IllegalArgumentException.class, () -> bankAccountService.transfer(transferDto));
     }
@@ -219,9 +346,304 @@ class BankAccountServiceImplTest {
         BankAccount toAccount = new BankAccount();
         toAccount.setUser(anotherUser);
 
+        when(bankAccountRepository.findByIdForUpdate(fromAccountId)).thenReturn(Optional.of(bankAccount));
+        when(bankAccountRepository.findByIdForUpdate(toAccountId)).thenReturn(Optional.of(toAccount));
+
+        assertThrows(IllegalArgumentException.class, () -> bankAccountService.transfer(transferDto));
+    }
+
+    @Test
+    void transfer_ShouldThrowIllegalArgumentException_WhenSameAccount() {
+        transferDto = new TransferRequestDto(fromAccountId, fromAccountId, BigDecimal.TEN);
+
+        assertThrows(IllegalArgumentException.class, () -> bankAccountService.transfer(transferDto));
+        verify(bankAccountRepository, never()).findByIdForUpdate(any());
+    }
+
+    @Test
+    void transfer_ShouldLockAccountsInAscendingIdOrder() {
+        UUID lower = new UUID(0, 1);
+        UUID higher = new UUID(0, 2);
+        BankAccount lowerAccount = new BankAccount().setId(lower).setUser(user).setCurrencyCode(CurrencyCode.RUB)
+            .setBalance(BigDecimal.valueOf(1000));
+        BankAccount higherAccount = new BankAccount().setId(higher).setUser(user).setCurrencyCode(CurrencyCode.RUB)
+            .setBalance(BigDecimal.valueOf(1000));
+        transferDto = new TransferRequestDto(higher, lower, BigDecimal.valueOf(100));
+
+        when(bankAccountRepository.findByIdForUpdate(lower)).thenReturn(Optional.of(lowerAccount));
+        when(bankAccountRepository.findByIdForUpdate(higher)).thenReturn(Optional.of(higherAccount));
+        when(currencyRateService.getConversionRate(eq(CurrencyCode.RUB), eq(CurrencyCode.RUB), any())).thenReturn(BigDecimal.ONE);
+
+        bankAccountService.transfer(transferDto);
+
+        InOrder inOrder = inOrder(bankAccountRepository);
+        inOrder.verify(bankAccountRepository).setLockTimeout("3000ms");
+        inOrder.verify(bankAccountRepository).findByIdForUpdate(lower);
+        inOrder.verify(bankAccountRepository).findByIdForUpdate(higher);
+        assertEquals(0, BigDecimal.valueOf(900).compareTo(higherAccount.getBalance()));
+        assertEquals(0, BigDecimal.valueOf(1100).compareTo(lowerAccount.getBalance()));
+    }
+
+    @Test
+    void transfer_ShouldRecordDebitAndCreditInLedger() {
+        BankAccount toAccount = new BankAccount().setId(toAccountId).setUser(user).setCurrencyCode(CurrencyCode.USD)
+            .setBalance(BigDecimal.ZERO);
+        bankAccount.setId(fromAccountId);
+        List<Transaction> entries = List.of(new Transaction(), new Transaction());
+
+        when(bankAccountRepository.findByIdForUpdate(fromAccountId)).thenReturn(Optional.of(bankAccount));
+        when(bankAccountRepository.findByIdForUpdate(toAccountId)).thenReturn(Optional.of(toAccount));
+        when(currencyRateService.getConversionRate(eq(CurrencyCode.RUB), eq(CurrencyCode.USD), any())).thenReturn(new BigDecimal("0.0125"));
+        when(transactionLedger.transfer(fromAccountId, CurrencyCode.RUB, BigDecimal.valueOf(100),
+            toAccountId, CurrencyCode.USD, new BigDecimal("1.25"))).thenReturn(entries);
+
+        bankAccountService.transfer(transferDto);
+
+        verify(transactionLedger).record(entries);
+    }
+
+    @Test
+    void transfer_ShouldRetryOnVersionConflict_WhenOptimisticMode() {
+        useOptimisticMode(3);
+        BankAccount toAccount = new BankAccount().setId(toAccountId).setUser(user).setCurrencyCode(CurrencyCode.RUB);
         when(bankAccountRepository.findById(fromAccountId)).thenReturn(Optional.of(bankAccount));
         when(bankAccountRepository.findById(toAccountId)).thenReturn(Optional.of(toAccount));
+        when(currencyRateService.getConversionRate(eq(CurrencyCode.RUB), eq(CurrencyCode.RUB), any())).thenReturn(BigDecimal.ONE);
+        doThrow(new ObjectOptimisticLockingFailureException(BankAccount.class, fromAccountId))
+            .doAnswer(invocation -> {
+                invocation.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+                return null;
+            })
+            .when(transactionTemplate).executeWithoutResult(any());
+
+        bankAccountService.transfer(transferDto);
+
+        verify(transactionTemplate, times(2)).executeWithoutResult(any());
+        verify(bankAccountRepository, never()).findByIdForUpdate(any());
+        assertEquals(0, BigDecimal.valueOf(900).compareTo(bankAccount.getBalance()));
+        assertEquals(1.0, meterRegistry.counter("transfer.optimistic.retries", "attempt", "1").count());
+    }
 
-        assertThrows(IllegalArgumentException.class, () -> bankAccountService.transfer(transferDto));
+    @Test
+    void transfer_ShouldRethrowConflict_WhenOptimisticAttemptsExhausted() {
+        useOptimisticMode(3);
+        doThrow(new ObjectOptimisticLockingFailureException(BankAccount.class, fromAccountId))
+            .when(transactionTemplate).executeWithoutResult(any());
+
+        assertThrows(OptimisticLockingFailureException.class, () -> bankAccountService.transfer(transferDto));
+
+        verify(transactionTemplate, times(3)).executeWithoutResult(any());
+        assertEquals(1.0, meterRegistry.counter("transfer.optimistic.retries", "attempt", "2").count());
+    }
+
+    private void useOptimisticMode(int maxAttempts) {
+        transferProperties.setMode(TransferMode.OPTIMISTIC);
+        transferProperties.getOptimistic().setMaxAttempts(maxAttempts);
+        transferProperties.getOptimistic().setInitialBackoff(Duration.ZERO);
+    }
+
+    @Test
+    void transfer_ShouldUseConditionalUpdatesInIdOrder_WhenAtomicMode() {
+        transferProperties.setMode(TransferMode.ATOMIC);
+        UUID lower = new UUID(0, 1);
+        UUID higher = new UUID(0, 2);
+        BankAccount lowerAccount = new BankAccount().setId(lower).setUser(user).setCurrencyCode(CurrencyCode.USD);
+        BankAccount higherAccount = new BankAccount().setId(higher).setUser(user).setCurrencyCode(CurrencyCode.RUB);
+        transferDto = new TransferRequestDto(higher, lower, BigDecimal.valueOf(100));
+
+        when(bankAccountRepository.findAllById(List.of(higher, lower))).thenReturn(List.of(lowerAccount, higherAccount));
+        when(currencyRateService.getConversionRate(eq(CurrencyCode.RUB), eq(CurrencyCode.USD), any())).thenReturn(new BigDecimal("0.012345"));
+        when(bankAccountRepository.credit(lower, new BigDecimal("1.23"))).thenReturn(1);
+        when(bankAccountRepository.debit(higher, BigDecimal.valueOf(100))).thenReturn(1);
+
+        bankAccountService.transfer(transferDto);
+
+        InOrder inOrder = inOrder(bankAccountRepository);
+        inOrder.verify(bankAccountRepository).credit(lower, new BigDecimal("1.23"));
+        inOrder.verify(bankAccountRepository).debit(higher, BigDecimal.valueOf(100));
+        verify(bankAccountRepository, never()).save(any());
+    }
+
+    @Test
+    void transfer_ShouldThrowIllegalArgumentException_WhenAtomicDebitAffectsNoRows() {
+        transferProperties.setMode(TransferMode.ATOMIC);
+        BankAccount toAccount = new BankAccount().setId(toAccountId).setUser(user).setCurrencyCode(CurrencyCode.RUB);
+        bankAccount.setId(fromAccountId);
+
+        when(bankAccountRepository.findAllById(List.of(fromAccountId, toAccountId))).thenReturn(List.of(bankAccount, toAccount));
+        when(currencyRateService.getConversionRate(eq(CurrencyCode.RUB), eq(CurrencyCode.RUB), any())).thenReturn(BigDecimal.ONE);
+        lenient().when(bankAccountRepository.credit(any(), any())).thenReturn(1);
+        when(bankAccountRepository.debit(fromAccountId, BigDecimal.valueOf(100))).thenReturn(0);
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> bankAccountService.transfer(transferDto));
+        assertEquals("Недостаточно средств на счёте отправителя", e.getMessage());
+    }
+
+    @Test
+    void transfer_ShouldAppendEventsThroughProcessor_WhenEventSourcedMode() {
+        transferProperties.setMode(TransferMode.EVENT_SOURCED);
+        when(transferBatchProcessor.process(eq(List.of(transferDto)), any()))
+            .thenReturn(List.of(TransferStatus.INSUFFICIENT_FUNDS));
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> bankAccountService.transfer(transferDto));
+        assertEquals("Недостаточно средств на счёте отправителя", e.getMessage());
+        verify(bankAccountRepository, never()).findByIdForUpdate(any());
+    }
+
+    @Test
+    void transfer_ShouldSubmitToLane_WhenLanesEnabled() {
+        transferProperties.getLanes().setEnabled(true);
+        when(transferLaneExecutor.submit(transferDto)).thenReturn(CompletableFuture.completedFuture(TransferStatus.OK));
+
+        bankAccountService.transfer(transferDto);
+
+        verify(transferLaneExecutor).submit(transferDto);
+        verifyNoInteractions(transactionTemplate);
+    }
+
+    @Test
+    void transfer_ShouldThrowIllegalArgumentException_WhenLaneReportsInsufficientFunds() {
+        transferProperties.getLanes().setEnabled(true);
+        when(transferLaneExecutor.submit(transferDto))
+            .thenReturn(CompletableFuture.completedFuture(TransferStatus.INSUFFICIENT_FUNDS));
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> bankAccountService.transfer(transferDto));
+        assertEquals("Недостаточно средств на счёте отправителя", e.getMessage());
+    }
+
+    @Test
+    void transfer_ShouldCancelQueuedTransfer_AndThrowTransferTimeoutException_WhenLaneDoesNotAnswer() {
+        transferProperties.getLanes().setEnabled(true);
+        transferProperties.getLanes().setAwaitTimeout(Duration.ofMillis(10));
+        var result = new CompletableFuture<TransferStatus>();
+        when(transferLaneExecutor.submit(transferDto)).thenReturn(result);
+
+        assertThrows(TransferTimeoutException.class, () -> bankAccountService.transfer(transferDto));
+        assertTrue(result.isCancelled());
+    }
+
+    @Test
+    void transfer_ShouldSubmitToGroupCommit_WhenGroupCommitEnabled() {
+        transferProperties.getGroupCommit().setEnabled(true);
+        when(transferGroupCommitter.submit(transferDto)).thenReturn(CompletableFuture.completedFuture(TransferStatus.OK));
+
+        bankAccountService.transfer(transferDto);
+
+        verify(transferGroupCommitter).submit(transferDto);
+        verifyNoInteractions(transactionTemplate, transferLaneExecutor);
+    }
+
+    @Test
+    void submitTransfer_ShouldSavePendingTransfer() {
+        var response = new PendingTransferResponseDto(UUID.randomUUID(), fromAccountId, toAccountId,
+            BigDecimal.valueOf(100), TransferStatus.PENDING, LocalDateTime.now(), null);
+        when(pendingTransferRepository.save(any(PendingTransfer.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(pendingTransferMapper.toResponseDto(any())).thenReturn(response);
+
+        var result = bankAccountService.submitTransfer(transferDto);
+
+        assertEquals(response, result);
+        verify(pendingTransferRepository).save(argThat(pending -> pending.getStatus() == TransferStatus.PENDING
+            && pending.getFromAccountId().equals(fromAccountId)
+            && pending.getToAccountId().equals(toAccountId)
+            && pending.getAmount().equals(BigDecimal.valueOf(100))));
+        verifyNoInteractions(bankAccountRepository, transactionTemplate);
+    }
+
+    @Test
+    void acceptTransfer_ShouldQueueTransfer_WhenAsyncEnabled() {
+        transferProperties.getAsync().setEnabled(true);
+        var response = new PendingTransferResponseDto(UUID.randomUUID(), fromAccountId, toAccountId,
+            BigDecimal.valueOf(100), TransferStatus.PENDING, LocalDateTime.now(), null);
+        when(pendingTransferRepository.save(any(PendingTransfer.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(pendingTransferMapper.toResponseDto(any())).thenReturn(response);
+
+        assertEquals(response, bankAccountService.acceptTransfer(transferDto));
+        verifyNoInteractions(bankAccountRepository, transactionTemplate);
+    }
+
+    @Test
+    void acceptTransfer_ShouldTransferSynchronously_WhenAsyncDisabled() {
+        assertThrows(IllegalArgumentException.class, () -> bankAccountService.acceptTransfer(
+            new TransferRequestDto(fromAccountId, fromAccountId, BigDecimal.ONE)));
+        verifyNoInteractions(pendingTransferRepository);
+    }
+
+    @Test
+    void getTransfer_ShouldThrowTransferNotFoundException_WhenNotExists() {
+        UUID id = UUID.randomUUID();
+        when(pendingTransferRepository.findById(id)).thenReturn(Optional.empty());
+
+        assertThrows(TransferNotFoundException.class, () -> bankAccountService.getTransfer(id));
+    }
+
+    @Test
+    void transferBatch_ShouldMarkSuccessfulTransfersRolledBack_WhenAllOrNothingFails() {
+        var transfers = List.of(transferDto, transferDto);
+        when(transferBatchProcessor.process(eq(transfers), any()))
+            .thenReturn(List.of(TransferStatus.OK, TransferStatus.INSUFFICIENT_FUNDS));
+
+        var result = bankAccountService.transferBatch(new BatchTransferRequestDto(transfers, BatchTransferMode.ALL_OR_NOTHING));
+
+        assertEquals(List.of(
+            new TransferResultDto(0, TransferStatus.ROLLED_BACK),
+            new TransferResultDto(1, TransferStatus.INSUFFICIENT_FUNDS)
+        ), result);
+        assertTrue(transactionStatus.isRollbackOnly());
+    }
+
+    @Test
+    void transferBatch_ShouldCommitEachChunkSeparately_WhenBestEffort() {
+        transferProperties.getBatch().setChunkSize(2);
+        var transfers = List.of(transferDto, transferDto, transferDto);
+        when(transferBatchProcessor.process(eq(transfers.subList(0, 2)), any()))
+            .thenReturn(List.of(TransferStatus.OK, TransferStatus.INACTIVE));
+        when(transferBatchProcessor.process(eq(transfers.subList(2, 3)), any()))
+            .thenReturn(List.of(TransferStatus.OK));
+
+        var result = bankAccountService.transferBatch(new BatchTransferRequestDto(transfers, null));
+
+        assertEquals(List.of(
+            new TransferResultDto(0, TransferStatus.OK),
+            new TransferResultDto(1, TransferStatus.INACTIVE),
+            new TransferResultDto(2, TransferStatus.OK)
+        ), result);
+        verify(transactionTemplate, times(2)).execute(any());
+        assertFalse(transactionStatus.isRollbackOnly());
+    }
+
+    @Test
+    void transferBatch_ShouldMarkChunkFailed_AndContinue_WhenChunkTransactionFails() {
+        transferProperties.getBatch().setChunkSize(1);
+        var first = new TransferRequestDto(fromAccountId, toAccountId, BigDecimal.ONE);
+        var second = new TransferRequestDto(toAccountId, fromAccountId, BigDecimal.ONE);
+        var third = new TransferRequestDto(fromAccountId, toAccountId, BigDecimal.TEN);
+        when(transferBatchProcessor.process(eq(List.of(first)), any())).thenReturn(List.of(TransferStatus.OK));
+        when(transferBatchProcessor.process(eq(List.of(second)), any()))
+            .thenThrow(new PessimisticLockingFailureException("lock timeout"));
+        when(transferBatchProcessor.process(eq(List.of(third)), any())).thenReturn(List.of(TransferStatus.OK));
+
+        var result = bankAccountService.transferBatch(
+            new BatchTransferRequestDto(List.of(first, second, third), BatchTransferMode.BEST_EFFORT));
+
+        assertEquals(List.of(
+            new TransferResultDto(0, TransferStatus.OK),
+            new TransferResultDto(1, TransferStatus.FAILED),
+            new TransferResultDto(2, TransferStatus.OK)
+        ), result);
+    }
+
+    @Test
+    void transferBatch_ShouldThrowValidationException_WhenBatchTooLarge() {
+        transferProperties.getBatch().setMaxSize(1);
+        var dto = new BatchTransferRequestDto(List.of(transferDto, transferDto), BatchTransferMode.BEST_EFFORT);
+
+        assertThrows(ValidationException.class, () -> bankAccountService.transferBatch(dto));
+        verifyNoInteractions(transferBatchProcessor);
+    }
+
+    private DataIntegrityViolationException constraintViolation(String constraintName) {
+        return new DataIntegrityViolationException("could not execute statement",
+            new ConstraintViolationException("duplicate", new SQLException("duplicate", "23505"), constraintName));
     }
 }
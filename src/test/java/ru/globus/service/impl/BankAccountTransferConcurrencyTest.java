@@ -0,0 +1,141 @@
+package ru.globus.service.impl;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import ru.globus.TestcontainersConfiguration;
+import ru.globus.config.TransferProperties;
+import ru.globus.dto.BankAccountResponseDto;
+import ru.globus.dto.TransferRequestDto;
+import ru.globus.model.entity.BankAccount;
+import ru.globus.model.entity.User;
+import ru.globus.model.enums.CurrencyCode;
+import ru.globus.model.enums.TransferMode;
+import ru.globus.repository.BankAccountRepository;
+import ru.globus.repository.UserRepository;
+import ru.globus.service.BankAccountService;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Import(TestcontainersConfiguration.class)
+@SpringBootTest
+@ActiveProfiles("fake-scheduler")
+@Testcontainers(disabledWithoutDocker = true)
+class BankAccountTransferConcurrencyTest {
+
+    private static final int ACCOUNTS = 8;
+    private static final int TRANSFERS = 4000;
+    private static final int THREADS = 32;
+    private static final BigDecimal INITIAL_BALANCE = BigDecimal.valueOf(1000);
+
+    @Autowired
+    private BankAccountService bankAccountService;
+
+    @Autowired
+    private BankAccountRepository bankAccountRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TransferProperties transferProperties;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private List<UUID> accountIds;
+    private TransferMode originalMode;
+
+    @BeforeEach
+    void setUp() {
+        originalMode = transferProperties.getMode();
+        User user = new User();
+        user.setEmail(UUID.randomUUID() + "@example.com");
+        user.setFirstname("Иван");
+        user.setSurname("Иванов");
+        user = userRepository.save(user);
+
+        accountIds = new ArrayList<>();
+        for (int i = 0; i < ACCOUNTS; i++) {
+            BankAccount account = new BankAccount()
+                .setUser(user)
+                .setCurrencyCode(CurrencyCode.RUB)
+                .setAccountNumber(UUID.randomUUID().toString().replace("-", "").substring(0, 20))
+                .setBalance(INITIAL_BALANCE);
+            accountIds.add(bankAccountRepository.save(account).getId());
+        }
+    }
+
+    /**
+     * TransferProperties — общий бин закэшированного контекста: режим возвращается,
+     * чтобы остальные тесты с тем же контекстом не выполнялись в режиме последнего запуска.
+     */
+    @AfterEach
+    void restoreMode() {
+        transferProperties.setMode(originalMode);
+    }
+
+    @ParameterizedTest
+    @EnumSource(TransferMode.class)
+    void transfer_ShouldPreserveTotalBalance_UnderConcurrentLoad(TransferMode mode) throws Exception {
+        transferProperties.setMode(mode);
+        AtomicInteger succeeded = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+
+        try (ExecutorService pool = Executors.newFixedThreadPool(THREADS)) {
+            for (int i = 0; i < TRANSFERS; i++) {
+                futures.add(pool.submit(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    UUID from = accountIds.get(random.nextInt(ACCOUNTS));
+                    UUID to = accountIds.get(random.nextInt(ACCOUNTS));
+                    if (from.equals(to)) {
+                        return;
+                    }
+                    try {
+                        bankAccountService.transfer(new TransferRequestDto(from, to, BigDecimal.valueOf(random.nextInt(1, 100))));
+                        succeeded.incrementAndGet();
+                    } catch (IllegalArgumentException | ConcurrencyFailureException e) {
+                        rejected.incrementAndGet();
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+
+        List<BankAccountResponseDto> accounts = accountIds.stream().map(bankAccountService::getById).toList();
+        BigDecimal total = accounts.stream()
+            .map(BankAccountResponseDto::balance)
+            .reduce(BigDecimal.ZERO, BigDecimal::add);
+
+        assertEquals(0, INITIAL_BALANCE.multiply(BigDecimal.valueOf(ACCOUNTS)).compareTo(total));
+        assertTrue(accounts.stream().allMatch(a -> a.balance().signum() >= 0));
+        assertTrue(succeeded.get() > 0);
+        for (BankAccountResponseDto account : accounts) {
+            BigDecimal net = jdbcTemplate.queryForObject(
+                "select coalesce(sum(case when type = 'CREDIT' then amount else -amount end), 0) from transactions where account_id = ?",
+                BigDecimal.class, account.id());
+            assertEquals(0, INITIAL_BALANCE.add(net).compareTo(account.balance()), "журнал не совпадает с балансом счёта");
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package ru.globus.service.impl;
+
+import org.junit.jupiter.api.Test;
+import ru.globus.exception.ValidationException;
+import ru.globus.model.enums.CurrencyCode;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CrossRateMatrixTest {
+
+    private final LocalDate today = LocalDate.of(2025, 3, 10);
+
+    @Test
+    void get_ShouldMatchDirectDivision_ForAllPairs() {
+        var random = new Random(42);
+        var rates = new EnumMap<CurrencyCode, BigDecimal>(CurrencyCode.class);
+        for (CurrencyCode code : CurrencyCode.values()) {
+            rates.put(code, BigDecimal.valueOf(random.nextInt(1, 20_000_000), 4));
+        }
+
+        var matrix = CrossRateMatrix.of(today, today, rates);
+
+        for (CurrencyCode from : CurrencyCode.values()) {
+            for (CurrencyCode to : CurrencyCode.values()) {
+                var expected = from == to ? BigDecimal.ONE : rates.get(from).divide(rates.get(to), 6, RoundingMode.HALF_UP);
+                assertEquals(expected, matrix.get(from, to), from + "/" + to);
+            }
+        }
+    }
+
+    @Test
+    void get_ShouldThrowValidationException_NamingMissingCurrency() {
+        var matrix = CrossRateMatrix.of(today, today.minusDays(10), Map.of(CurrencyCode.RUB, BigDecimal.ONE));
+
+        var e = assertThrows(ValidationException.class, () -> matrix.get(CurrencyCode.RUB, CurrencyCode.USD));
+        assertEquals("Курс для валюты " + CurrencyCode.USD + " не найден за период с 2025-02-28 по 2025-03-10", e.getMessage());
+    }
+}
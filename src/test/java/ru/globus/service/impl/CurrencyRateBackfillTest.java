@@ -0,0 +1,155 @@
+package ru.globus.service.impl;
+
+import com.sun.net.httpserver.HttpServer;
+import feign.Feign;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cloud.openfeign.support.SpringMvcContract;
+import org.springframework.context.ApplicationContext;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.globus.config.CurrencyRateProperties;
+import ru.globus.feign.BankClient;
+import ru.globus.model.entity.CurrencyRate;
+import ru.globus.model.enums.CurrencyCode;
+import ru.globus.repository.CurrencyRateJdbcRepository;
+import ru.globus.repository.CurrencyRateJdbcRepository.UpsertResult;
+
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+/**
+ * Загрузка истории курсов через настоящий Feign-клиент против локального сервера,
+ * отдающего записанные ответы ЦБР из {@code src/test/resources/cbr}.
+ */
+@ExtendWith(MockitoExtension.class)
+class CurrencyRateBackfillTest {
+
+    @Mock
+    private CurrencyRateJdbcRepository currencyRateJdbcRepository;
+
+    @Mock
+    private CurrencyRateTable currencyRateTable;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private ApplicationContext applicationContext;
+
+    private final CurrencyRateProperties currencyRateProperties = new CurrencyRateProperties();
+    private final List<String> requests = Collections.synchronizedList(new ArrayList<>());
+    private final LocalDate first = LocalDate.of(2014, 3, 3);
+    private final LocalDate last = LocalDate.of(2014, 3, 5);
+
+    private HttpServer server;
+    private CurrencyRateBackfill backfill;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", exchange -> {
+            String date = exchange.getRequestURI().getQuery().replace("date_req=", "");
+            requests.add(date);
+            String[] parts = date.split("/");
+            try (InputStream body = getClass().getResourceAsStream(
+                "/cbr/XML_daily_%s-%s-%s.xml".formatted(parts[2], parts[1], parts[0]))) {
+                if (body == null) {
+                    exchange.sendResponseHeaders(500, -1);
+                    return;
+                }
+                byte[] xml = body.readAllBytes();
+                exchange.getResponseHeaders().add("Content-Type", "application/xml; charset=windows-1251");
+                exchange.sendResponseHeaders(200, xml.length);
+                exchange.getResponseBody().write(xml);
+            } finally {
+                exchange.close();
+            }
+        });
+        server.start();
+
+        BankClient bankClient = Feign.builder()
+            .contract(new SpringMvcContract())
+            .target(BankClient.class, "http://localhost:" + server.getAddress().getPort());
+        currencyRateProperties.getBackfill().setThreads(2);
+        currencyRateProperties.getBackfill().setBatchDays(2);
+        lenient().when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+            invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(new SimpleTransactionStatus()));
+        lenient().when(currencyRateJdbcRepository.upsert(any(), anyInt()))
+            .thenAnswer(invocation -> new UpsertResult(invocation.<List<?>>getArgument(0).size(), 0));
+        backfill = new CurrencyRateBackfill(bankClient, currencyRateJdbcRepository, currencyRateTable,
+            currencyRateProperties, transactionTemplate, applicationContext);
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    void backfill_ShouldSaveEveryDayInBatches_WithCheckpoints() {
+        when(currencyRateJdbcRepository.findBackfillCheckpoint(first, last)).thenReturn(Optional.empty());
+
+        int saved = backfill.backfill(first, last);
+
+        assertEquals(12, saved);
+        assertEquals(List.of("03/03/2014", "04/03/2014", "05/03/2014"), requests.stream().sorted().toList());
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<CurrencyRate>> batches = ArgumentCaptor.forClass(List.class);
+        verify(currencyRateJdbcRepository, times(2)).upsert(batches.capture(), eq(5_000));
+        assertEquals(8, batches.getAllValues().get(0).size());
+        assertEquals(4, batches.getAllValues().get(1).size());
+
+        var usd = batches.getAllValues().get(0).stream()
+            .filter(rate -> rate.getCurrencyCode() == CurrencyCode.USD && rate.getRateDate().equals(first))
+            .findFirst().orElseThrow();
+        assertEquals(new BigDecimal("36.0501"), usd.getRate());
+        assertTrue(batches.getAllValues().get(1).stream().anyMatch(rate -> rate.getCurrencyCode() == CurrencyCode.RUB));
+
+        var inOrder = inOrder(currencyRateJdbcRepository, currencyRateTable);
+        inOrder.verify(currencyRateJdbcRepository).saveBackfillCheckpoint(first, last, first.plusDays(1));
+        inOrder.verify(currencyRateJdbcRepository).notifyRatesChanged(first, first.plusDays(1));
+        inOrder.verify(currencyRateTable).reload(first, first.plusDays(1));
+        inOrder.verify(currencyRateJdbcRepository).saveBackfillCheckpoint(first, last, last);
+        inOrder.verify(currencyRateJdbcRepository).notifyRatesChanged(last, last);
+        inOrder.verify(currencyRateTable).reload(last, last);
+    }
+
+    @Test
+    void backfill_ShouldResumeAfterCheckpoint() {
+        when(currencyRateJdbcRepository.findBackfillCheckpoint(first, last)).thenReturn(Optional.of(first.plusDays(1)));
+
+        backfill.backfill(first, last);
+
+        assertEquals(List.of("05/03/2014"), requests);
+        verify(currencyRateJdbcRepository).saveBackfillCheckpoint(first, last, last);
+    }
+
+    @Test
+    void backfill_ShouldKeepLastCheckpoint_WhenDayCannotBeFetched() {
+        LocalDate missing = last.plusDays(1);
+        when(currencyRateJdbcRepository.findBackfillCheckpoint(first, missing)).thenReturn(Optional.empty());
+
+        assertThrows(IllegalStateException.class, () -> backfill.backfill(first, missing));
+
+        verify(currencyRateJdbcRepository).saveBackfillCheckpoint(first, missing, first.plusDays(1));
+        verify(currencyRateJdbcRepository, never()).saveBackfillCheckpoint(first, missing, missing);
+    }
+}
@@ -0,0 +1,50 @@
+package ru.globus.service.impl;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import ru.globus.config.CurrencyRateProperties;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CurrencyRateListenerTest {
+
+    @Mock
+    private CurrencyRateTable currencyRateTable;
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private CurrencyRateListener listener;
+
+    @BeforeEach
+    void setUp() {
+        listener = new CurrencyRateListener(currencyRateTable, new CurrencyRateProperties(),
+            new DataSourceProperties(), meterRegistry);
+    }
+
+    @Test
+    void handle_ShouldReloadChangedRange() {
+        listener.handle("2014-03-01,2014-03-07");
+
+        verify(currencyRateTable).reload(LocalDate.of(2014, 3, 1), LocalDate.of(2014, 3, 7));
+        verifyNoMoreInteractions(currencyRateTable);
+        assertEquals(1, meterRegistry.counter("currency.rate.listener.notifications").count());
+    }
+
+    @Test
+    void handle_ShouldReloadAll_WhenPayloadIsMalformed() {
+        listener.handle("garbage");
+
+        verify(currencyRateTable).reloadAll();
+        verify(currencyRateTable, never()).reload(any(), any());
+    }
+}
@@ -0,0 +1,92 @@
+package ru.globus.service.impl;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.globus.config.CurrencyRateProperties;
+import ru.globus.exception.LockLostException;
+import ru.globus.model.enums.CurrencyCode;
+import ru.globus.repository.CurrencyRateJdbcRepository;
+import ru.globus.repository.CurrencyRateJdbcRepository.UpsertResult;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CurrencyRateServiceImplTest {
+
+    @Mock
+    private CurrencyRateJdbcRepository currencyRateJdbcRepository;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Spy
+    private CurrencyRateProperties currencyRateProperties = new CurrencyRateProperties();
+
+    @Mock
+    private CurrencyRateTable currencyRateTable;
+
+    @InjectMocks
+    private CurrencyRateServiceImpl currencyRateService;
+
+    private final LocalDate today = LocalDate.now();
+
+    @Test
+    void getConversionRate_ShouldReadCrossRateMatrix() {
+        when(currencyRateTable.crossRates(today)).thenReturn(CrossRateMatrix.of(today, today.minusDays(10),
+            Map.of(CurrencyCode.USD, new BigDecimal("80.0000"), CurrencyCode.EUR, new BigDecimal("90.0000"))));
+
+        var rate = currencyRateService.getConversionRate(CurrencyCode.USD, CurrencyCode.EUR, today);
+
+        assertEquals(new BigDecimal("0.888889"), rate);
+        verifyNoInteractions(currencyRateJdbcRepository);
+    }
+
+    @Test
+    void getConversionRate_ShouldReturnOne_ForSameCurrency() {
+        assertEquals(BigDecimal.ONE, currencyRateService.getConversionRate(CurrencyCode.USD, CurrencyCode.USD, today));
+        verifyNoInteractions(currencyRateTable);
+    }
+
+    @Test
+    void saveRates_ShouldUpsertAllRatesInOneTransaction_AndReloadRateTable() {
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+            invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(new SimpleTransactionStatus()));
+        when(currencyRateJdbcRepository.upsert(any(), anyInt())).thenReturn(new UpsertResult(1, 0));
+
+        currencyRateService.saveRates(Map.of(CurrencyCode.USD, BigDecimal.TEN, CurrencyCode.RUB, BigDecimal.ONE), today);
+
+        var inOrder = inOrder(transactionTemplate, currencyRateJdbcRepository, currencyRateTable);
+        inOrder.verify(transactionTemplate).execute(any());
+        inOrder.verify(currencyRateJdbcRepository).upsert(argThat(rows -> rows.size() == 2
+            && rows.stream().allMatch(row -> row.getRateDate().equals(today))), eq(5_000));
+        inOrder.verify(currencyRateJdbcRepository).notifyRatesChanged(today, today);
+        inOrder.verify(currencyRateTable).reload(today);
+    }
+
+    @Test
+    void saveRates_ShouldNotWriteRates_WhenFenceFails() {
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+            invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(new SimpleTransactionStatus()));
+
+        assertThrows(LockLostException.class, () -> currencyRateService.saveRates(Map.of(CurrencyCode.RUB, BigDecimal.ONE), today,
+            () -> { throw new LockLostException("lost"); }));
+
+        verifyNoInteractions(currencyRateJdbcRepository, currencyRateTable);
+    }
+}
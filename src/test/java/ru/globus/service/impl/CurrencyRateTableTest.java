@@ -0,0 +1,105 @@
+package ru.globus.service.impl;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.globus.config.CurrencyRateProperties;
+import ru.globus.exception.ValidationException;
+import ru.globus.model.entity.CurrencyRate;
+import ru.globus.model.enums.CurrencyCode;
+import ru.globus.repository.CurrencyRateRepository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CurrencyRateTableTest {
+
+    @Mock
+    private CurrencyRateRepository currencyRateRepository;
+
+    private final CurrencyRateProperties currencyRateProperties = new CurrencyRateProperties();
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final LocalDate today = LocalDate.now();
+
+    private CurrencyRateTable table;
+
+    @BeforeEach
+    void setUp() {
+        table = new CurrencyRateTable(currencyRateRepository, currencyRateProperties, meterRegistry);
+    }
+
+    @Test
+    void crossRates_ShouldUseLatestRatesWithinStalenessWindow() {
+        when(currencyRateRepository.findLatestAsOf(any(), eq(today), eq(today.minusDays(10)))).thenReturn(List.of(
+            rate(CurrencyCode.USD, "80.5", today.minusDays(3)),
+            rate(CurrencyCode.RUB, "1", today),
+            rate(CurrencyCode.EUR, "90", today.minusDays(1))
+        ));
+        table.load();
+
+        assertEquals(new BigDecimal("80.500000"), table.crossRates(today).get(CurrencyCode.USD, CurrencyCode.RUB));
+        assertEquals(new BigDecimal("0.894444"), table.crossRates(today).get(CurrencyCode.USD, CurrencyCode.EUR));
+
+        verify(currencyRateRepository, times(1)).findLatestAsOf(any(), any(), any());
+        assertEquals(0, meterRegistry.counter("currency.rate.table.requests", "result", "miss").count());
+        assertEquals(2, meterRegistry.counter("currency.rate.table.requests", "result", "hit").count());
+    }
+
+    @Test
+    void crossRates_ShouldReadDatabaseOnce_WhenDateIsNotCached() {
+        LocalDate date = today.minusDays(30);
+        when(currencyRateRepository.findLatestAsOf(any(), eq(date), any()))
+            .thenReturn(List.of(rate(CurrencyCode.USD, "70", date), rate(CurrencyCode.RUB, "1", date)));
+
+        assertEquals(new BigDecimal("70.000000"), table.crossRates(date).get(CurrencyCode.USD, CurrencyCode.RUB));
+        assertEquals(new BigDecimal("70.000000"), table.crossRates(date).get(CurrencyCode.USD, CurrencyCode.RUB));
+
+        verify(currencyRateRepository, times(1)).findLatestAsOf(any(), eq(date), any());
+        assertEquals(1, meterRegistry.counter("currency.rate.table.requests", "result", "miss").count());
+    }
+
+    @Test
+    void reload_ShouldRebuildCachedDatesDependingOnNewRates() {
+        when(currencyRateRepository.findLatestAsOf(any(), any(), any()))
+            .thenReturn(List.of(rate(CurrencyCode.RUB, "1", today)));
+        LocalDate monday = today.minusDays(2);
+        assertThrows(ValidationException.class, () -> table.crossRates(today).get(CurrencyCode.USD, CurrencyCode.RUB));
+
+        when(currencyRateRepository.findLatestAsOf(any(), any(), any()))
+            .thenReturn(List.of(rate(CurrencyCode.RUB, "1", monday), rate(CurrencyCode.USD, "81", monday)));
+        table.reload(monday);
+
+        assertEquals(new BigDecimal("81.000000"), table.crossRates(monday).get(CurrencyCode.USD, CurrencyCode.RUB));
+        assertEquals(new BigDecimal("81.000000"), table.crossRates(today).get(CurrencyCode.USD, CurrencyCode.RUB));
+    }
+
+    @Test
+    void crossRates_ShouldKeepOnlyLatestDates() {
+        currencyRateProperties.setTableDays(2);
+        when(currencyRateRepository.findLatestAsOf(any(), any(), any())).thenReturn(List.of());
+
+        table.crossRates(today.minusDays(2));
+        table.crossRates(today.minusDays(1));
+        table.crossRates(today);
+        table.crossRates(today.minusDays(1));
+        table.crossRates(today.minusDays(2));
+
+        verify(currencyRateRepository, times(2)).findLatestAsOf(any(), eq(today.minusDays(2)), any());
+        verify(currencyRateRepository, times(1)).findLatestAsOf(any(), eq(today.minusDays(1)), any());
+    }
+
+    private CurrencyRate rate(CurrencyCode code, String value, LocalDate date) {
+        return CurrencyRate.builder().currencyCode(code).rate(new BigDecimal(value)).rateDate(date).build();
+    }
+}
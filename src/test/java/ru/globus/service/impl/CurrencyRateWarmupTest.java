@@ -0,0 +1,111 @@
+package ru.globus.service.impl;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.actuate.health.Status;
+import ru.globus.config.CurrencyRateProperties;
+import ru.globus.model.enums.CurrencyCode;
+import ru.globus.service.scheduler.CurrencyRateUpdater;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CurrencyRateWarmupTest {
+
+    @Mock
+    private CurrencyRateTable currencyRateTable;
+
+    @Mock
+    private ObjectProvider<CurrencyRateUpdater> updaterProvider;
+
+    @Mock
+    private CurrencyRateUpdater currencyRateUpdater;
+
+    private final CurrencyRateProperties currencyRateProperties = new CurrencyRateProperties();
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final LocalDate today = LocalDate.now();
+    private final List<Status> statusDuringFetch = new ArrayList<>();
+
+    private CurrencyRateWarmup warmup;
+
+    @BeforeEach
+    void setUp() {
+        currencyRateProperties.setWarmupRetryInterval(Duration.ofMillis(1));
+        warmup = new CurrencyRateWarmup(currencyRateTable, updaterProvider, currencyRateProperties, meterRegistry);
+        when(updaterProvider.getIfAvailable()).thenReturn(currencyRateUpdater);
+        doAnswer(invocation -> statusDuringFetch.add(warmup.health().getStatus())).when(currencyRateUpdater).updateRates();
+    }
+
+    @Test
+    void warmUp_ShouldBeReadyBeforeFetch_WhenDatabaseHasRates() {
+        when(currencyRateTable.load()).thenReturn(matrix(Map.of(CurrencyCode.RUB, BigDecimal.ONE)));
+        assertEquals(Status.OUT_OF_SERVICE, warmup.health().getStatus());
+
+        warmup.warmUp();
+
+        assertEquals(List.of(Status.UP), statusDuringFetch);
+        assertEquals(Status.UP, warmup.health().getStatus());
+        assertEquals(1, meterRegistry.timer("currency.rate.warmup", "stage", "table").count());
+        assertEquals(1, meterRegistry.timer("currency.rate.warmup", "stage", "fetch").count());
+        assertTrue(meterRegistry.get("currency.rate.ready.time").timeGauge().value() > 0);
+    }
+
+    @Test
+    void warmUp_ShouldWaitForFetch_WhenDatabaseHasNoRates() {
+        when(currencyRateTable.load())
+            .thenReturn(matrix(Map.of()))
+            .thenReturn(matrix(Map.of(CurrencyCode.RUB, BigDecimal.ONE)));
+
+        warmup.warmUp();
+
+        assertEquals(List.of(Status.OUT_OF_SERVICE), statusDuringFetch);
+        assertEquals(Status.UP, warmup.health().getStatus());
+    }
+
+    @Test
+    void warmUp_ShouldStayOutOfService_UntilRatesAppearAfterFetch() {
+        when(currencyRateTable.load())
+            .thenReturn(matrix(Map.of()))
+            .thenReturn(matrix(Map.of()))
+            .thenReturn(matrix(Map.of()))
+            .thenReturn(matrix(Map.of(CurrencyCode.RUB, BigDecimal.ONE)));
+
+        warmup.warmUp();
+
+        assertEquals(List.of(Status.OUT_OF_SERVICE, Status.OUT_OF_SERVICE, Status.OUT_OF_SERVICE), statusDuringFetch);
+        verify(currencyRateTable, times(4)).load();
+        assertEquals(Status.UP, warmup.health().getStatus());
+    }
+
+    @Test
+    void warmUp_ShouldRetryDatabaseLoad_UntilItSucceeds() {
+        when(currencyRateTable.load())
+            .thenThrow(new IllegalStateException("connection refused"))
+            .thenThrow(new IllegalStateException("connection refused"))
+            .thenReturn(matrix(Map.of(CurrencyCode.RUB, BigDecimal.ONE)));
+
+        warmup.warmUp();
+
+        verify(currencyRateTable, times(3)).load();
+        verify(currencyRateUpdater).updateRates();
+        assertEquals(Status.UP, warmup.health().getStatus());
+    }
+
+    private CrossRateMatrix matrix(Map<CurrencyCode, BigDecimal> rates) {
+        return CrossRateMatrix.of(today, today.minusDays(10), rates);
+    }
+}
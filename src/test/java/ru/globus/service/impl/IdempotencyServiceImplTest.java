@@ -0,0 +1,223 @@
+package ru.globus.service.impl;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.QueryTimeoutException;
+import ru.globus.config.IdempotencyProperties;
+import ru.globus.dto.TransferRequestDto;
+import ru.globus.dto.TransferResultDto;
+import ru.globus.exception.IdempotencyKeyConflictException;
+import ru.globus.exception.TransferTimeoutException;
+import ru.globus.model.entity.IdempotencyKey;
+import ru.globus.model.enums.TransferStatus;
+import ru.globus.repository.IdempotencyKeyRepository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class IdempotencyServiceImplTest {
+
+    private static final TypeReference<List<TransferResultDto>> RESULTS = new TypeReference<>() {};
+
+    @Mock
+    private IdempotencyKeyRepository idempotencyKeyRepository;
+
+    @Spy
+    private IdempotencyProperties idempotencyProperties = new IdempotencyProperties();
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @InjectMocks
+    private IdempotencyServiceImpl idempotencyService;
+
+    private final TransferRequestDto request = new TransferRequestDto(UUID.randomUUID(), UUID.randomUUID(), BigDecimal.TEN);
+    private final List<TransferResultDto> results = List.of(new TransferResultDto(0, TransferStatus.OK));
+
+    @Test
+    void execute_ShouldRunActionWithoutStore_WhenKeyMissing() {
+        var result = idempotencyService.execute(null, "transfer-batch", request, RESULTS, () -> results);
+
+        assertEquals(results, result);
+        verifyNoInteractions(idempotencyKeyRepository);
+    }
+
+    @Test
+    void execute_ShouldAnswerRepeatFromCache_WithoutRunningActionAgain() {
+        when(idempotencyKeyRepository.tryReserve(eq("key"), anyString(), any(), any(), any())).thenReturn(1);
+        var calls = new AtomicInteger();
+
+        var first = idempotencyService.execute("key", "transfer-batch", request, RESULTS, () -> {
+            calls.incrementAndGet();
+            return results;
+        });
+        var second = idempotencyService.execute("key", "transfer-batch", request, RESULTS, () -> {
+            calls.incrementAndGet();
+            return results;
+        });
+
+        assertEquals(results, first);
+        assertEquals(results, second);
+        assertEquals(1, calls.get());
+        verify(idempotencyKeyRepository).complete(eq("key"), any(), eq("[{\"index\":0,\"status\":\"OK\"}]"));
+        verify(idempotencyKeyRepository, times(1)).tryReserve(any(), any(), any(), any(), any());
+        verify(idempotencyKeyRepository, never()).findById(any());
+    }
+
+    @Test
+    void execute_ShouldReplayStoredResponse_WhenKeyCompletedElsewhere() {
+        String requestHash = idempotencyService.hash("transfer-batch", request);
+        when(idempotencyKeyRepository.tryReserve(eq("key"), anyString(), any(), any(), any())).thenReturn(0);
+        when(idempotencyKeyRepository.findById("key")).thenReturn(Optional.of(new IdempotencyKey(
+            "key",
+            requestHash,
+            "[{\"index\":0,\"status\":\"INACTIVE\"}]",
+            LocalDateTime.now(),
+            LocalDateTime.now().plusHours(1),
+            null
+        )));
+
+        var result = idempotencyService.execute("key", "transfer-batch", request, RESULTS, () -> fail("повтор не должен выполняться"));
+
+        assertEquals(List.of(new TransferResultDto(0, TransferStatus.INACTIVE)), result);
+        assertEquals(1, meterRegistry.counter("idempotency.replays", "source", "database").count());
+    }
+
+    @Test
+    void execute_ShouldThrowConflict_WhenRequestStillInProgress() {
+        when(idempotencyKeyRepository.tryReserve(eq("key"), anyString(), any(), any(), any())).thenReturn(0);
+        when(idempotencyKeyRepository.findById("key")).thenReturn(Optional.of(new IdempotencyKey(
+            "key", "hash", null, LocalDateTime.now(), LocalDateTime.now().plusHours(1), LocalDateTime.now().plusMinutes(5))));
+
+        assertThrows(IdempotencyKeyConflictException.class,
+            () -> idempotencyService.execute("key", "transfer", request, RESULTS, () -> results));
+    }
+
+    @Test
+    void execute_ShouldThrowConflict_WhenKeyReusedForDifferentRequest() {
+        when(idempotencyKeyRepository.tryReserve(eq("key"), anyString(), any(), any(), any())).thenReturn(1);
+        idempotencyService.execute("key", "transfer", request, RESULTS, () -> results);
+        var other = new TransferRequestDto(request.fromAccountId(), request.toAccountId(), BigDecimal.ONE);
+
+        assertThrows(IdempotencyKeyConflictException.class,
+            () -> idempotencyService.execute("key", "transfer", other, RESULTS, () -> results));
+    }
+
+    @Test
+    void execute_ShouldReleaseKey_WhenActionFails() {
+        when(idempotencyKeyRepository.tryReserve(eq("key"), anyString(), any(), any(), any())).thenReturn(1);
+
+        assertThrows(IllegalArgumentException.class, () -> idempotencyService.execute("key", "transfer", request, RESULTS,
+            () -> { throw new IllegalArgumentException("Недостаточно средств на счёте отправителя"); }));
+
+        verify(idempotencyKeyRepository).release(eq("key"), any());
+        verify(idempotencyKeyRepository, never()).complete(any(), any(), any());
+    }
+
+    @Test
+    void execute_ShouldKeepReservation_WhenTransferTimedOut() {
+        when(idempotencyKeyRepository.tryReserve(eq("key"), anyString(), any(), any(), any())).thenReturn(1, 0);
+        var calls = new AtomicInteger();
+
+        assertThrows(TransferTimeoutException.class, () -> idempotencyService.execute("key", "transfer", request, RESULTS, () -> {
+            calls.incrementAndGet();
+            throw new TransferTimeoutException("Перевод не завершился за 5000 мс");
+        }));
+        when(idempotencyKeyRepository.findById("key")).thenReturn(Optional.of(new IdempotencyKey(
+            "key", "hash", null, LocalDateTime.now(), LocalDateTime.now().plusHours(1), LocalDateTime.now().plusMinutes(5))));
+        assertThrows(IdempotencyKeyConflictException.class, () -> idempotencyService.execute("key", "transfer", request, RESULTS, () -> {
+            calls.incrementAndGet();
+            return results;
+        }));
+
+        assertEquals(1, calls.get());
+        verify(idempotencyKeyRepository, never()).release(any(), any());
+    }
+
+    @Test
+    void execute_ShouldKeepReservation_WhenFailedWithUnknownOutcome() {
+        when(idempotencyKeyRepository.tryReserve(eq("key"), anyString(), any(), any(), any())).thenReturn(1);
+
+        assertThrows(DataAccessResourceFailureException.class, () -> idempotencyService.execute("key", "transfer", request, RESULTS,
+            () -> { throw new DataAccessResourceFailureException("connection lost during commit"); }));
+
+        verify(idempotencyKeyRepository, never()).release(any(), any());
+    }
+
+    @Test
+    void execute_ShouldReserveWithLease_AndCompleteSameReservation() {
+        when(idempotencyKeyRepository.tryReserve(eq("key"), anyString(), any(), any(), any())).thenReturn(1);
+
+        idempotencyService.execute("key", "transfer", request, RESULTS, () -> results);
+
+        var createdAt = ArgumentCaptor.forClass(LocalDateTime.class);
+        var reservedUntil = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(idempotencyKeyRepository).tryReserve(eq("key"), anyString(), createdAt.capture(), any(), reservedUntil.capture());
+        assertEquals(createdAt.getValue().plus(idempotencyProperties.getReservationTimeout()), reservedUntil.getValue());
+        verify(idempotencyKeyRepository).complete(eq("key"), eq(createdAt.getValue()), anyString());
+    }
+
+    @Test
+    void execute_ShouldReturnResult_WhenResponseCannotBeStored() {
+        when(idempotencyKeyRepository.tryReserve(eq("key"), anyString(), any(), any(), any())).thenReturn(1);
+        when(idempotencyKeyRepository.complete(eq("key"), any(), anyString()))
+            .thenThrow(new QueryTimeoutException("Нет ответа от базы данных"));
+
+        var result = idempotencyService.execute("key", "transfer-batch", request, RESULTS, () -> results);
+
+        assertEquals(results, result);
+        verify(idempotencyKeyRepository, never()).release(any(), any());
+    }
+
+    @Test
+    void execute_ShouldThrowConflict_InsteadOfReplayingExpiredResponse() {
+        String requestHash = idempotencyService.hash("transfer-batch", request);
+        when(idempotencyKeyRepository.tryReserve(eq("key"), anyString(), any(), any(), any())).thenReturn(0);
+        when(idempotencyKeyRepository.findById("key")).thenReturn(Optional.of(new IdempotencyKey(
+            "key",
+            requestHash,
+            "[{\"index\":0,\"status\":\"INACTIVE\"}]",
+            LocalDateTime.now().minusDays(2),
+            LocalDateTime.now().minusDays(1),
+            null
+        )));
+
+        assertThrows(IdempotencyKeyConflictException.class,
+            () -> idempotencyService.execute("key", "transfer-batch", request, RESULTS, () -> results));
+    }
+
+    @Test
+    void cleanupExpired_ShouldDeleteInBatches_UntilBatchIsNotFull() {
+        idempotencyProperties.setCleanupBatchSize(2);
+        when(idempotencyKeyRepository.deleteExpired(any(), anyInt())).thenReturn(2, 2, 1);
+
+        idempotencyService.cleanupExpired();
+
+        verify(idempotencyKeyRepository, times(3)).deleteExpired(any(), eq(2));
+    }
+}
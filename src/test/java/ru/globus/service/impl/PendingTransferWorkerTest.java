@@ -0,0 +1,170 @@
+package ru.globus.service.impl;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.globus.config.TransferProperties;
+import ru.globus.dto.TransferRequestDto;
+import ru.globus.model.enums.TransferStatus;
+import ru.globus.repository.PendingTransferJdbcRepository;
+import ru.globus.repository.PendingTransferJdbcRepository.ClaimedTransfer;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PendingTransferWorkerTest {
+
+    @Mock
+    private PendingTransferJdbcRepository pendingTransferJdbcRepository;
+
+    @Mock
+    private TransferBatchProcessor transferBatchProcessor;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private final TransferProperties transferProperties = new TransferProperties();
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private PendingTransferWorker worker;
+
+    @BeforeEach
+    void setUp() {
+        transferProperties.getAsync().setPollInterval(Duration.ZERO);
+        lenient().when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+            invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(new SimpleTransactionStatus()));
+        lenient().doAnswer(invocation -> {
+            invocation.<Consumer<TransactionStatus>>getArgument(0).accept(new SimpleTransactionStatus());
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+        worker = new PendingTransferWorker(transferProperties, pendingTransferJdbcRepository,
+            transferBatchProcessor, transactionTemplate, meterRegistry);
+    }
+
+    @Test
+    void drain_ShouldProcessClaimedBatch_AndStoreStatuses() throws Exception {
+        var first = claimed();
+        var second = claimed();
+        when(pendingTransferJdbcRepository.claim(100)).thenReturn(List.of(first, second));
+        when(transferBatchProcessor.process(eq(List.of(first.transfer(), second.transfer())), any()))
+            .thenReturn(List.of(TransferStatus.OK, TransferStatus.INSUFFICIENT_FUNDS));
+
+        assertEquals(2, worker.drain());
+
+        verify(pendingTransferJdbcRepository).complete(List.of(first.id(), second.id()),
+            List.of(TransferStatus.OK, TransferStatus.INSUFFICIENT_FUNDS));
+        assertEquals(1, meterRegistry.counter("transfer.async.processed", "status", "OK").count());
+    }
+
+    @Test
+    void drain_ShouldReturnZero_WhenQueueIsEmpty() throws Exception {
+        when(pendingTransferJdbcRepository.claim(anyInt())).thenReturn(List.of());
+
+        assertEquals(0, worker.drain());
+
+        verifyNoInteractions(transferBatchProcessor);
+        verify(pendingTransferJdbcRepository, never()).complete(any(), any());
+    }
+
+    @Test
+    void drain_ShouldCountFailedAttempt_WhenBatchFails() throws Exception {
+        var transfer = claimed();
+        when(pendingTransferJdbcRepository.claim(anyInt())).thenReturn(List.of(transfer));
+        when(transferBatchProcessor.process(any(), any())).thenThrow(new CannotAcquireLockException("lock timeout"));
+
+        assertEquals(1, worker.drain());
+
+        verify(pendingTransferJdbcRepository).fail(List.of(transfer.id()), 5);
+        verify(pendingTransferJdbcRepository, never()).complete(any(), any());
+    }
+
+    @Test
+    void drain_ShouldRetryEachTransferAlone_WhenBatchFails() throws Exception {
+        var good = claimed();
+        var bad = claimed();
+        when(pendingTransferJdbcRepository.claim(anyInt())).thenReturn(List.of(good, bad));
+        when(pendingTransferJdbcRepository.claim(good.id())).thenReturn(Optional.of(good));
+        when(pendingTransferJdbcRepository.claim(bad.id())).thenReturn(Optional.of(bad));
+        when(transferBatchProcessor.process(any(), any())).thenAnswer(invocation -> {
+            List<TransferRequestDto> transfers = invocation.getArgument(0);
+            if (transfers.contains(bad.transfer())) {
+                throw new CannotAcquireLockException("lock timeout");
+            }
+            return List.of(TransferStatus.OK);
+        });
+
+        assertEquals(2, worker.drain());
+
+        verify(pendingTransferJdbcRepository).complete(List.of(good.id()), List.of(TransferStatus.OK));
+        verify(pendingTransferJdbcRepository).fail(List.of(bad.id()), 5);
+        verify(pendingTransferJdbcRepository, never()).fail(eq(List.of(good.id())), anyInt());
+        assertEquals(1, meterRegistry.counter("transfer.async.fallbacks").count());
+    }
+
+    @Test
+    void drain_ShouldSkipTransfer_WhenAnotherWorkerAlreadyClaimedIt() throws Exception {
+        var first = claimed();
+        var second = claimed();
+        when(pendingTransferJdbcRepository.claim(anyInt())).thenReturn(List.of(first, second));
+        when(pendingTransferJdbcRepository.claim(any(UUID.class))).thenReturn(Optional.empty());
+        when(transferBatchProcessor.process(any(), any())).thenThrow(new CannotAcquireLockException("lock timeout"));
+
+        assertEquals(2, worker.drain());
+
+        verify(transferBatchProcessor, times(1)).process(any(), any());
+        verify(pendingTransferJdbcRepository, never()).fail(any(), anyInt());
+    }
+
+    @Test
+    void run_ShouldBackOff_WhenClaimFails() throws Exception {
+        transferProperties.getAsync().setEnabled(true);
+        transferProperties.getAsync().setWorkers(1);
+        transferProperties.getAsync().setPollInterval(Duration.ofMillis(20));
+        when(pendingTransferJdbcRepository.claim(anyInt())).thenThrow(new CannotAcquireLockException("lock timeout"));
+
+        worker.start();
+        Thread.sleep(300);
+        worker.stop();
+
+        // 20 + 40 + 80 + 160 мс: за 300 мс не больше пяти попыток вместо непрерывного цикла
+        verify(pendingTransferJdbcRepository, atMost(5)).claim(anyInt());
+        verify(pendingTransferJdbcRepository, atLeast(2)).claim(anyInt());
+    }
+
+    @Test
+    void backoff_ShouldDoublePollInterval_UpToMaxBackoff() {
+        transferProperties.getAsync().setPollInterval(Duration.ofMillis(200));
+        transferProperties.getAsync().setMaxBackoff(Duration.ofSeconds(1));
+
+        assertEquals(200, worker.backoff(1));
+        assertEquals(400, worker.backoff(2));
+        assertEquals(800, worker.backoff(3));
+        assertEquals(1000, worker.backoff(4));
+        assertEquals(1000, worker.backoff(100));
+    }
+
+    private ClaimedTransfer claimed() {
+        return new ClaimedTransfer(UUID.randomUUID(),
+            new TransferRequestDto(UUID.randomUUID(), UUID.randomUUID(), BigDecimal.ONE));
+    }
+}
@@ -0,0 +1,56 @@
+package ru.globus.service.impl;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.globus.exception.LockLostException;
+import ru.globus.repository.SchedulerLockJdbcRepository;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.OptionalLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SchedulerLockTest {
+
+    @Mock
+    private SchedulerLockJdbcRepository schedulerLockJdbcRepository;
+
+    @InjectMocks
+    private SchedulerLock schedulerLock;
+
+    @Test
+    void tryAcquire_ShouldReturnLeaseWithFencingToken() {
+        when(schedulerLockJdbcRepository.tryAcquire(eq("job"), anyString(), eq(Duration.ofMinutes(5)))).thenReturn(OptionalLong.of(42));
+
+        assertEquals(Optional.of(new SchedulerLock.Lease("job", 42)), schedulerLock.tryAcquire("job", Duration.ofMinutes(5)));
+    }
+
+    @Test
+    void tryAcquire_ShouldReturnEmpty_WhenHeldByOtherInstance() {
+        when(schedulerLockJdbcRepository.tryAcquire(any(), any(), any())).thenReturn(OptionalLong.empty());
+
+        assertTrue(schedulerLock.tryAcquire("job", Duration.ofMinutes(5)).isEmpty());
+    }
+
+    @Test
+    void checkHeld_ShouldThrowLockLostException_WhenTokenIsStale() {
+        when(schedulerLockJdbcRepository.lockIfHeld("job", 41)).thenReturn(false);
+
+        assertThrows(LockLostException.class, () -> schedulerLock.checkHeld(new SchedulerLock.Lease("job", 41)));
+    }
+
+    @Test
+    void release_ShouldFreeLockRightAway_WhenNoMinimumHoldGiven() {
+        schedulerLock.release(new SchedulerLock.Lease("job", 42));
+
+        verify(schedulerLockJdbcRepository).release("job", 42, Duration.ZERO);
+    }
+}
@@ -0,0 +1,69 @@
+package ru.globus.service.impl;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.globus.config.TransferProperties;
+import ru.globus.model.enums.CurrencyCode;
+import ru.globus.model.enums.TransactionType;
+import ru.globus.repository.TransactionJdbcRepository;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TransactionLedgerTest {
+
+    @Mock
+    private TransactionJdbcRepository transactionJdbcRepository;
+
+    @Spy
+    private TransferProperties transferProperties = new TransferProperties();
+
+    @InjectMocks
+    private TransactionLedger transactionLedger;
+
+    @Test
+    void transfer_ShouldCreateDebitAndCreditOfOneTransfer() {
+        UUID from = UUID.randomUUID();
+        UUID to = UUID.randomUUID();
+
+        var entries = transactionLedger.transfer(from, CurrencyCode.USD, BigDecimal.ONE, to, CurrencyCode.RUB, BigDecimal.valueOf(80));
+
+        assertEquals(2, entries.size());
+        var debit = entries.get(0);
+        var credit = entries.get(1);
+        assertEquals(TransactionType.DEBIT, debit.getType());
+        assertEquals(from, debit.getAccountId());
+        assertEquals(CurrencyCode.USD, debit.getCurrencyCode());
+        assertEquals(BigDecimal.ONE, debit.getAmount());
+        assertEquals(TransactionType.CREDIT, credit.getType());
+        assertEquals(to, credit.getAccountId());
+        assertEquals(CurrencyCode.RUB, credit.getCurrencyCode());
+        assertEquals(BigDecimal.valueOf(80), credit.getAmount());
+        assertEquals(debit.getTransferId(), credit.getTransferId());
+        assertEquals(debit.getCreatedAt(), credit.getCreatedAt());
+        assertNotEquals(debit.getId(), credit.getId());
+    }
+
+    @Test
+    void record_ShouldInsertInBatches_AndSkipEmptyList() {
+        var entries = transactionLedger.transfer(UUID.randomUUID(), CurrencyCode.RUB, BigDecimal.ONE,
+            UUID.randomUUID(), CurrencyCode.RUB, BigDecimal.ONE);
+
+        transactionLedger.record(entries);
+        transactionLedger.record(List.of());
+
+        verify(transactionJdbcRepository).insertAll(entries, 500);
+        verify(transactionJdbcRepository, times(1)).insertAll(any(), anyInt());
+    }
+}
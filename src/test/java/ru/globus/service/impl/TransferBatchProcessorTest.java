@@ -0,0 +1,183 @@
+package ru.globus.service.impl;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.globus.config.TransferProperties;
+import ru.globus.dto.TransferRequestDto;
+import ru.globus.exception.ValidationException;
+import ru.globus.model.entity.Transaction;
+import ru.globus.model.enums.CurrencyCode;
+import ru.globus.model.enums.TransactionType;
+import ru.globus.model.enums.TransferMode;
+import ru.globus.model.enums.TransferStatus;
+import ru.globus.repository.BalanceEventRepository;
+import ru.globus.repository.BalanceEventRepository.AccountBalance;
+import ru.globus.repository.BalanceEventRepository.BalanceEvent;
+import ru.globus.repository.BankAccountJdbcRepository;
+import ru.globus.repository.BankAccountJdbcRepository.LockedAccount;
+import ru.globus.repository.BankAccountRepository;
+import ru.globus.service.CurrencyRateService;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TransferBatchProcessorTest {
+
+    @Mock
+    private BankAccountRepository bankAccountRepository;
+
+    @Mock
+    private BankAccountJdbcRepository bankAccountJdbcRepository;
+
+    @Mock
+    private CurrencyRateService currencyRateService;
+
+    @Spy
+    private TransferProperties transferProperties = new TransferProperties();
+
+    @Mock
+    private TransactionLedger transactionLedger;
+
+    @Mock
+    private BalanceEventRepository balanceEventRepository;
+
+    @InjectMocks
+    private TransferBatchProcessor processor;
+
+    private final UUID userId = UUID.randomUUID();
+    private final UUID rub = new UUID(0, 1);
+    private final UUID usd = new UUID(0, 2);
+    private final UUID empty = new UUID(0, 3);
+    private final UUID foreign = new UUID(0, 4);
+    private final UUID closed = new UUID(0, 5);
+    private final LocalDate today = LocalDate.now();
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(bankAccountJdbcRepository.lockAll(any())).thenReturn(List.of(
+            new LockedAccount(rub, userId, CurrencyCode.RUB, BigDecimal.valueOf(100), true),
+            new LockedAccount(usd, userId, CurrencyCode.USD, BigDecimal.valueOf(10), true),
+            new LockedAccount(empty, userId, CurrencyCode.RUB, BigDecimal.ZERO, true),
+            new LockedAccount(foreign, UUID.randomUUID(), CurrencyCode.RUB, BigDecimal.valueOf(100), true),
+            new LockedAccount(closed, userId, CurrencyCode.RUB, BigDecimal.valueOf(100), false)
+        ));
+    }
+
+    @Test
+    void process_ShouldApplyTransfersSequentially_AndWriteNetBalances() {
+        when(currencyRateService.getConversionRate(CurrencyCode.USD, CurrencyCode.RUB, today)).thenReturn(BigDecimal.valueOf(80));
+        when(currencyRateService.getConversionRate(CurrencyCode.RUB, CurrencyCode.RUB, today)).thenReturn(BigDecimal.ONE);
+        when(transactionLedger.transfer(any(), any(), any(), any(), any(), any()))
+            .thenReturn(List.of(new Transaction(), new Transaction()));
+        var transfers = List.of(
+            new TransferRequestDto(usd, empty, BigDecimal.ONE),
+            new TransferRequestDto(empty, rub, BigDecimal.valueOf(50)),
+            new TransferRequestDto(usd, empty, BigDecimal.ONE)
+        );
+
+        var statuses = processor.process(transfers, processor.rateSnapshot(today));
+
+        assertEquals(List.of(TransferStatus.OK, TransferStatus.OK, TransferStatus.OK), statuses);
+        verify(bankAccountJdbcRepository).lockAll(List.of(rub, usd, empty));
+        verify(currencyRateService, times(1)).getConversionRate(CurrencyCode.USD, CurrencyCode.RUB, today);
+        verify(bankAccountJdbcRepository).updateBalances(Map.of(
+            usd, new BigDecimal("8"),
+            empty, new BigDecimal("110.00"),
+            rub, new BigDecimal("150.00")
+        ), 500);
+        verify(transactionLedger, times(2)).transfer(usd, CurrencyCode.USD, BigDecimal.ONE, empty, CurrencyCode.RUB, new BigDecimal("80.00"));
+        verify(transactionLedger).record(argThat(entries -> entries.size() == 6));
+    }
+
+    @Test
+    void process_ShouldReportEachFailure_WithoutAffectingOtherTransfers() {
+        when(currencyRateService.getConversionRate(CurrencyCode.RUB, CurrencyCode.RUB, today)).thenReturn(BigDecimal.ONE);
+        when(currencyRateService.getConversionRate(CurrencyCode.RUB, CurrencyCode.USD, today))
+            .thenThrow(new ValidationException("Курс не найден"));
+        var transfers = List.of(
+            new TransferRequestDto(rub, rub, BigDecimal.ONE),
+            new TransferRequestDto(rub, UUID.randomUUID(), BigDecimal.ONE),
+            new TransferRequestDto(rub, foreign, BigDecimal.ONE),
+            new TransferRequestDto(rub, closed, BigDecimal.ONE),
+            new TransferRequestDto(empty, rub, BigDecimal.ONE),
+            new TransferRequestDto(rub, usd, BigDecimal.ONE),
+            new TransferRequestDto(rub, empty, BigDecimal.TEN)
+        );
+
+        var statuses = processor.process(transfers, processor.rateSnapshot(today));
+
+        assertEquals(List.of(
+            TransferStatus.SAME_ACCOUNT,
+            TransferStatus.NOT_FOUND,
+            TransferStatus.DIFFERENT_USERS,
+            TransferStatus.INACTIVE,
+            TransferStatus.INSUFFICIENT_FUNDS,
+            TransferStatus.RATE_NOT_FOUND,
+            TransferStatus.OK
+        ), statuses);
+        verify(bankAccountJdbcRepository).updateBalances(Map.of(
+            rub, BigDecimal.valueOf(90),
+            empty, new BigDecimal("10.00")
+        ), 500);
+    }
+
+    @Test
+    void process_ShouldNotWriteBalances_WhenNothingApplied() {
+        var statuses = processor.process(
+            List.of(new TransferRequestDto(empty, rub, BigDecimal.ONE)),
+            processor.rateSnapshot(today)
+        );
+
+        assertEquals(List.of(TransferStatus.INSUFFICIENT_FUNDS), statuses);
+        verify(bankAccountJdbcRepository, never()).updateBalances(any(), anyInt());
+        verify(transactionLedger, never()).record(any());
+    }
+
+    @Test
+    void process_ShouldAppendNumberedEvents_InsteadOfUpdates_WhenEventSourcedMode() {
+        transferProperties.setMode(TransferMode.EVENT_SOURCED);
+        when(balanceEventRepository.load(any())).thenReturn(List.of(
+            new AccountBalance(new LockedAccount(rub, userId, CurrencyCode.RUB, BigDecimal.valueOf(100), true), 4),
+            new AccountBalance(new LockedAccount(empty, userId, CurrencyCode.RUB, BigDecimal.ZERO, true), 0)
+        ));
+        when(currencyRateService.getConversionRate(CurrencyCode.RUB, CurrencyCode.RUB, today)).thenReturn(BigDecimal.ONE);
+        UUID transferId = UUID.randomUUID();
+        LocalDateTime now = LocalDateTime.now();
+        when(transactionLedger.transfer(rub, CurrencyCode.RUB, BigDecimal.TEN, empty, CurrencyCode.RUB, new BigDecimal("10.00")))
+            .thenReturn(List.of(
+                new Transaction(UUID.randomUUID(), transferId, rub, TransactionType.DEBIT, BigDecimal.TEN, CurrencyCode.RUB, now),
+                new Transaction(UUID.randomUUID(), transferId, empty, TransactionType.CREDIT, new BigDecimal("10.00"), CurrencyCode.RUB, now)
+            ));
+
+        var statuses = processor.process(List.of(
+            new TransferRequestDto(rub, empty, BigDecimal.TEN),
+            new TransferRequestDto(empty, rub, BigDecimal.valueOf(50))
+        ), processor.rateSnapshot(today));
+
+        assertEquals(List.of(TransferStatus.OK, TransferStatus.INSUFFICIENT_FUNDS), statuses);
+        verify(balanceEventRepository).lock(Set.of(rub, empty));
+        verify(balanceEventRepository).append(List.of(
+            new BalanceEvent(rub, 5, BigDecimal.TEN.negate(), transferId, now),
+            new BalanceEvent(empty, 1, new BigDecimal("10.00"), transferId, now)
+        ), 500);
+        verify(bankAccountJdbcRepository, never()).lockAll(any());
+        verify(bankAccountJdbcRepository, never()).updateBalances(any(), anyInt());
+    }
+}
@@ -0,0 +1,130 @@
+package ru.globus.service.impl;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.globus.config.TransferProperties;
+import ru.globus.dto.TransferRequestDto;
+import ru.globus.model.enums.TransferMode;
+import ru.globus.model.enums.TransferStatus;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TransferGroupCommitterTest {
+
+    @Mock
+    private TransferBatchProcessor transferBatchProcessor;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private final TransferProperties transferProperties = new TransferProperties();
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private TransferGroupCommitter committer;
+
+    @BeforeEach
+    void setUp() {
+        var settings = transferProperties.getGroupCommit();
+        settings.setEnabled(true);
+        settings.setWorkers(1);
+        lenient().when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+            invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(new SimpleTransactionStatus()));
+        committer = new TransferGroupCommitter(transferProperties, transferBatchProcessor, transactionTemplate, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        committer.stop();
+    }
+
+    @Test
+    void submit_ShouldCommitCollectedTransfersInOneTransaction() throws Exception {
+        transferProperties.getGroupCommit().setMaxWait(Duration.ofSeconds(5));
+        transferProperties.getGroupCommit().setMaxBatchSize(3);
+        answerOk();
+        committer.start();
+
+        var results = List.of(committer.submit(transfer()), committer.submit(transfer()), committer.submit(transfer()));
+
+        for (var result : results) {
+            assertEquals(TransferStatus.OK, result.get(5, TimeUnit.SECONDS));
+        }
+        verify(transactionTemplate).execute(any());
+        assertEquals(3, meterRegistry.summary("transfer.group-commit.batch.size").totalAmount());
+    }
+
+    @Test
+    void submit_ShouldCommitPartialGroup_WhenWaitExpires() throws Exception {
+        transferProperties.getGroupCommit().setMaxWait(Duration.ofMillis(10));
+        answerOk();
+        committer.start();
+
+        assertEquals(TransferStatus.OK, committer.submit(transfer()).get(5, TimeUnit.SECONDS));
+        assertEquals(1, meterRegistry.summary("transfer.group-commit.batch.size").count());
+    }
+
+    @Test
+    void submit_ShouldRetryTransfersOneByOne_WhenGroupFails() throws Exception {
+        transferProperties.getGroupCommit().setMaxWait(Duration.ofSeconds(5));
+        transferProperties.getGroupCommit().setMaxBatchSize(3);
+        var broken = transfer();
+        when(transferBatchProcessor.process(any(), any())).thenAnswer(invocation -> {
+            List<TransferRequestDto> transfers = invocation.getArgument(0);
+            if (transfers.size() > 1 || transfers.contains(broken)) {
+                throw new CannotAcquireLockException("lock timeout");
+            }
+            return List.of(TransferStatus.OK);
+        });
+        committer.start();
+
+        var first = committer.submit(transfer());
+        var failed = committer.submit(broken);
+        var last = committer.submit(transfer());
+
+        assertEquals(TransferStatus.OK, first.get(5, TimeUnit.SECONDS));
+        assertEquals(TransferStatus.OK, last.get(5, TimeUnit.SECONDS));
+        var e = assertThrows(ExecutionException.class, () -> failed.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(CannotAcquireLockException.class, e.getCause());
+        verify(transactionTemplate, times(4)).execute(any());
+        assertEquals(1, meterRegistry.counter("transfer.group-commit.fallbacks").count());
+    }
+
+    @Test
+    void submit_ShouldRunTransfer_InOptimisticMode() throws Exception {
+        transferProperties.setMode(TransferMode.OPTIMISTIC);
+        answerOk();
+        committer.start();
+
+        assertEquals(TransferStatus.OK, committer.submit(transfer()).get(5, TimeUnit.SECONDS));
+    }
+
+    private void answerOk() {
+        when(transferBatchProcessor.process(any(), any())).thenAnswer(invocation ->
+            Collections.nCopies(invocation.<List<?>>getArgument(0).size(), TransferStatus.OK));
+    }
+
+    private TransferRequestDto transfer() {
+        return new TransferRequestDto(UUID.randomUUID(), UUID.randomUUID(), BigDecimal.ONE);
+    }
+}
@@ -0,0 +1,257 @@
+package ru.globus.service.impl;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.globus.config.TransferProperties;
+import ru.globus.dto.TransferRequestDto;
+import ru.globus.exception.TransferQueueFullException;
+import ru.globus.model.enums.TransferMode;
+import ru.globus.model.enums.TransferStatus;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TransferLaneExecutorTest {
+
+    @Mock
+    private TransferBatchProcessor transferBatchProcessor;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private final TransferProperties transferProperties = new TransferProperties();
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CountDownLatch entered = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    private TransferLaneExecutor executor;
+
+    @BeforeEach
+    void setUp() {
+        transferProperties.getLanes().setEnabled(true);
+        lenient().when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+            invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(new SimpleTransactionStatus()));
+        executor = new TransferLaneExecutor(transferProperties, transferBatchProcessor, transactionTemplate, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        executor.stop();
+    }
+
+    @Test
+    void submit_ShouldHandCrossLaneTransferToHigherLane() throws Exception {
+        answerOk();
+        executor.start();
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        while (executor.laneIndex(first) == executor.laneIndex(second)) {
+            second = UUID.randomUUID();
+        }
+
+        var status = executor.submit(transfer(first, second)).get(5, TimeUnit.SECONDS);
+
+        assertEquals(TransferStatus.OK, status);
+        String lower = String.valueOf(Math.min(executor.laneIndex(first), executor.laneIndex(second)));
+        String higher = String.valueOf(Math.max(executor.laneIndex(first), executor.laneIndex(second)));
+        assertEquals(0, meterRegistry.summary("transfer.lane.batch.size", "lane", lower).count());
+        assertEquals(1, meterRegistry.summary("transfer.lane.batch.size", "lane", higher).count());
+    }
+
+    @Test
+    void submit_ShouldNeverWriteAccountFromTwoLanesAtOnce() throws Exception {
+        transferProperties.getLanes().setCount(4);
+        var writing = ConcurrentHashMap.<UUID>newKeySet();
+        var overlaps = new AtomicInteger();
+        when(transferBatchProcessor.process(any(), any())).thenAnswer(invocation -> {
+            List<TransferRequestDto> transfers = invocation.getArgument(0);
+            var accounts = new HashSet<UUID>();
+            transfers.forEach(t -> {
+                accounts.add(t.fromAccountId());
+                accounts.add(t.toAccountId());
+            });
+            for (UUID account : accounts) {
+                if (!writing.add(account)) {
+                    overlaps.incrementAndGet();
+                }
+            }
+            Thread.sleep(1);
+            writing.removeAll(accounts);
+            return Collections.nCopies(transfers.size(), TransferStatus.OK);
+        });
+        executor.start();
+        var accounts = IntStream.range(0, 8).mapToObj(i -> UUID.randomUUID()).toList();
+        var random = new Random(42);
+
+        var results = new ArrayList<CompletableFuture<TransferStatus>>();
+        for (int i = 0; i < 500; i++) {
+            UUID from = accounts.get(random.nextInt(accounts.size()));
+            UUID to = accounts.get(random.nextInt(accounts.size()));
+            results.add(executor.submit(transfer(from, to)));
+        }
+
+        for (var result : results) {
+            assertEquals(TransferStatus.OK, result.get(10, TimeUnit.SECONDS));
+        }
+        assertEquals(0, overlaps.get());
+    }
+
+    @Test
+    void submit_ShouldCommitQueuedTransfersInOneTransaction() throws Exception {
+        transferProperties.getLanes().setCount(1);
+        blockFirstBatch();
+        executor.start();
+
+        var blocking = executor.submit(transfer(UUID.randomUUID(), UUID.randomUUID()));
+        assertTrue(entered.await(5, TimeUnit.SECONDS));
+        var queued = List.of(
+            executor.submit(transfer(UUID.randomUUID(), UUID.randomUUID())),
+            executor.submit(transfer(UUID.randomUUID(), UUID.randomUUID())),
+            executor.submit(transfer(UUID.randomUUID(), UUID.randomUUID()))
+        );
+        release.countDown();
+
+        assertEquals(TransferStatus.OK, blocking.get(5, TimeUnit.SECONDS));
+        for (var result : queued) {
+            assertEquals(TransferStatus.OK, result.get(5, TimeUnit.SECONDS));
+        }
+        verify(transactionTemplate, times(2)).execute(any());
+        assertEquals(4, meterRegistry.summary("transfer.lane.batch.size", "lane", "0").totalAmount());
+    }
+
+    @Test
+    void submit_ShouldThrowTransferQueueFullException_WhenQueueIsFull() throws Exception {
+        transferProperties.getLanes().setCount(1);
+        transferProperties.getLanes().setQueueCapacity(1);
+        blockFirstBatch();
+        executor.start();
+
+        executor.submit(transfer(UUID.randomUUID(), UUID.randomUUID()));
+        assertTrue(entered.await(5, TimeUnit.SECONDS));
+        executor.submit(transfer(UUID.randomUUID(), UUID.randomUUID()));
+
+        assertThrows(TransferQueueFullException.class,
+            () -> executor.submit(transfer(UUID.randomUUID(), UUID.randomUUID())));
+        assertEquals(1, meterRegistry.counter("transfer.lane.rejected", "lane", "0").count());
+    }
+
+    @Test
+    void submit_ShouldRetryTransfersOneByOne_WhenGroupTransactionFails() throws Exception {
+        transferProperties.getLanes().setCount(1);
+        var failing = transfer(UUID.randomUUID(), UUID.randomUUID());
+        var healthy = transfer(UUID.randomUUID(), UUID.randomUUID());
+        blockFirstBatch();
+        executor.start();
+
+        var blocking = executor.submit(transfer(UUID.randomUUID(), UUID.randomUUID()));
+        assertTrue(entered.await(5, TimeUnit.SECONDS));
+        doThrow(new PessimisticLockingFailureException("lock timeout"))
+            .when(transferBatchProcessor).process(eq(List.of(failing, healthy)), any());
+        doThrow(new PessimisticLockingFailureException("lock timeout"))
+            .when(transferBatchProcessor).process(eq(List.of(failing)), any());
+        doReturn(List.of(TransferStatus.OK)).when(transferBatchProcessor).process(eq(List.of(healthy)), any());
+        var failed = executor.submit(failing);
+        var succeeded = executor.submit(healthy);
+        release.countDown();
+
+        assertEquals(TransferStatus.OK, blocking.get(5, TimeUnit.SECONDS));
+        assertEquals(TransferStatus.OK, succeeded.get(5, TimeUnit.SECONDS));
+        var e = assertThrows(ExecutionException.class, () -> failed.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(PessimisticLockingFailureException.class, e.getCause());
+        assertEquals(1, meterRegistry.counter("transfer.lane.fallbacks", "lane", "0").count());
+    }
+
+    @Test
+    void submit_ShouldSkipTransfer_WhenCancelledBeforeLaneTookIt() throws Exception {
+        transferProperties.getLanes().setCount(1);
+        blockFirstBatch();
+        executor.start();
+
+        var blocking = executor.submit(transfer(UUID.randomUUID(), UUID.randomUUID()));
+        assertTrue(entered.await(5, TimeUnit.SECONDS));
+        var cancelled = transfer(UUID.randomUUID(), UUID.randomUUID());
+        executor.submit(cancelled).cancel(false);
+        release.countDown();
+
+        assertEquals(TransferStatus.OK, blocking.get(5, TimeUnit.SECONDS));
+        verify(transferBatchProcessor, after(200).never()).process(eq(List.of(cancelled)), any());
+    }
+
+    @Test
+    void submit_ShouldThrowIllegalStateException_WhenLanesNotStarted() {
+        assertThrows(IllegalStateException.class, () -> executor.submit(transfer(UUID.randomUUID(), UUID.randomUUID())));
+    }
+
+    @Test
+    void submit_ShouldRunTransfer_InAtomicMode() throws Exception {
+        transferProperties.setMode(TransferMode.ATOMIC);
+        answerOk();
+        executor.start();
+
+        assertEquals(TransferStatus.OK, executor.submit(transfer(UUID.randomUUID(), UUID.randomUUID())).get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void submit_ShouldCountCrossLaneTransfers() throws Exception {
+        answerOk();
+        executor.start();
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        while (executor.laneIndex(first) == executor.laneIndex(second)) {
+            second = UUID.randomUUID();
+        }
+
+        executor.submit(transfer(first, second)).get(5, TimeUnit.SECONDS);
+
+        String lower = String.valueOf(Math.min(executor.laneIndex(first), executor.laneIndex(second)));
+        assertEquals(1, meterRegistry.counter("transfer.lane.cross", "lane", lower).count());
+    }
+
+    private void answerOk() {
+        when(transferBatchProcessor.process(any(), any())).thenAnswer(invocation ->
+            Collections.nCopies(invocation.<List<?>>getArgument(0).size(), TransferStatus.OK));
+    }
+
+    private void blockFirstBatch() {
+        when(transferBatchProcessor.process(any(), any())).thenAnswer(invocation -> {
+            if (entered.getCount() > 0) {
+                entered.countDown();
+                release.await();
+            }
+            return Collections.nCopies(invocation.<List<?>>getArgument(0).size(), TransferStatus.OK);
+        });
+    }
+
+    private TransferRequestDto transfer(UUID from, UUID to) {
+        return new TransferRequestDto(from, to, BigDecimal.ONE);
+    }
+}
@@ -0,0 +1,133 @@
+package ru.globus.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.globus.config.UserImportProperties;
+import ru.globus.dto.UserImportErrorDto;
+import ru.globus.exception.ValidationException;
+import ru.globus.model.enums.UserImportFormat;
+import ru.globus.repository.UserImportJdbcRepository;
+import ru.globus.repository.UserImportJdbcRepository.RejectedUser;
+import ru.globus.repository.UserImportJdbcRepository.StagedUser;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserBulkImporterTest {
+
+    @Mock
+    private UserImportJdbcRepository userImportJdbcRepository;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private final UserImportProperties userImportProperties = new UserImportProperties();
+    private final List<StagedUser> staged = new ArrayList<>();
+
+    private UserBulkImporter importer;
+
+    @BeforeEach
+    void setUp() {
+        importer = new UserBulkImporter(userImportJdbcRepository, userImportProperties, transactionTemplate,
+            Validation.buildDefaultValidatorFactory().getValidator(), new ObjectMapper());
+        lenient().doAnswer(invocation -> {
+            invocation.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+        lenient().when(userImportJdbcRepository.copy(any(), anyInt())).thenAnswer(invocation -> {
+            invocation.<Iterator<StagedUser>>getArgument(0).forEachRemaining(staged::add);
+            return (long) staged.size();
+        });
+    }
+
+    @Test
+    void importUsers_ShouldStageValidCsvRows_AndReportInvalidOnes() {
+        String csv = """
+            surname,firstname,email,middlename
+            Иванов,Иван,ivan@example.com,Иванович
+            Петров,Пётр,not-an-email,
+
+            "Сидоров, мл.",Сидор,sidor@example.com,
+            """;
+        doAnswer(invocation -> {
+            invocation.<Consumer<RejectedUser>>getArgument(0).accept(new RejectedUser(2, "ivan@example.com", false));
+            return null;
+        }).when(userImportJdbcRepository).merge(any());
+
+        var report = importer.importUsers(stream(csv), UserImportFormat.CSV);
+
+        assertEquals(List.of(
+            new StagedUser(2, "ivan@example.com", "Иван", "Иванов", "Иванович"),
+            new StagedUser(5, "sidor@example.com", "Сидор", "Сидоров, мл.", null)
+        ), staged);
+        assertEquals(3, report.rows());
+        assertEquals(1, report.imported());
+        assertEquals(2, report.failed());
+        assertEquals(List.of(
+            new UserImportErrorDto(2, "ivan@example.com", "Пользователь с таким email уже существует"),
+            new UserImportErrorDto(3, "not-an-email", "email: Некорректный формат email")
+        ), report.errors());
+    }
+
+    @Test
+    void importUsers_ShouldReportUnparsableNdjsonLine_AndContinue() {
+        String ndjson = """
+            {"email":"a@example.com","firstname":"Анна","surname":"Аннова"}
+            {"email":"b@example.com",
+            {"email":"c@example.com","firstname":"Вера","surname":"Верова","extra":1}
+            """;
+
+        var report = importer.importUsers(stream(ndjson), UserImportFormat.NDJSON);
+
+        assertEquals(List.of(1L, 3L), staged.stream().map(StagedUser::line).toList());
+        assertEquals(3, report.rows());
+        assertEquals(2, report.imported());
+        assertEquals(2, report.errors().get(0).line());
+    }
+
+    @Test
+    void importUsers_ShouldLimitReportedErrors_ButCountAll() {
+        userImportProperties.setMaxReportedErrors(2);
+        String ndjson = "{}\n".repeat(5);
+
+        var report = importer.importUsers(stream(ndjson), UserImportFormat.NDJSON);
+
+        assertEquals(5, report.failed());
+        assertEquals(2, report.errors().size());
+        assertTrue(staged.isEmpty());
+    }
+
+    @Test
+    void importUsers_ShouldRejectCsvWithoutRequiredColumns() {
+        assertThrows(ValidationException.class,
+            () -> importer.importUsers(stream("email,name\na@example.com,Анна\n"), UserImportFormat.CSV));
+    }
+
+    @Test
+    void fromContentType_ShouldAcceptParametersAndRejectOtherTypes() {
+        assertEquals(UserImportFormat.CSV, UserImportFormat.fromContentType("text/csv; charset=UTF-8"));
+        assertEquals(UserImportFormat.NDJSON, UserImportFormat.fromContentType("application/x-ndjson"));
+        assertThrows(ValidationException.class, () -> UserImportFormat.fromContentType("application/json"));
+    }
+
+    private ByteArrayInputStream stream(String text) {
+        return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,91 @@
+package ru.globus.service.impl;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import ru.globus.TestcontainersConfiguration;
+import ru.globus.model.entity.BankAccount;
+import ru.globus.model.entity.User;
+import ru.globus.model.enums.CurrencyCode;
+import ru.globus.repository.BankAccountRepository;
+import ru.globus.repository.UserRepository;
+import ru.globus.service.UserService;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Import(TestcontainersConfiguration.class)
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("fake-scheduler")
+@Testcontainers(disabledWithoutDocker = true)
+class UserListQueryCountTest {
+
+    private static final int USERS = 60;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private BankAccountRepository bankAccountRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < USERS; i++) {
+            User user = new User();
+            user.setEmail(UUID.randomUUID() + "@example.com");
+            user.setFirstname("Иван");
+            user.setSurname("Иванов");
+            user = userRepository.save(user);
+            for (int j = 0; j < 2; j++) {
+                bankAccountRepository.save(new BankAccount()
+                    .setUser(user)
+                    .setCurrencyCode(CurrencyCode.RUB)
+                    .setAccountNumber(UUID.randomUUID().toString().replace("-", "").substring(0, 20)));
+            }
+        }
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void getAll_ShouldUseSameNumberOfStatements_RegardlessOfPageSize() {
+        long small = statementsForPage(5);
+        long large = statementsForPage(50);
+
+        assertEquals(small, large);
+        assertTrue(large <= 3, "страница, число и счета: " + large);
+    }
+
+    /**
+     * Запрашивает страницу внутри сессии, как при open-in-view, чтобы ленивые коллекции
+     * загружались, а не падали с LazyInitializationException.
+     */
+    private long statementsForPage(int size) {
+        statistics.clear();
+        var page = transactionTemplate.execute(status -> userService.getAll(PageRequest.of(0, size)));
+        assertEquals(size, page.getNumberOfElements());
+        assertTrue(page.getContent().stream().allMatch(user -> user.accountIds() != null));
+        return statistics.getPrepareStatementCount();
+    }
+}
@@ -1,29 +1,41 @@
 package ru.globus.service.impl;
 
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import ru.globus.config.UserSearchProperties;
 import ru.globus.dto.UserRequestDto;
 import ru.globus.dto.UserResponseDto;
 import ru.globus.exception.UserAlreadyExistException;
 import ru.globus.exception.UserNotFoundException;
+import ru.globus.exception.ValidationException;
 import ru.globus.mapper.UserMapper;
 import ru.globus.model.entity.User;
+import ru.globus.repository.BankAccountRepository;
 import ru.globus.repository.UserRepository;
+import ru.globus.util.Cursor;
 
+import java.sql.SQLException;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -32,9 +44,15 @@ class UserServiceImplTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private BankAccountRepository bankAccountRepository;
+
     @Mock
     private UserMapper userMapper;
 
+    @Spy
+    private UserSearchProperties userSearchProperties = new UserSearchProperties();
+
     @InjectMocks
     private UserServiceImpl userService;
 
@@ -62,8 +80,7 @@ class UserServiceImplTest {
     }
 
     @Test
-    void create_ShouldCreateUser_WhenValidData() {
-        when(userRepository.existsByEmail(requestDto.email())).thenReturn(false);
+    void create_ShouldInsertUserWithoutExistenceCheck() {
         when(userMapper.toEntity(requestDto)).thenReturn(user);
         when(userRepository.save(user)).thenReturn(user);
         when(userMapper.toResponseDto(user)).thenReturn(responseDto);
@@ -71,23 +88,32 @@ class UserServiceImplTest {
         UserResponseDto result = userService.create(requestDto);
 
         assertEquals(responseDto, result);
-        verify(userRepository).existsByEmail(requestDto.email());
         verify(userRepository).save(user);
+        verifyNoMoreInteractions(userRepository);
     }
 
     @Test
-    void create_ShouldThrowUserAlreadyExistException_WhenEmailExists() {
-        when(userRepository.existsByEmail(requestDto.email())).thenReturn(true);
+    void create_ShouldThrowUserAlreadyExistException_WhenEmailConstraintIsViolated() {
+        when(userMapper.toEntity(requestDto)).thenReturn(user);
+        when(userRepository.save(user)).thenThrow(constraintViolation("uc_users_email"));
 
         assertThrows(UserAlreadyExistException.class, () -> userService.create(requestDto));
     }
 
+    @Test
+    void create_ShouldRethrow_WhenOtherConstraintIsViolated() {
+        when(userMapper.toEntity(requestDto)).thenReturn(user);
+        when(userRepository.save(user)).thenThrow(constraintViolation("pk_users"));
+
+        assertThrows(DataIntegrityViolationException.class, () -> userService.create(requestDto));
+    }
+
     @Test
     void getAll_ShouldReturnPagedUsers() {
         Pageable pageable = PageRequest.of(0, 10);
         Page<User> page = new PageImpl<>(List.of(user));
         when(userRepository.findAll(pageable)).thenReturn(page);
-        when(userMapper.toResponseDto(user)).thenReturn(responseDto);
+        when(userMapper.toResponseDto(user, List.of())).thenReturn(responseDto);
 
         Page<UserResponseDto> result = userService.getAll(pageable);
 
@@ -95,6 +121,89 @@ class UserServiceImplTest {
         verify(userRepository).findAll(pageable);
     }
 
+    @Test
+    void getAll_ShouldLoadAccountIdsForWholePageInOneQuery() {
+        Pageable pageable = PageRequest.of(0, 50);
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            User pageUser = spy(new User());
+            pageUser.setId(UUID.randomUUID());
+            users.add(pageUser);
+        }
+        UUID accountId = UUID.randomUUID();
+        var owned = ownedAccountId(users.get(0).getId(), accountId);
+        when(userRepository.findAll(pageable)).thenReturn(new PageImpl<>(users));
+        when(bankAccountRepository.findAccountIdsByUserIds(anyList())).thenReturn(List.of(owned));
+
+        userService.getAll(pageable);
+
+        verify(bankAccountRepository, times(1)).findAccountIdsByUserIds(users.stream().map(User::getId).toList());
+        verify(userMapper).toResponseDto(users.get(0), List.of(accountId));
+        verify(userMapper).toResponseDto(users.get(1), List.of());
+        users.forEach(pageUser -> verify(pageUser, never()).getAccounts());
+    }
+
+    @Test
+    void scroll_ShouldReadOneExtraRow_AndContinueAfterCursor() {
+        User next = new User();
+        next.setId(UUID.randomUUID());
+        next.setRegisteredAt(registeredAt.plusSeconds(1));
+        when(userRepository.findPageAfter(registeredAt, userId, 2)).thenReturn(List.of(next));
+        when(userMapper.toResponseDto(next, List.of())).thenReturn(responseDto);
+
+        var result = userService.scroll(new Cursor(registeredAt, userId).encode(), 1);
+
+        assertEquals(List.of(responseDto), result.content());
+        assertNull(result.next());
+        verify(userRepository, never()).findAll(any(Pageable.class));
+    }
+
+    @Test
+    void scroll_ShouldReturnCursorOfLastUser_WhenMoreUsersExist() {
+        User next = new User();
+        next.setId(UUID.randomUUID());
+        when(userRepository.findFirstPage(2)).thenReturn(List.of(user, next));
+        when(bankAccountRepository.findAccountIdsByUserIds(List.of(userId))).thenReturn(List.of());
+        when(userMapper.toResponseDto(user, List.of())).thenReturn(responseDto);
+
+        var result = userService.scroll(null, 1);
+
+        assertEquals(List.of(responseDto), result.content());
+        assertEquals(new Cursor(registeredAt, userId), Cursor.decode(result.next()));
+    }
+
+    @Test
+    void search_ShouldUseTrigramIndexes_WithEscapedPattern_UnderTimeout() {
+        when(userRepository.searchByFragment("ivan_p%", "%ivan\\_p\\%%", "ivan\\_p\\%%", 1_000, 10)).thenReturn(List.of(user));
+        when(userMapper.toResponseDto(user, List.of())).thenReturn(responseDto);
+
+        var result = userService.search("  ivan_p%  ", 10);
+
+        assertEquals(List.of(responseDto), result);
+        var order = inOrder(userRepository);
+        order.verify(userRepository).setStatementTimeout("500ms");
+        order.verify(userRepository).searchByFragment(any(), any(), any(), anyInt(), anyInt());
+    }
+
+    @Test
+    void search_ShouldUsePrefixIndexes_ForShortQuery() {
+        when(userRepository.searchByPrefix("ив", "ив%", 1_000, 20)).thenReturn(List.of());
+
+        var result = userService.search("ив", 20);
+
+        assertTrue(result.isEmpty());
+        verify(userRepository, never()).searchByFragment(any(), any(), any(), anyInt(), anyInt());
+    }
+
+    @Test
+    void search_ShouldRejectBlankQuery_AndLimitOutOfRange() {
+        assertThrows(ValidationException.class, () -> userService.search("   ", 20));
+        assertThrows(ValidationException.class, () -> userService.search("ivan", 0));
+        assertThrows(ValidationException.class, () -> userService.search("ivan", 51));
+
+        verifyNoInteractions(userRepository);
+    }
+
     @Test
     void getById_ShouldReturnUser_WhenExists() {
         when(userRepository.findById(userId)).thenReturn(Optional.of(user));
@@ -153,4 +262,23 @@ class UserServiceImplTest {
         verify(userRepository).existsById(userId);
         verify(userRepository, never()).deleteById(userId);
     }
+
+    private BankAccountRepository.OwnedAccountId ownedAccountId(UUID userId, UUID accountId) {
+        return new BankAccountRepository.OwnedAccountId() {
+            @Override
+            public UUID getUserId() {
+                return userId;
+            }
+
+            @Override
+            public UUID getAccountId() {
+                return accountId;
+            }
+        };
+    }
+
+    private DataIntegrityViolationException constraintViolation(String constraintName) {
+        return new DataIntegrityViolationException("could not execute statement",
+            new ConstraintViolationException("duplicate", new SQLException("duplicate", "23505"), constraintName));
+    }
 }
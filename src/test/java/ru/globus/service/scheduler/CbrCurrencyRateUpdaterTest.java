@@ -0,0 +1,227 @@
+package ru.globus.service.scheduler;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpServer;
+import feign.Feign;
+import feign.hc5.ApacheHttp5Client;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cloud.openfeign.support.SpringMvcContract;
+import ru.globus.config.BankClientConfig;
+import ru.globus.config.BankClientProperties;
+import ru.globus.config.CurrencyRateProperties;
+import ru.globus.config.FeignConfig;
+import ru.globus.feign.BankClient;
+import ru.globus.model.enums.CurrencyCode;
+import ru.globus.service.CurrencyRateService;
+import ru.globus.service.impl.SchedulerLock;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Обновление курсов через Feign-клиент на Apache HttpClient 5 с настройками {@link FeignConfig} и {@link BankClientConfig}
+ * против локального сервера, отдающего записанный ответ ЦБР.
+ */
+@ExtendWith(MockitoExtension.class)
+class CbrCurrencyRateUpdaterTest {
+
+    private static final String ETAG = "\"2014-03-03\"";
+    private static final String LAST_MODIFIED = "Sat, 01 Mar 2014 12:00:00 GMT";
+
+    @Mock
+    private CurrencyRateService currencyRateService;
+
+    @Mock
+    private SchedulerLock schedulerLock;
+
+    private final CurrencyRateProperties currencyRateProperties = new CurrencyRateProperties();
+    private final SchedulerLock.Lease lease = new SchedulerLock.Lease(CbrCurrencyRateUpdater.LOCK_NAME, 7);
+
+    private final List<Headers> requests = Collections.synchronizedList(new ArrayList<>());
+    private final AtomicInteger failures = new AtomicInteger();
+
+    private HttpServer server;
+    private BankClient bankClient;
+    private CbrCurrencyRateUpdater updater;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        byte[] gzipped;
+        try (InputStream xml = getClass().getResourceAsStream("/cbr/XML_daily_2014-03-03.xml")) {
+            var bytes = new ByteArrayOutputStream();
+            try (var gzip = new GZIPOutputStream(bytes)) {
+                xml.transferTo(gzip);
+            }
+            gzipped = bytes.toByteArray();
+        }
+
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", exchange -> {
+            try (exchange) {
+                var headers = exchange.getRequestHeaders();
+                requests.add(headers);
+                if (failures.getAndDecrement() > 0) {
+                    exchange.sendResponseHeaders(503, -1);
+                } else if (ETAG.equals(headers.getFirst("If-None-Match"))) {
+                    exchange.sendResponseHeaders(304, -1);
+                } else {
+                    exchange.getResponseHeaders().add("Content-Type", "application/xml; charset=windows-1251");
+                    exchange.getResponseHeaders().add("Content-Encoding", "gzip");
+                    exchange.getResponseHeaders().add("ETag", ETAG);
+                    exchange.getResponseHeaders().add("Last-Modified", LAST_MODIFIED);
+                    exchange.sendResponseHeaders(200, gzipped.length);
+                    exchange.getResponseBody().write(gzipped);
+                }
+            }
+        });
+        server.start();
+
+        var properties = new BankClientProperties();
+        properties.getRetry().setInitialBackoff(Duration.ofMillis(10));
+        properties.getRetry().setMaxBackoff(Duration.ofMillis(50));
+        var httpClient = HttpClients.custom();
+        new FeignConfig().disableHttpClientRetries().customize(httpClient);
+        var config = new BankClientConfig();
+        bankClient = Feign.builder()
+            .client(new ApacheHttp5Client(httpClient.build()))
+            .contract(new SpringMvcContract())
+            .retryer(config.bankClientRetryer(properties))
+            .responseInterceptor(config.bankClientRetryOnServerError())
+            .target(BankClient.class, "http://localhost:" + server.getAddress().getPort());
+        updater = new CbrCurrencyRateUpdater(bankClient, currencyRateService, schedulerLock, currencyRateProperties);
+        lenient().when(schedulerLock.tryAcquire(CbrCurrencyRateUpdater.LOCK_NAME, currencyRateProperties.getRefreshLock().getTtl()))
+            .thenReturn(Optional.of(lease));
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    void updateRates_ShouldDecompressAndSaveRates() {
+        updater.updateRates();
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Map<CurrencyCode, BigDecimal>> rates = ArgumentCaptor.forClass(Map.class);
+        verify(currencyRateService).saveRates(rates.capture(), any(), any());
+        assertEquals(new BigDecimal("36.0501"), rates.getValue().get(CurrencyCode.USD));
+        assertEquals(BigDecimal.ONE, rates.getValue().get(CurrencyCode.RUB));
+        assertTrue(requests.get(0).getFirst("Accept-Encoding").contains("gzip"));
+        assertNull(requests.get(0).getFirst("If-None-Match"));
+        assertNull(requests.get(0).getFirst("If-Modified-Since"));
+    }
+
+    @Test
+    void updateRates_ShouldSkipDownload_WhenRatesAreNotModified() {
+        updater.updateRates();
+        updater.updateRates();
+
+        verify(currencyRateService, times(1)).saveRates(any(), any(), any());
+        assertEquals(2, requests.size());
+        assertEquals(ETAG, requests.get(1).getFirst("If-None-Match"));
+        assertEquals(LAST_MODIFIED, requests.get(1).getFirst("If-Modified-Since"));
+    }
+
+    @Test
+    void updateRates_ShouldDownloadAgain_WhenPreviousSaveFailed() {
+        doThrow(new IllegalStateException("db down")).doNothing().when(currencyRateService).saveRates(any(), any(), any());
+
+        updater.updateRates();
+        updater.updateRates();
+
+        verify(currencyRateService, times(2)).saveRates(any(), any(), any());
+        assertNull(requests.get(1).getFirst("If-None-Match"));
+    }
+
+    @Test
+    void updateRates_ShouldRetryServerErrors() {
+        failures.set(2);
+
+        updater.updateRates();
+
+        assertEquals(3, requests.size());
+        verify(currencyRateService).saveRates(any(), any(), any());
+    }
+
+    @Test
+    void updateRates_ShouldGiveUp_AfterMaxAttempts() {
+        failures.set(10);
+
+        updater.updateRates();
+
+        assertEquals(4, requests.size());
+        verifyNoInteractions(currencyRateService);
+    }
+
+    @Test
+    void updateRates_ShouldCheckLockInSaveTransaction_AndReleaseIt() {
+        updater.updateRates();
+
+        ArgumentCaptor<Runnable> fence = ArgumentCaptor.forClass(Runnable.class);
+        verify(currencyRateService).saveRates(any(), any(), fence.capture());
+        fence.getValue().run();
+        verify(schedulerLock).checkHeld(lease);
+        verify(schedulerLock).release(lease, currencyRateProperties.getRefreshLock().getMinHold());
+    }
+
+    @Test
+    void updateRates_ShouldReleaseLockImmediately_WhenRefreshFails() {
+        failures.set(10);
+
+        updater.updateRates();
+
+        verify(schedulerLock).release(lease);
+        verify(schedulerLock, never()).release(any(), any());
+    }
+
+    @Test
+    void updateRates_ShouldNotFetchAgain_WhenCalledRightAfterSuccessfulRefresh() {
+        var held = new AtomicBoolean();
+        when(schedulerLock.tryAcquire(any(), any())).thenAnswer(invocation ->
+            held.get() ? Optional.empty() : Optional.of(lease));
+        doAnswer(invocation -> {
+            held.set(true);
+            return null;
+        }).when(schedulerLock).release(lease, currencyRateProperties.getRefreshLock().getMinHold());
+        var restarted = new CbrCurrencyRateUpdater(bankClient, currencyRateService, schedulerLock, currencyRateProperties);
+
+        updater.updateRates();
+        restarted.updateRates();
+
+        assertEquals(1, requests.size());
+        verify(currencyRateService, times(1)).saveRates(any(), any(), any());
+    }
+
+    @Test
+    void updateRates_ShouldSkipFetch_WhenLockIsHeldByOtherInstance() {
+        when(schedulerLock.tryAcquire(any(), any())).thenReturn(Optional.empty());
+
+        updater.updateRates();
+
+        assertTrue(requests.isEmpty());
+        verifyNoInteractions(currencyRateService);
+    }
+}
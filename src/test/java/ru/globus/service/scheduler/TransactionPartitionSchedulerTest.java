@@ -0,0 +1,62 @@
+package ru.globus.service.scheduler;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import ru.globus.config.TransferProperties;
+import ru.globus.repository.TransactionJdbcRepository;
+
+import java.time.YearMonth;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TransactionPartitionSchedulerTest {
+
+    @Mock
+    private TransactionJdbcRepository transactionJdbcRepository;
+
+    @Spy
+    private TransferProperties transferProperties = new TransferProperties();
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @InjectMocks
+    private TransactionPartitionScheduler scheduler;
+
+    @Test
+    void createPartitions_ShouldCreateCurrentAndNextMonths() {
+        transferProperties.getLedger().setPartitionsAhead(2);
+
+        scheduler.createPartitions();
+
+        YearMonth current = YearMonth.now();
+        verify(transactionJdbcRepository).createPartition(current);
+        verify(transactionJdbcRepository).createPartition(current.plusMonths(1));
+        verify(transactionJdbcRepository).createPartition(current.plusMonths(2));
+        assertEquals(0, meterRegistry.counter("transfer.ledger.partition.failures").count());
+    }
+
+    @Test
+    void createPartitions_ShouldCountFailure_AndContinueWithNextMonth() {
+        transferProperties.getLedger().setPartitionsAhead(1);
+        YearMonth current = YearMonth.now();
+        when(transactionJdbcRepository.createPartition(current))
+            .thenThrow(new DataIntegrityViolationException("updated partition constraint for default partition would be violated"));
+
+        scheduler.createPartitions();
+
+        verify(transactionJdbcRepository).createPartition(current.plusMonths(1));
+        verify(transactionJdbcRepository, times(2)).createPartition(any());
+        assertEquals(1, meterRegistry.counter("transfer.ledger.partition.failures").count());
+    }
+}
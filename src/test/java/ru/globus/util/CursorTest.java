@@ -0,0 +1,48 @@
+package ru.globus.util;
+
+import org.junit.jupiter.api.Test;
+import ru.globus.exception.ValidationException;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CursorTest {
+
+    private final LocalDateTime created = LocalDateTime.of(2025, 11, 7, 14, 23, 55, 123_456_000);
+
+    @Test
+    void decode_ShouldRestoreEncodedPosition() {
+        var cursor = new Cursor(created, UUID.randomUUID());
+
+        assertEquals(cursor, Cursor.decode(cursor.encode()));
+    }
+
+    @Test
+    void decode_ShouldThrowValidationException_ForForeignString() {
+        assertThrows(ValidationException.class, () -> Cursor.decode("not a cursor"));
+        assertThrows(ValidationException.class, () -> Cursor.decode("bm90IGEgY3Vyc29y"));
+    }
+
+    @Test
+    void checkPageSize_ShouldRejectSizeOutOfRange() {
+        assertThrows(ValidationException.class, () -> Cursor.checkPageSize(0));
+        assertThrows(ValidationException.class, () -> Cursor.checkPageSize(Cursor.MAX_PAGE_SIZE + 1));
+        assertDoesNotThrow(() -> Cursor.checkPageSize(Cursor.MAX_PAGE_SIZE));
+    }
+
+    @Test
+    void page_ShouldReturnNextCursorOfLastRow_OnlyWhenExtraRowWasRead() {
+        var ids = List.of(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID());
+
+        var full = Cursor.page(ids, 2, id -> new Cursor(created, id), List::copyOf);
+        var last = Cursor.page(ids, 3, id -> new Cursor(created, id), List::copyOf);
+
+        assertEquals(ids.subList(0, 2), full.content());
+        assertEquals(new Cursor(created, ids.get(1)), Cursor.decode(full.next()));
+        assertEquals(ids, last.content());
+        assertNull(last.next());
+    }
+}
@@ -0,0 +1,73 @@
+package ru.globus.util;
+
+import feign.FeignException;
+import feign.Request;
+import feign.Response;
+import org.junit.jupiter.api.Test;
+import ru.globus.dto.CbrRate;
+import ru.globus.exception.XmlParsingException;
+import ru.globus.model.enums.CurrencyCode;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class XmlParserTest {
+
+    @Test
+    void readCbrRates_ShouldParseWindows1251Document_SkippingUnknownCurrencies() throws Exception {
+        List<CbrRate> rates = new ArrayList<>();
+        try (InputStream xml = getClass().getResourceAsStream("/cbr/XML_daily_2014-03-03.xml")) {
+            XmlParser.readCbrRates(xml, rates::add);
+        }
+
+        assertEquals(List.of(
+            new CbrRate(CurrencyCode.USD, new BigDecimal("36.0501"), 1),
+            new CbrRate(CurrencyCode.EUR, new BigDecimal("49.6906"), 1),
+            new CbrRate(CurrencyCode.JPY, new BigDecimal("35.4497"), 100)
+        ), rates);
+    }
+
+    @Test
+    void readCbrRates_ShouldMatchBigDecimalOfDecimalComma_ForSplitAndCdataText() {
+        String xml = """
+            <?xml version="1.0" encoding="windows-1251"?>
+            <ValCurs Date="03.03.2014" name="Курсы">
+              <Valute ID="R01235"><CharCode>USD</CharCode><Nominal> 1 </Nominal><Value>36,<![CDATA[0501]]></Value></Valute>
+              <Valute ID="R01239"><CharCode>EUR</CharCode><Nominal>1</Nominal><Value>49,6906</Value><VunitRate>49,6906</VunitRate></Valute>
+            </ValCurs>
+            """;
+        List<CbrRate> rates = new ArrayList<>();
+
+        XmlParser.readCbrRates(new ByteArrayInputStream(xml.strip().getBytes(Charset.forName("windows-1251"))), rates::add);
+
+        assertEquals(new BigDecimal("36.0501"), rates.get(0).value());
+        assertEquals(new BigDecimal("49.6906"), rates.get(1).value());
+    }
+
+    @Test
+    void readCbrRates_ShouldThrowXmlParsingException_ForInvalidValue() {
+        String xml = "<ValCurs><Valute><CharCode>USD</CharCode><Nominal>1</Nominal><Value>36,05,01</Value></Valute></ValCurs>";
+
+        assertThrows(XmlParsingException.class, () ->
+            XmlParser.readCbrRates(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)), rate -> { }));
+    }
+
+    @Test
+    void readCbrRates_ShouldThrowFeignException_ForErrorStatus() {
+        Response response = Response.builder()
+            .status(503)
+            .request(Request.create(Request.HttpMethod.GET, "http://cbr", Map.of(), null, StandardCharsets.UTF_8, null))
+            .body("unavailable", StandardCharsets.UTF_8)
+            .build();
+
+        assertThrows(FeignException.class, () -> XmlParser.readCbrRates(response, rate -> { }));
+    }
+}